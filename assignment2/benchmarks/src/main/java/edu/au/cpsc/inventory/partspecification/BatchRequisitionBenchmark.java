@@ -0,0 +1,79 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I compare making the requisitions of a planning run one at a time, with
+ * {@link CreatePartSpecification#createRequisitionRequest} and
+ * {@link CreatePartSpecification#addRequisitionRequestToPartSpecification}, with making them all
+ * at once with {@link CreatePartSpecification#createRequisitionRequests(List)}.  Scores are
+ * requisitions per millisecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@Measurement(iterations = 5, time = 1)
+@OperationsPerInvocation(BatchRequisitionBenchmark.BATCH)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class BatchRequisitionBenchmark {
+
+  static final int BATCH = 1000;
+
+  @Param({"10000"})
+  public int partSpecifications;
+
+  private CreatePartSpecification useCase;
+  private List<CreatePartSpecification.RequisitionModel> requisitions;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    useCase = new InventoryDataset(partSpecifications, 100, 0).getUseCase();
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    requisitions = new ArrayList<>(BATCH);
+    for (int i = 0; i < BATCH; i++) {
+      var requisition = new CreatePartSpecification.RequisitionModel();
+      requisition.setPartSpecificationId((long) random.nextInt(partSpecifications));
+      requisition.setQuantity(1L + random.nextInt(500));
+      requisition.setEngineerName(InventoryDataset.engineer(random));
+      requisition.setRequestDate(
+          InventoryDataset.START.plusMinutes(random.nextInt(InventoryDataset.YEAR_MINUTES)));
+      requisition.setSupplierId((long) random.nextInt(100));
+      requisitions.add(requisition);
+    }
+  }
+
+  @Benchmark
+  public long oneAtATime() {
+    long last = 0;
+    for (var requisition : requisitions) {
+      Long id = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(requisition.getPartSpecificationId(), id,
+          requisition.getQuantity(), requisition.getEngineerName(),
+          requisition.getRequestDate(), requisition.getSupplierId());
+      last = id;
+    }
+    return last;
+  }
+
+  @Benchmark
+  public long batch() {
+    return useCase.createRequisitionRequests(requisitions);
+  }
+}
@@ -0,0 +1,165 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I compare {@link EntityCodec} with Java serialization and JSON (Jackson) at encoding and
+ * decoding a batch of requisition requests from an {@link InventoryDataset}.  Each format encodes
+ * the batch as one message and decodes it back into entities; the entities are not serializable,
+ * so Java serialization and JSON go through a plain transfer object holding the same fields.
+ *
+ * <p>The encoded size of each format, in bytes per request, is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class CodecBenchmark {
+
+  @Param({"10000"})
+  public int requests;
+
+  private List<PartRequisitionRequest> entities;
+  private Supplier[] suppliers;
+  private ObjectMapper json;
+  private byte[] codecBytes;
+  private byte[] javaBytes;
+  private byte[] jsonBytes;
+
+  /**
+   * I carry the fields of a requisition request for Java serialization and JSON.
+   */
+  public static class RequestMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public long id;
+    public long quantity;
+    public String engineerName;
+    public LocalDateTime requestDate;
+    public long[] supplierIds;
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    var dataset = new InventoryDataset(requests / 4, Math.max(1, requests / 100), requests);
+    entities = dataset.getPartRequisitionRequestRepository().findAll();
+    suppliers = dataset.getSupplierRepository().findAll().toArray(new Supplier[0]);
+    json = new ObjectMapper().registerModule(new JavaTimeModule());
+    codecBytes = encodeCodec();
+    javaBytes = encodeJava();
+    jsonBytes = encodeJson();
+    System.out.printf("%nbytes per request: codec %.1f, java %.1f, json %.1f%n",
+        (double) codecBytes.length / requests, (double) javaBytes.length / requests,
+        (double) jsonBytes.length / requests);
+  }
+
+  private List<RequestMessage> toMessages() {
+    var messages = new ArrayList<RequestMessage>(entities.size());
+    for (var request : entities) {
+      var message = new RequestMessage();
+      message.id = request.getId();
+      message.quantity = request.getQuantity();
+      message.engineerName = request.getEngineerName();
+      message.requestDate = request.getRequestDate();
+      message.supplierIds = request.getSuppliers().stream().mapToLong(Entity::getId).toArray();
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  private List<PartRequisitionRequest> fromMessages(List<RequestMessage> messages) {
+    var result = new ArrayList<PartRequisitionRequest>(messages.size());
+    for (var message : messages) {
+      var request = new PartRequisitionRequest();
+      request.setId(message.id);
+      request.setQuantity(message.quantity);
+      request.setEngineerName(message.engineerName);
+      request.setRequestDate(message.requestDate);
+      for (long supplierId : message.supplierIds) {
+        request.addSupplier(suppliers[(int) supplierId]);
+      }
+      result.add(request);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public byte[] encodeCodec() {
+    var out = new BinaryWriter(entities.size() * 16);
+    var codec = new EntityCodec();
+    codec.writeHeader(out);
+    out.writeVarLong(entities.size());
+    for (var request : entities) {
+      codec.writePartRequisitionRequest(out, request);
+    }
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> decodeCodec() {
+    var in = new BinaryReader(ByteBuffer.wrap(codecBytes));
+    var codec = new EntityCodec();
+    codec.readHeader(in);
+    int count = (int) in.readVarLong();
+    var result = new ArrayList<PartRequisitionRequest>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(codec.readPartRequisitionRequest(in, id -> suppliers[(int) id]));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public byte[] encodeJava() throws IOException {
+    var bytes = new ByteArrayOutputStream(entities.size() * 64);
+    try (var out = new ObjectOutputStream(bytes)) {
+      out.writeObject(toMessages());
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public List<PartRequisitionRequest> decodeJava() throws IOException, ClassNotFoundException {
+    try (var in = new ObjectInputStream(new ByteArrayInputStream(javaBytes))) {
+      return fromMessages((List<RequestMessage>) in.readObject());
+    }
+  }
+
+  @Benchmark
+  public byte[] encodeJson() throws IOException {
+    return json.writeValueAsBytes(toMessages());
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> decodeJson() throws IOException {
+    return fromMessages(json.readValue(jsonBytes, new TypeReference<List<RequestMessage>>() {
+    }));
+  }
+}
@@ -0,0 +1,132 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * I compare a {@link ColumnarRequestStore} with the default {@link IndexedEntityStore} holding the
+ * same requisition requests: summing the quantities requested in a quarter by scanning every
+ * request, finding one request by id, and reading one through its getters.
+ *
+ * <p>The heap taken by each store, in bytes per request, is measured with JOL and printed during
+ * setup.  Both stores are given the same engineer name strings and the same suppliers, which are
+ * not counted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ColumnarStoreBenchmark {
+
+  @Param({"1000000"})
+  public int requests;
+
+  private IndexedEntityStore<PartRequisitionRequest> objects;
+  private ColumnarRequestStore columns;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private long[] ids;
+  private int next;
+
+  /**
+   * I resolve supplier ids to the suppliers of an array.  JOL cannot walk a capturing lambda.
+   */
+  static class SupplierArray implements LongFunction<Supplier> {
+
+    private final Supplier[] suppliers;
+
+    SupplierArray(Supplier[] suppliers) {
+      this.suppliers = suppliers;
+    }
+
+    @Override
+    public Supplier apply(long id) {
+      return suppliers[(int) id];
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    var suppliers = new Supplier[100];
+    for (int i = 0; i < suppliers.length; i++) {
+      suppliers[i] = new Supplier();
+      suppliers[i].setId((long) i);
+    }
+    var engineers = new EngineerDictionary();
+    objects = new IndexedEntityStore<>();
+    columns = new ColumnarRequestStore(new SupplierArray(suppliers));
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    for (int i = 0; i < requests; i++) {
+      var request = new PartRequisitionRequest();
+      request.setPartSpecificationId((long) random.nextInt(requests / 10 + 1));
+      request.setQuantity(1L + random.nextInt(500));
+      request.setEngineerName(engineers.canonical(InventoryDataset.engineer(random)));
+      request.setRequestDate(
+          InventoryDataset.START.plusMinutes(random.nextInt(InventoryDataset.YEAR_MINUTES)));
+      request.addSupplier(suppliers[random.nextInt(suppliers.length)]);
+      objects.save(request);
+      columns.save(request);
+    }
+    from = InventoryDataset.START.plusMonths(3);
+    to = from.plusMonths(3);
+    ids = InventoryDataset.randomIds(4096, requests);
+
+    long shared = GraphLayout.parseInstance(suppliers, engineers).totalSize();
+    long objectBytes = GraphLayout.parseInstance(objects, suppliers, engineers).totalSize()
+        - shared;
+    long columnBytes = GraphLayout.parseInstance(columns, suppliers, engineers).totalSize()
+        - shared;
+    System.out.printf("%nbytes per request: objects %.1f, columns %.1f%n",
+        (double) objectBytes / requests, (double) columnBytes / requests);
+  }
+
+  @Benchmark
+  public long sumQuantityScanningObjects() {
+    long sum = 0;
+    for (var request : objects.findAll()) {
+      LocalDateTime date = request.getRequestDate();
+      if (date != null && !date.isBefore(from) && date.isBefore(to)) {
+        sum += request.getQuantity();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long sumQuantityScanningColumns() {
+    return columns.sumQuantityBetween(from, to);
+  }
+
+  @Benchmark
+  public void findOneObject(Blackhole blackhole) {
+    var request = objects.findOne(ids[next++ & 4095]);
+    blackhole.consume(request.getQuantity());
+    blackhole.consume(request.getEngineerName());
+    blackhole.consume(request.getRequestDate());
+  }
+
+  @Benchmark
+  public void findOneView(Blackhole blackhole) {
+    var request = columns.findOne(ids[next++ & 4095]);
+    blackhole.consume(request.getQuantity());
+    blackhole.consume(request.getEngineerName());
+    blackhole.consume(request.getRequestDate());
+  }
+}
@@ -0,0 +1,85 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure the throughput of a {@link ConcurrentEntityStore} shared by many threads: pure saves,
+ * pure lookups, and a mix of three readers to every writer.  Run me with {@code -t} to choose the
+ * thread count of the pure benchmarks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ConcurrentRepositoryBenchmark {
+
+  @Param({"100000"})
+  public int size;
+
+  private SupplierRepository repository;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    repository = new SupplierRepository(new ConcurrentEntityStore<>());
+    for (int i = 0; i < size; i++) {
+      repository.save(new Supplier());
+    }
+  }
+
+  /**
+   * I give each thread its own source of ids to look up.
+   */
+  @State(Scope.Thread)
+  public static class Ids {
+
+    private final SplittableRandom random = new SplittableRandom(InventoryDataset.SEED);
+
+    long next(int bound) {
+      return random.nextInt(bound);
+    }
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Long save() {
+    return repository.save(new Supplier());
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Supplier findOne(Ids ids) {
+    return repository.findOne(ids.next(size));
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(3)
+  public Supplier mixedFindOne(Ids ids) {
+    return repository.findOne(ids.next(size));
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public Long mixedSave() {
+    return repository.save(new Supplier());
+  }
+}
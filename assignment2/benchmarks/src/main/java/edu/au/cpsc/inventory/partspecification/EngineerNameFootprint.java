@@ -0,0 +1,58 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * I measure the heap taken by requisition requests whose engineer names are kept as codes in an
+ * {@link EngineerDictionary}, as a {@link PartRequisitionRequestRepository} keeps them once the
+ * requests are attached, against the heap they took when each held the string it was given.
+ *
+ * <p>Each request is given a fresh string, the way the console reads one per request, drawn from a
+ * few hundred engineers.  The heap in use is read after a full collection while the fresh strings
+ * are still reachable, as they were when requests held them, less the array keeping them so, and
+ * again once only the codes are left.  Run with {@code java -Xmx3g -cp target/benchmarks.jar
+ * edu.au.cpsc.inventory.partspecification.EngineerNameFootprint [requests engineers]}.
+ */
+public class EngineerNameFootprint {
+
+  public static void main(String[] args) {
+    int requestCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    int engineerCount = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+
+    long empty = usedHeap();
+    var requests = new PartRequisitionRequest[requestCount];
+    var names = new String[requestCount];
+    var engineerNames = new EngineerDictionary();
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    for (int i = 0; i < requestCount; i++) {
+      names[i] = new StringBuilder("Engineer ").append(random.nextInt(engineerCount)).toString();
+      requests[i] = new PartRequisitionRequest();
+      requests[i].setEngineerName(names[i]);
+    }
+    long fresh = usedHeap() - empty - (16L + 4L * requestCount);
+    for (var request : requests) {
+      request.encodeEngineerName(engineerNames);
+    }
+    names = null;
+    long coded = usedHeap() - empty;
+
+    System.out.printf("%,d requests by %d engineers%n", requestCount,
+        engineerNames.size());
+    System.out.printf("fresh names: %,d bytes (%.1f per request)%n", fresh,
+        (double) fresh / requestCount);
+    System.out.printf("coded names: %,d bytes (%.1f per request)%n", coded,
+        (double) coded / requestCount);
+    System.out.printf("saved %.1f%%%n", 100.0 * (fresh - coded) / fresh);
+    if (requests[0] == null || names != null) {
+      throw new AssertionError();
+    }
+  }
+
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
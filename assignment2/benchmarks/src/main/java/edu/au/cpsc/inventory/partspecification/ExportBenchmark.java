@@ -0,0 +1,57 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure exporting a whole {@link InventoryDataset} to a file with an {@link InventoryExporter}.
+ * Each invocation rewrites the same file.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+public class ExportBenchmark {
+
+  @Param({"100000"})
+  public int partSpecifications;
+
+  @Param({"csv", "ndjson"})
+  public String extension;
+
+  private CreatePartSpecification useCase;
+  private Path file;
+
+  @Setup
+  public void setUp() throws IOException {
+    useCase = new InventoryDataset(partSpecifications, partSpecifications / 10,
+        partSpecifications * 4).getUseCase();
+    file = Files.createTempFile("export-benchmark", "." + extension);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public long export() throws IOException {
+    return useCase.exportInventory(file);
+  }
+}
@@ -0,0 +1,88 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure the throughput of creating requisition requests from many threads at once, each added
+ * through the use case to one of a few hot part specifications, as
+ * {@link OptimisticTransactions} commit them.  The fewer the hot parts, the more often two
+ * threads add to the same part and one of them has to run its transaction again; the share of
+ * attempts that conflicted is printed after each iteration.  The repositories use
+ * {@link ConcurrentEntityStore}s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 3, time = 1)
+public class HotPartContentionBenchmark {
+
+  @Param({"1", "16", "1024"})
+  public int hotParts;
+
+  private CreatePartSpecification useCase;
+  private Long[] parts;
+  private Long[] suppliers;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    useCase = new CreatePartSpecification(
+        new PartSpecificationRepository(new ConcurrentEntityStore<>()),
+        new SupplierRepository(new ConcurrentEntityStore<>()),
+        new PartRequisitionRequestRepository(new ConcurrentEntityStore<>()));
+    parts = new Long[hotParts];
+    for (int i = 0; i < hotParts; i++) {
+      parts[i] = useCase.createPartSpecification(
+          new CreatePartSpecification.PartSpecificationModel());
+    }
+    suppliers = new Long[16];
+    for (int i = 0; i < suppliers.length; i++) {
+      suppliers[i] = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void report() {
+    var transactions = useCase.getTransactions();
+    long attempts = transactions.getCommits() + transactions.getConflicts();
+    System.out.printf("%n%,d transactions, %.2f%% of attempts conflicted%n",
+        transactions.getCommits(), 100.0 * transactions.getConflicts() / attempts);
+  }
+
+  /**
+   * I give each thread its own random choices.
+   */
+  @State(Scope.Thread)
+  public static class Choices {
+
+    private final SplittableRandom random = new SplittableRandom(InventoryDataset.SEED);
+  }
+
+  @Benchmark
+  public Long createRequisition(Choices choices) {
+    SplittableRandom random = choices.random;
+    Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(parts[random.nextInt(parts.length)],
+        request, 1L + random.nextInt(100), InventoryDataset.engineer(random),
+        InventoryDataset.START.plusMinutes(random.nextInt(InventoryDataset.YEAR_MINUTES)),
+        suppliers[random.nextInt(suppliers.length)]);
+    return request;
+  }
+}
@@ -0,0 +1,78 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure handing out ids, and saving suppliers to a {@link ConcurrentEntityStore}, from many
+ * threads at once, with every id taken from one shared counter, as the store used to, and with
+ * ids taken from blocks leased to each thread by a {@link LeasedIdAllocator}.  Scores are ids or
+ * saves per microsecond, summed over the threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 3, time = 1)
+public class IdAllocationBenchmark {
+
+  @Param({"shared", "leased"})
+  public String allocator;
+
+  private IdAllocator ids;
+  private ConcurrentEntityStore<Supplier> store;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    ids = allocator.equals("shared") ? new SharedCounter() : new LeasedIdAllocator();
+    store = new ConcurrentEntityStore<>(ids);
+  }
+
+  /**
+   * I hand out every id from one atomic counter.
+   */
+  static final class SharedCounter implements IdAllocator {
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Override
+    public long next() {
+      return nextId.getAndIncrement();
+    }
+
+    @Override
+    public long reserve(int count) {
+      return nextId.getAndAdd(count);
+    }
+
+    @Override
+    public void observe(long id) {
+      nextId.accumulateAndGet(id + 1, Math::max);
+    }
+  }
+
+  @Benchmark
+  public long allocate() {
+    return ids.next();
+  }
+
+  @Benchmark
+  public Long save() {
+    return store.save(new Supplier());
+  }
+}
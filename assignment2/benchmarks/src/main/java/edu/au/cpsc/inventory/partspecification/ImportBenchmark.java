@@ -0,0 +1,82 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure a {@link BulkImporter} loading a generated CSV file into empty repositories.  The file
+ * holds one supplier for every hundred rows, part specifications with one to three suppliers, and
+ * as many requisition requests as part specifications.  Each invocation is one whole import.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+public class ImportBenchmark {
+
+  @Param({"1000000"})
+  public int rows;
+
+  private Path file;
+  private CreatePartSpecification useCase;
+
+  @Setup(Level.Trial)
+  public void writeFile() throws IOException {
+    file = Files.createTempFile("import-benchmark", ".csv");
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    int suppliers = Math.max(1, rows / 100);
+    int parts = (rows - suppliers) / 2;
+    try (BufferedWriter out = Files.newBufferedWriter(file)) {
+      out.write("type,key,name,description,suppliers,part,quantity,engineer,date,supplier\n");
+      for (int i = 0; i < suppliers; i++) {
+        out.write("supplier,s" + i + ",,,,,,,,\n");
+      }
+      for (int i = 0; i < parts; i++) {
+        out.write("part,p" + i + "," + InventoryDataset.name(random) + ",\""
+            + InventoryDataset.description(random) + "\",s" + random.nextInt(suppliers) + ";s"
+            + random.nextInt(suppliers) + ",,,,,\n");
+      }
+      for (int i = suppliers + parts; i < rows; i++) {
+        out.write("request,,,,,p" + random.nextInt(parts) + "," + (1 + random.nextInt(500))
+            + "," + InventoryDataset.engineer(random) + ","
+            + InventoryDataset.START.plusMinutes(random.nextInt(InventoryDataset.YEAR_MINUTES))
+            + ",s" + random.nextInt(suppliers) + "\n");
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(), new PartRequisitionRequestRepository());
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteFile() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public ImportReport importCsv() throws IOException {
+    return useCase.importInventory(file);
+  }
+}
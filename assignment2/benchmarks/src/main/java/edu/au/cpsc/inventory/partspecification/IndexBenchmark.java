@@ -0,0 +1,184 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure the secondary indexes of the repositories against the scans they replace: part
+ * specifications by name and name prefix, full-text search over descriptions, and requisition
+ * requests by date range.  Each scan baseline is named after the query it answers.
+ *
+ * <p>The date range benchmarks default to a million requests; ten million need about 8 GB of heap,
+ * for example {@code java -Xmx8g -jar target/benchmarks.jar Index -p requests=10000000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+public class IndexBenchmark {
+
+  /**
+   * I hold a catalog of part specifications and the names and queries to look up in it.
+   */
+  @State(Scope.Benchmark)
+  public static class Catalog {
+
+    @Param({"100000", "1000000"})
+    public int partSpecifications;
+
+    PartSpecificationRepository repository;
+    String[] names;
+    String[] prefixes;
+    String[] queries;
+    int next;
+
+    @Setup
+    public void setUp() {
+      repository = new InventoryDataset(partSpecifications, 0, 0).getPartSpecificationRepository();
+      var random = new SplittableRandom(InventoryDataset.SEED + 1);
+      names = new String[4096];
+      prefixes = new String[4096];
+      queries = new String[4096];
+      for (int i = 0; i < names.length; i++) {
+        names[i] = InventoryDataset.name(random);
+        prefixes[i] = names[i].substring(0, names[i].indexOf(' ') + 2);
+        queries[i] = InventoryDataset.name(random);
+      }
+    }
+
+    int nextIndex() {
+      return next++ & 4095;
+    }
+  }
+
+  /**
+   * I hold requisition requests spread over a year and the day-long ranges to query them by.
+   */
+  @State(Scope.Benchmark)
+  public static class Requests {
+
+    @Param({"1000000"})
+    public int requests;
+
+    PartRequisitionRequestRepository repository;
+    LocalDateTime[] days;
+    int next;
+
+    @Setup
+    public void setUp() {
+      repository = new PartRequisitionRequestRepository();
+      var partSpecification = new PartSpecification();
+      partSpecification.setId(0L);
+      var supplier = new Supplier();
+      supplier.setId(0L);
+      var random = new SplittableRandom(InventoryDataset.SEED);
+      for (int i = 0; i < requests; i++) {
+        var request = new PartRequisitionRequest();
+        repository.save(request);
+        repository.attach(request, partSpecification, 1L, InventoryDataset.engineer(random),
+            InventoryDataset.START.plusMinutes(random.nextInt(InventoryDataset.YEAR_MINUTES)),
+            supplier);
+      }
+      days = new LocalDateTime[4096];
+      for (int i = 0; i < days.length; i++) {
+        days[i] = InventoryDataset.START.plusMinutes(random.nextInt(364 * 24 * 60));
+      }
+    }
+
+    LocalDateTime nextDay() {
+      return days[next++ & 4095];
+    }
+  }
+
+  @Benchmark
+  public List<PartSpecification> findByName(Catalog catalog) {
+    return catalog.repository.findByName(catalog.names[catalog.nextIndex()]);
+  }
+
+  @Benchmark
+  public List<PartSpecification> findByNameScan(Catalog catalog) {
+    String name = catalog.names[catalog.nextIndex()];
+    return catalog.repository.stream()
+        .filter(ps -> name.equals(ps.getName()))
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<PartSpecification> findByNamePrefix(Catalog catalog) {
+    return catalog.repository.findByNamePrefix(catalog.prefixes[catalog.nextIndex()], 50);
+  }
+
+  @Benchmark
+  public List<PartSpecification> findByNamePrefixScan(Catalog catalog) {
+    String prefix = catalog.prefixes[catalog.nextIndex()];
+    return catalog.repository.stream()
+        .filter(ps -> ps.getName() != null && ps.getName().startsWith(prefix))
+        .limit(50)
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<PartSpecification> searchDescriptions(Catalog catalog) {
+    return catalog.repository.searchDescriptions(catalog.queries[catalog.nextIndex()], 10);
+  }
+
+  @Benchmark
+  public List<PartSpecification> searchDescriptionsScan(Catalog catalog) {
+    List<String> terms = InvertedIndex.tokenize(catalog.queries[catalog.nextIndex()]);
+    return catalog.repository.stream()
+        .filter(ps -> ps.getDescription() != null && terms.stream()
+            .anyMatch(ps.getDescription().toLowerCase(Locale.ROOT)::contains))
+        .limit(10)
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public long indexDescriptions(Catalog catalog) {
+    var index = new InvertedIndex();
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    for (int i = 0; i < 1000; i++) {
+      index.add(i, InventoryDataset.description(random));
+    }
+    return index.termCount();
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> findByRequestDateBetween(Requests requests) {
+    LocalDateTime from = requests.nextDay();
+    return requests.repository.findByRequestDateBetween(from, from.plusDays(1));
+  }
+
+  @Benchmark
+  public long countByRequestDateBetween(Requests requests) {
+    LocalDateTime from = requests.nextDay();
+    return requests.repository.countByRequestDateBetween(from, from.plusDays(1));
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> findByRequestDateBetweenScan(Requests requests) {
+    LocalDateTime from = requests.nextDay();
+    LocalDateTime to = from.plusDays(1);
+    return requests.repository.stream()
+        .filter(request -> !request.getRequestDate().isBefore(from)
+            && request.getRequestDate().isBefore(to))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,180 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * I build a reproducible inventory for benchmarks: the same sizes and seed always give the same
+ * part specifications, suppliers and requisition requests, with the same ids.
+ *
+ * <p>Part names and descriptions are drawn from a small hardware vocabulary so that name prefixes
+ * and description words are shared the way they are in a real catalog.  Each part specification
+ * gets one to three suppliers, and requisition requests are spread over the year after
+ * {@link #START}.
+ */
+public class InventoryDataset {
+
+  public static final long SEED = 20221003L;
+  public static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 0, 0);
+  public static final int YEAR_MINUTES = 365 * 24 * 60;
+  public static final LocalDateTime END = START.plusMinutes(YEAR_MINUTES);
+
+  private static final String[] KINDS = {"bolt", "nut", "washer", "screw", "rivet", "bearing",
+      "spring", "bracket", "gasket", "pin", "clip", "spacer", "bushing", "hinge", "seal"};
+  private static final String[] MATERIALS = {"stainless", "brass", "aluminium", "steel", "nylon",
+      "titanium", "zinc", "copper", "plastic", "rubber"};
+  private static final String[] SHAPES = {"hex", "flat", "round", "square", "pan", "countersunk",
+      "socket", "flanged", "slotted", "knurled"};
+  private static final String[] SIZES = {"M2", "M3", "M4", "M5", "M6", "M8", "M10", "M12"};
+  private static final String[] ENGINEERS = {"Ada", "Grace", "Alan", "Edsger", "Barbara",
+      "Donald", "Frances", "John", "Margaret", "Niklaus", "Radia", "Tony"};
+
+  private final PartSpecificationRepository partSpecificationRepository;
+  private final SupplierRepository supplierRepository;
+  private final PartRequisitionRequestRepository partRequisitionRequestRepository;
+  private final CreatePartSpecification useCase;
+  private final int partSpecifications;
+  private final int suppliers;
+  private final int requests;
+
+  /**
+   * Build an inventory of the specified size in default repositories.  Requisition requests are
+   * ranked as of {@link #END}, so that the leaderboard windows hold the last of them.
+   *
+   * @param partSpecifications the number of part specifications
+   * @param suppliers          the number of suppliers
+   * @param requests           the number of requisition requests
+   */
+  public InventoryDataset(int partSpecifications, int suppliers, int requests) {
+    this(partSpecifications, suppliers, requests, new PartSpecificationRepository(),
+        new SupplierRepository(), new PartRequisitionRequestRepository(new IndexedEntityStore<>(),
+            Clock.fixed(END.toInstant(ZoneOffset.UTC), ZoneOffset.UTC)));
+  }
+
+  /**
+   * Build an inventory of the specified size in the specified, empty repositories.
+   *
+   * @param partSpecifications               the number of part specifications
+   * @param suppliers                        the number of suppliers
+   * @param requests                         the number of requisition requests
+   * @param partSpecificationRepository      receives the part specifications
+   * @param supplierRepository               receives the suppliers
+   * @param partRequisitionRequestRepository receives the requisition requests
+   */
+  public InventoryDataset(int partSpecifications, int suppliers, int requests,
+      PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) {
+    this.partSpecificationRepository = partSpecificationRepository;
+    this.supplierRepository = supplierRepository;
+    this.partRequisitionRequestRepository = partRequisitionRequestRepository;
+    this.partSpecifications = partSpecifications;
+    this.suppliers = suppliers;
+    this.requests = requests;
+    useCase = new CreatePartSpecification(partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository);
+    populate(new SplittableRandom(SEED));
+  }
+
+  private void populate(SplittableRandom random) {
+    for (int i = 0; i < suppliers; i++) {
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    }
+    for (int i = 0; i < partSpecifications; i++) {
+      var model = new CreatePartSpecification.PartSpecificationModel();
+      model.setName(name(random));
+      model.setDescription(description(random));
+      Long id = useCase.createPartSpecification(model);
+      if (suppliers > 0) {
+        int links = 1 + random.nextInt(3);
+        for (int j = 0; j < links; j++) {
+          useCase.addSupplierToPartSpecification(id, (long) random.nextInt(suppliers));
+        }
+      }
+    }
+    for (int i = 0; i < requests; i++) {
+      Long requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(
+          (long) random.nextInt(partSpecifications), requestId, 1L + random.nextInt(500),
+          engineer(random), START.plusMinutes(random.nextInt(YEAR_MINUTES)),
+          (long) random.nextInt(suppliers));
+    }
+  }
+
+  /**
+   * Return a random part name such as "M3 hex bolt".
+   *
+   * @param random the source of randomness
+   * @return a part name
+   */
+  public static String name(SplittableRandom random) {
+    return pick(random, SIZES) + " " + pick(random, SHAPES) + " " + pick(random, KINDS);
+  }
+
+  /**
+   * Return a random part description such as "M3 stainless hex bolt, zinc plated".
+   *
+   * @param random the source of randomness
+   * @return a part description
+   */
+  public static String description(SplittableRandom random) {
+    return pick(random, SIZES) + " " + pick(random, MATERIALS) + " " + pick(random, SHAPES) + " "
+        + pick(random, KINDS) + ", " + pick(random, MATERIALS) + " " + pick(random, SHAPES)
+        + " " + pick(random, KINDS) + " compatible";
+  }
+
+  public static String engineer(SplittableRandom random) {
+    return pick(random, ENGINEERS);
+  }
+
+  private static String pick(SplittableRandom random, String[] words) {
+    return words[random.nextInt(words.length)];
+  }
+
+  /**
+   * Return the specified number of ids drawn uniformly from zero up to the specified bound, so
+   * that a benchmark can cycle through them instead of generating ids while it is measured.
+   *
+   * @param count the number of ids
+   * @param bound the exclusive upper bound of the ids
+   * @return the ids
+   */
+  public static long[] randomIds(int count, int bound) {
+    var random = new SplittableRandom(SEED ^ bound);
+    long[] ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = random.nextInt(Math.max(1, bound));
+    }
+    return ids;
+  }
+
+  public PartSpecificationRepository getPartSpecificationRepository() {
+    return partSpecificationRepository;
+  }
+
+  public SupplierRepository getSupplierRepository() {
+    return supplierRepository;
+  }
+
+  public PartRequisitionRequestRepository getPartRequisitionRequestRepository() {
+    return partRequisitionRequestRepository;
+  }
+
+  public CreatePartSpecification getUseCase() {
+    return useCase;
+  }
+
+  public int getPartSpecificationCount() {
+    return partSpecifications;
+  }
+
+  public int getSupplierCount() {
+    return suppliers;
+  }
+
+  public int getRequestCount() {
+    return requests;
+  }
+}
@@ -0,0 +1,101 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.PartSpecificationModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure sustained write throughput with durability on: raw {@link WriteAheadLog} appends, and
+ * part specifications created through a {@link CreatePartSpecification} journalled by a
+ * {@link WriteAheadInventoryJournal}.  Group commits run in the background while I measure, so
+ * their cost is included.  The journal lives in a temporary directory removed afterwards.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+public class JournalBenchmark {
+
+  @Param({"50"})
+  public long syncIntervalMillis;
+
+  @Param({"64"})
+  public int recordBytes;
+
+  private Path directory;
+  private WriteAheadLog log;
+  private WriteAheadInventoryJournal journal;
+  private CreatePartSpecification useCase;
+  private byte[] record;
+  private PartSpecificationModel model;
+
+  @Setup(Level.Iteration)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("journal-benchmark");
+    log = WriteAheadLog.open(directory.resolve("raw.log"), syncIntervalMillis, 0,
+        (payload, sequenceNumber) -> { });
+    var partSpecificationRepository = new PartSpecificationRepository(
+        new ConcurrentEntityStore<>());
+    var supplierRepository = new SupplierRepository(new ConcurrentEntityStore<>());
+    var partRequisitionRequestRepository = new PartRequisitionRequestRepository(
+        new ConcurrentEntityStore<>());
+    journal = WriteAheadInventoryJournal.open(directory.resolve("inventory.journal"),
+        syncIntervalMillis, Long.MAX_VALUE, partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository);
+    useCase = new CreatePartSpecification(partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository, journal);
+    record = new byte[recordBytes];
+    model = new PartSpecificationModel();
+    model.setName("M3 hex bolt");
+    model.setDescription("M3 stainless hex bolt, zinc plated");
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws IOException {
+    log.close();
+    journal.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public long append() {
+    return log.append(record, 0, record.length);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long appendContended() {
+    return log.append(record, 0, record.length);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Long createPartSpecification() {
+    return useCase.createPartSpecification(model);
+  }
+}
@@ -0,0 +1,48 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * I am the store the repositories used before {@link IndexedEntityStore}: a list searched from
+ * the start for every lookup.  I am kept only as a baseline for benchmarks.
+ *
+ * @param <T> the type of {@link Entity} I store
+ */
+public class LinearScanEntityStore<T extends Entity> implements EntityStore<T> {
+
+  private final List<T> entities = new ArrayList<>();
+  private final IdAllocator idAllocator = new SequentialIdAllocator();
+
+  @Override
+  public Long save(T entity) {
+    if (entity.getId() == null) {
+      entity.setId(idAllocator.next());
+    } else {
+      idAllocator.observe(entity.getId());
+    }
+    entities.add(entity);
+    return entity.getId();
+  }
+
+  @Override
+  public long reserveIds(int count) {
+    return idAllocator.reserve(count);
+  }
+
+  @Override
+  public List<T> findAll() {
+    return Collections.unmodifiableList(entities);
+  }
+
+  @Override
+  public T findOne(long id) {
+    for (T entity : entities) {
+      if (entity.getId() == id) {
+        return entity;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,50 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.PartSpecificationModel;
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.SupplierModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure the conversion of single entities into the models {@link CreatePartSpecification}
+ * hands to its callers, the per-item cost of every listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ModelConversionBenchmark {
+
+  private CreatePartSpecification useCase;
+  private PartSpecification partSpecification;
+  private Supplier supplier;
+
+  @Setup
+  public void setUp() {
+    var dataset = new InventoryDataset(1, 1, 0);
+    useCase = dataset.getUseCase();
+    partSpecification = dataset.getPartSpecificationRepository().findOne(0L);
+    supplier = dataset.getSupplierRepository().findOne(0L);
+  }
+
+  @Benchmark
+  public PartSpecificationModel partSpecificationToModel() {
+    return useCase.partSpecificationToModel(partSpecification);
+  }
+
+  @Benchmark
+  public SupplierModel supplierToModel() {
+    return useCase.supplierToModel(supplier);
+  }
+}
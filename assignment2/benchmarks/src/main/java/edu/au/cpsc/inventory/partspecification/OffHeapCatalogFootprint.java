@@ -0,0 +1,134 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * I measure what a catalog of part specifications costs the garbage collector when it is kept in
+ * an {@link IndexedEntityStore} on the heap and when it is kept in an
+ * {@link OffHeapPartSpecificationStore}.
+ *
+ * <p>The catalog is built in the named store, each part with a name, a description, two suppliers
+ * and five requisition requests; the suppliers and requests are shared and not counted.  I then
+ * report the heap the catalog takes after a full collection, the memory its arena takes outside
+ * the heap, how long full collections take with the catalog live, and the pauses seen while the
+ * application allocates and retains short-lived data for a while, as ordinary use does.  Run each
+ * store in its own JVM, with {@code java -Xmx3g -XX:+UseG1GC -cp target/benchmarks.jar
+ * edu.au.cpsc.inventory.partspecification.OffHeapCatalogFootprint heap|offheap [parts
+ * seconds]}.
+ */
+public class OffHeapCatalogFootprint {
+
+  private static final AtomicLong pauses = new AtomicLong();
+  private static final AtomicLong pauseMillis = new AtomicLong();
+  private static final AtomicLong longestPauseMillis = new AtomicLong();
+
+  public static void main(String[] args) {
+    boolean offHeap = args.length > 0 && args[0].equals("offheap");
+    int partCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+    var suppliers = new Supplier[1000];
+    for (int i = 0; i < suppliers.length; i++) {
+      suppliers[i] = new Supplier();
+      suppliers[i].setId((long) i);
+    }
+    var requests = new PartRequisitionRequest[1_000_000];
+    for (int i = 0; i < requests.length; i++) {
+      requests[i] = new PartRequisitionRequest();
+      requests[i].setId((long) i);
+    }
+    long empty = usedHeap();
+
+    EntityStore<PartSpecification> store = offHeap
+        ? new OffHeapPartSpecificationStore(id -> suppliers[(int) id],
+            id -> requests[(int) id])
+        : new IndexedEntityStore<>();
+    store.ensureCapacity(partCount);
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    for (int i = 0; i < partCount; i++) {
+      var ps = new PartSpecification();
+      ps.setName(InventoryDataset.name(random));
+      ps.setDescription(InventoryDataset.description(random));
+      ps.addSupplier(suppliers[random.nextInt(suppliers.length)]);
+      ps.addSupplier(suppliers[random.nextInt(suppliers.length)]);
+      for (int j = 0; j < 5; j++) {
+        ps.addPartRequisitionRequest(requests[random.nextInt(requests.length)]);
+      }
+      store.save(ps);
+    }
+    long catalog = usedHeap() - empty;
+
+    long fullCollectionNanos = System.nanoTime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    fullCollectionNanos = (System.nanoTime() - fullCollectionNanos) / 5;
+
+    listenForPauses();
+    long checksum = churn(seconds);
+
+    System.out.printf("%s store, %,d part specifications%n", offHeap ? "off-heap" : "heap",
+        partCount);
+    System.out.printf("heap:            %,d bytes (%.1f per part)%n", catalog,
+        (double) catalog / partCount);
+    if (offHeap) {
+      long arena = ((OffHeapPartSpecificationStore) store).arenaBytes();
+      System.out.printf("arena:           %,d bytes (%.1f per part)%n", arena,
+          (double) arena / partCount);
+    }
+    System.out.printf("full collection: %.1f ms%n", fullCollectionNanos / 1e6);
+    System.out.printf("churn for %d s:  %d pauses, %d ms in total, longest %d ms%n", seconds,
+        pauses.get(), pauseMillis.get(), longestPauseMillis.get());
+    if (store.findOne(partCount - 1).getName() == null || checksum == 42) {
+      System.out.println();
+    }
+  }
+
+  /**
+   * Allocate for the specified time, keeping each allocation for a while in a ring, so that some
+   * of it survives young collections and is promoted.
+   */
+  private static long churn(int seconds) {
+    var ring = new byte[400_000][];
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    long checksum = 0;
+    long end = System.nanoTime() + seconds * 1_000_000_000L;
+    for (int i = 0; System.nanoTime() < end; i++) {
+      byte[] data = new byte[64 + random.nextInt(1024)];
+      data[0] = (byte) i;
+      ring[i % ring.length] = data;
+      checksum += ring[random.nextInt(ring.length)] == null ? 0 : 1;
+    }
+    return checksum;
+  }
+
+  private static void listenForPauses() {
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+        var info = GarbageCollectionNotificationInfo.from(
+            (CompositeData) notification.getUserData());
+        // Concurrent cycles are reported too, but do not stop the application.
+        if (info.getGcName().contains("Concurrent")) {
+          return;
+        }
+        long duration = info.getGcInfo().getDuration();
+        pauses.incrementAndGet();
+        pauseMillis.addAndGet(duration);
+        longestPauseMillis.accumulateAndGet(duration, Math::max);
+      }, null, null);
+    }
+  }
+
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
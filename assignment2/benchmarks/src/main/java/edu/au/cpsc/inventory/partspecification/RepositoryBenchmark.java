@@ -0,0 +1,83 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * I measure the basic operations of {@link InMemoryEntityRepository} on each {@link EntityStore},
+ * including the linear scan it replaced, at sizes from ten thousand to a million entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class RepositoryBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int size;
+
+  @Param({"indexed", "concurrent", "linear-scan"})
+  public String store;
+
+  private SupplierRepository repository;
+  private long[] ids;
+  private int next;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    repository = new SupplierRepository(newStore(store));
+    for (int i = 0; i < size; i++) {
+      repository.save(new Supplier());
+    }
+    ids = InventoryDataset.randomIds(4096, size);
+  }
+
+  static <T extends Entity> EntityStore<T> newStore(String name) {
+    switch (name) {
+      case "indexed":
+        return new IndexedEntityStore<>();
+      case "concurrent":
+        return new ConcurrentEntityStore<>();
+      case "linear-scan":
+        return new LinearScanEntityStore<>();
+      default:
+        throw new IllegalArgumentException("unknown store " + name);
+    }
+  }
+
+  @Benchmark
+  public Supplier findOne() {
+    return repository.findOne(ids[next++ & 4095]);
+  }
+
+  @Benchmark
+  public Supplier findOneMissing() {
+    return repository.findOne(-1L - (next++ & 4095));
+  }
+
+  @Benchmark
+  public void findAll(Blackhole blackhole) {
+    for (Supplier supplier : repository.findAll()) {
+      blackhole.consume(supplier);
+    }
+  }
+
+  @Benchmark
+  public Long save() {
+    return repository.save(new Supplier());
+  }
+}
@@ -0,0 +1,86 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I measure a writer editing part specifications while a reader lists them all through the use
+ * case, with the repositories kept in the default {@link IndexedEntityStore}s, whose listings read
+ * the live entities, and in {@link VersionedEntityStore}s sharing a {@link VersionClock}, whose
+ * listings read a snapshot.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Group)
+@Warmup(iterations = 3, time = 1)
+public class SnapshotListingBenchmark {
+
+  @Param({"10000"})
+  public int size;
+
+  @Param({"indexed", "versioned"})
+  public String store;
+
+  private CreatePartSpecification useCase;
+  private SplittableRandom random;
+  private long edits;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    PartSpecificationRepository parts;
+    SupplierRepository suppliers;
+    PartRequisitionRequestRepository requests;
+    if (store.equals("versioned")) {
+      var clock = new VersionClock();
+      parts = new PartSpecificationRepository(
+          new VersionedEntityStore<>(clock, PartSpecification::new));
+      suppliers = new SupplierRepository(new VersionedEntityStore<>(clock, Supplier::new));
+      requests = new PartRequisitionRequestRepository(
+          new VersionedEntityStore<>(clock, PartRequisitionRequest::new));
+    } else {
+      parts = new PartSpecificationRepository();
+      suppliers = new SupplierRepository();
+      requests = new PartRequisitionRequestRepository();
+    }
+    useCase = new CreatePartSpecification(parts, suppliers, requests);
+    random = new SplittableRandom(InventoryDataset.SEED);
+    for (int i = 0; i < size; i++) {
+      var model = new CreatePartSpecification.PartSpecificationModel();
+      model.setName(InventoryDataset.name(random));
+      model.setDescription(InventoryDataset.description(random));
+      useCase.createPartSpecification(model);
+    }
+  }
+
+  @Benchmark
+  @Group("listingWhileEditing")
+  @GroupThreads(1)
+  public int list() {
+    return useCase.getPartSpecifications().size();
+  }
+
+  @Benchmark
+  @Group("listingWhileEditing")
+  @GroupThreads(1)
+  public void edit() {
+    long id = random.nextInt(size);
+    String name = "edit " + edits++;
+    useCase.editPartSpecification(id, name, name);
+  }
+}
@@ -0,0 +1,84 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * I measure the heap taken by the supplier links of part specifications, comparing
+ * {@link PartSpecification}'s deduplicated id set with the list it used to keep, in which every
+ * requisition added its supplier again.
+ *
+ * <p>Both are fed the same links the way the use case adds them: one to three suppliers per part
+ * when it is created, then one more for every requisition request.  Requests are skewed towards
+ * popular parts, a fifth of the parts receiving most of them, and each part buys from a handful of
+ * suppliers.  Only the links are measured; the suppliers themselves are shared and subtracted.
+ *
+ * <p>Run with {@code java -cp target/benchmarks.jar
+ * edu.au.cpsc.inventory.partspecification.SupplierLinkFootprint [parts suppliers requests]}.
+ */
+public class SupplierLinkFootprint {
+
+  /**
+   * I hold suppliers the way {@link PartSpecification} did before it deduplicated them.
+   */
+  static class ListedSuppliers {
+
+    private final List<Supplier> suppliers = new ArrayList<>();
+
+    void addSupplier(Supplier supplier) {
+      suppliers.add(supplier);
+    }
+  }
+
+  public static void main(String[] args) {
+    int partCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int supplierCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int requestCount = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+
+    var suppliers = new Supplier[supplierCount];
+    for (int i = 0; i < supplierCount; i++) {
+      suppliers[i] = new Supplier();
+      suppliers[i].setId((long) i);
+    }
+    var sets = new PartSpecification[partCount];
+    var lists = new ListedSuppliers[partCount];
+    var preferred = new int[partCount][];
+    var random = new SplittableRandom(InventoryDataset.SEED);
+    for (int i = 0; i < partCount; i++) {
+      sets[i] = new PartSpecification();
+      lists[i] = new ListedSuppliers();
+      preferred[i] = new int[1 + random.nextInt(3)];
+      for (int j = 0; j < preferred[i].length; j++) {
+        preferred[i][j] = random.nextInt(supplierCount);
+        sets[i].addSupplier(suppliers[preferred[i][j]]);
+        lists[i].addSupplier(suppliers[preferred[i][j]]);
+      }
+    }
+    int popular = Math.max(1, partCount / 5);
+    for (int i = 0; i < requestCount; i++) {
+      int part = random.nextInt(10) < 8 ? random.nextInt(popular) : random.nextInt(partCount);
+      Supplier supplier = random.nextInt(10) < 9
+          ? suppliers[preferred[part][random.nextInt(preferred[part].length)]]
+          : suppliers[random.nextInt(supplierCount)];
+      sets[part].addSupplier(supplier);
+      lists[part].addSupplier(supplier);
+    }
+
+    long shared = GraphLayout.parseInstance((Object) suppliers).totalSize();
+    long setBytes = GraphLayout.parseInstance(sets, suppliers).totalSize() - shared;
+    long listBytes = GraphLayout.parseInstance(lists, suppliers).totalSize() - shared;
+    long links = 0;
+    for (var set : sets) {
+      links += set.getSuppliers().size();
+    }
+    System.out.printf("%d parts, %d suppliers, %d requests, %d distinct links%n", partCount,
+        supplierCount, requestCount, links);
+    System.out.printf("list: %,d bytes (%.1f per part)%n", listBytes,
+        (double) listBytes / partCount);
+    System.out.printf("set:  %,d bytes (%.1f per part)%n", setBytes,
+        (double) setBytes / partCount);
+    System.out.printf("saved %.1f%%%n", 100.0 * (listBytes - setBytes) / listBytes);
+  }
+}
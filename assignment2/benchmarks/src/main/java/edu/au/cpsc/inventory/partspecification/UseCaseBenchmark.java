@@ -0,0 +1,258 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.PartSpecificationModel;
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.RequestModel;
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.SupplierModel;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * I measure every public operation of {@link CreatePartSpecification} against an
+ * {@link InventoryDataset}.  The dataset is rebuilt before each iteration so that operations that
+ * grow the inventory do not skew later iterations.  The full listings copy every entity into a
+ * model and are the operations the paged and streamed variants exist to replace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class UseCaseBenchmark {
+
+  private static final int PAGE = 50;
+  private static final YearMonth QUARTER_START = YearMonth.from(InventoryDataset.START);
+  private static final YearMonth QUARTER_END = QUARTER_START.plusMonths(2);
+
+  @Param({"10000", "100000"})
+  public int partSpecifications;
+
+  private CreatePartSpecification useCase;
+  private int suppliers;
+  private int requests;
+  private long[] partIds;
+  private long[] supplierIds;
+  private long[] requestIds;
+  private String[] names;
+  private String[] prefixes;
+  private String[] queries;
+  private String[] engineers;
+  private SplittableRandom random;
+  private int next;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    suppliers = Math.max(1, partSpecifications / 10);
+    requests = partSpecifications * 2;
+    var dataset = new InventoryDataset(partSpecifications, suppliers, requests);
+    useCase = dataset.getUseCase();
+    partIds = InventoryDataset.randomIds(4096, partSpecifications);
+    supplierIds = InventoryDataset.randomIds(4096, suppliers);
+    requestIds = InventoryDataset.randomIds(4096, requests);
+    random = new SplittableRandom(InventoryDataset.SEED);
+    names = new String[4096];
+    prefixes = new String[4096];
+    queries = new String[4096];
+    engineers = new String[4096];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = InventoryDataset.name(random);
+      prefixes[i] = names[i].substring(0, names[i].indexOf(' ') + 2);
+      queries[i] = InventoryDataset.description(random).substring(0, 20);
+      engineers[i] = InventoryDataset.engineer(random);
+    }
+  }
+
+  private int nextIndex() {
+    return next++ & 4095;
+  }
+
+  @Benchmark
+  public List<PartSpecificationModel> getPartSpecifications() {
+    return useCase.getPartSpecifications();
+  }
+
+  @Benchmark
+  public Page<PartSpecificationModel> getPartSpecificationsPage() {
+    return useCase.getPartSpecifications(partIds[nextIndex()], PAGE);
+  }
+
+  @Benchmark
+  public void streamPartSpecifications(Blackhole blackhole) {
+    useCase.streamPartSpecifications().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public PartSpecificationModel getPartSpecification() {
+    return useCase.getPartSpecification(partIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public Long createPartSpecification() {
+    var model = new PartSpecificationModel();
+    model.setName(names[nextIndex()]);
+    model.setDescription(queries[nextIndex()]);
+    return useCase.createPartSpecification(model);
+  }
+
+  @Benchmark
+  public void editPartSpecification() {
+    int i = nextIndex();
+    useCase.editPartSpecification(partIds[i], names[i], queries[i]);
+  }
+
+  @Benchmark
+  public List<PartSpecificationModel> findPartSpecificationsByName() {
+    return useCase.findPartSpecificationsByName(names[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<PartSpecificationModel> findPartSpecificationsByNamePrefix() {
+    return useCase.findPartSpecificationsByNamePrefix(prefixes[nextIndex()], PAGE);
+  }
+
+  @Benchmark
+  public List<PartSpecificationModel> searchPartSpecifications() {
+    return useCase.searchPartSpecifications(queries[nextIndex()], 10);
+  }
+
+  @Benchmark
+  public List<SupplierModel> getSuppliers() {
+    return useCase.getSuppliers();
+  }
+
+  @Benchmark
+  public Page<SupplierModel> getSuppliersPage() {
+    return useCase.getSuppliers(supplierIds[nextIndex()], PAGE);
+  }
+
+  @Benchmark
+  public void streamSuppliers(Blackhole blackhole) {
+    useCase.streamSuppliers().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void createSupplier() {
+    useCase.createSupplier(new SupplierModel());
+  }
+
+  @Benchmark
+  public void addSupplierToPartSpecification() {
+    int i = nextIndex();
+    useCase.addSupplierToPartSpecification(partIds[i], supplierIds[i]);
+  }
+
+  @Benchmark
+  public void removeSupplierToPartSpecification() {
+    useCase.removeSupplierToPartSpecification(partIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<SupplierModel> getSuppliersOfPartSpecification() {
+    return useCase.getSuppliersOfPartSpecification(partIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<PartSpecificationModel> getPartSpecificationsOfSupplier() {
+    return useCase.getPartSpecificationsOfSupplier(supplierIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> getRequests() {
+    return useCase.getRequests();
+  }
+
+  @Benchmark
+  public Page<PartRequisitionRequest> getRequestsPage() {
+    return useCase.getRequests(requestIds[nextIndex()], PAGE);
+  }
+
+  @Benchmark
+  public void streamRequests(Blackhole blackhole) {
+    useCase.streamRequests().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> getRequestsForPartSpecification() {
+    return useCase.getRequestsForPartSpecification(partIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<PartRequisitionRequest> getRequestsBetween() {
+    LocalDateTime from = InventoryDataset.START.plusMinutes(partIds[nextIndex()] % (
+        InventoryDataset.YEAR_MINUTES - 24 * 60));
+    return useCase.getRequestsBetween(from, from.plusDays(1));
+  }
+
+  @Benchmark
+  public void streamRequestsBetween(Blackhole blackhole) {
+    LocalDateTime from = InventoryDataset.START.plusMinutes(partIds[nextIndex()] % (
+        InventoryDataset.YEAR_MINUTES - 24 * 60));
+    useCase.streamRequestsBetween(from, from.plusDays(1)).forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public long getQuantityRequestedForPartSpecification() {
+    return useCase.getQuantityRequestedForPartSpecification(partIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public long getQuantityRequestedFromSupplier() {
+    return useCase.getQuantityRequestedFromSupplier(supplierIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public long getQuantityRequestedByEngineer() {
+    return useCase.getQuantityRequestedByEngineer(engineers[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<TopKCounter.Entry> getTopPartSpecifications() {
+    return useCase.getTopPartSpecifications(RequisitionLeaderboard.Window.LAST_WEEK, 10);
+  }
+
+  @Benchmark
+  public List<TopKCounter.Entry> getTopSuppliers() {
+    return useCase.getTopSuppliers(RequisitionLeaderboard.Window.LAST_DAY, 10);
+  }
+
+  @Benchmark
+  public long getDistinctEngineersForPartSpecification() {
+    return useCase.getDistinctEngineersForPartSpecification(partIds[nextIndex()], QUARTER_START,
+        QUARTER_END);
+  }
+
+  @Benchmark
+  public long getDistinctSuppliers() {
+    return useCase.getDistinctSuppliers(QUARTER_START, QUARTER_END);
+  }
+
+  @Benchmark
+  public Long createRequisitionRequest() {
+    return useCase.createRequisitionRequest(new RequestModel());
+  }
+
+  @Benchmark
+  public void addRequisitionRequestToPartSpecification() {
+    int i = nextIndex();
+    useCase.addRequisitionRequestToPartSpecification(partIds[i], requestIds[i], 1L + i,
+        InventoryDataset.engineer(random),
+        InventoryDataset.START.plusMinutes(random.nextInt(InventoryDataset.YEAR_MINUTES)),
+        supplierIds[i]);
+  }
+}
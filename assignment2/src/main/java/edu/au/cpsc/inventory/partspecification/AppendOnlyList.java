@@ -0,0 +1,81 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * I am a list that can only grow at its end.  Appends are serialized, but reads never lock: a
+ * reader sees every element appended before it asked for a {@link #snapshot()}, and the snapshot
+ * never changes afterwards.
+ *
+ * <p>Elements live in fixed-size chunks that are never copied, so growing me never moves an
+ * element a concurrent reader might be looking at.
+ *
+ * @param <E> the type of element stored.
+ */
+public class AppendOnlyList<E> {
+
+  private static final int CHUNK_SHIFT = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private volatile Object[][] chunks;
+  private volatile int size;
+
+  public AppendOnlyList() {
+    chunks = new Object[1][CHUNK_SIZE];
+  }
+
+  /**
+   * Add an element to my end.
+   *
+   * @param element the element to add
+   */
+  public synchronized void add(E element) {
+    int index = size;
+    int chunk = index >>> CHUNK_SHIFT;
+    Object[][] current = chunks;
+    if (chunk == current.length) {
+      Object[][] grown = new Object[current.length << 1][];
+      System.arraycopy(current, 0, grown, 0, current.length);
+      current = grown;
+    }
+    if (current[chunk] == null) {
+      current[chunk] = new Object[CHUNK_SIZE];
+    }
+    current[chunk][index & CHUNK_MASK] = element;
+    chunks = current;
+    // Publishing the size last makes the element and its chunk visible to readers of the size.
+    size = index + 1;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Return an unmodifiable view of the elements added so far.  Elements added later are not part
+   * of the view.
+   *
+   * @return a point-in-time view of my elements
+   */
+  public List<E> snapshot() {
+    final int snapshotSize = size;
+    final Object[][] snapshotChunks = chunks;
+    return new AbstractList<E>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public E get(int index) {
+        if (index < 0 || index >= snapshotSize) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return (E) snapshotChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+      }
+
+      @Override
+      public int size() {
+        return snapshotSize;
+      }
+    };
+  }
+}
@@ -0,0 +1,147 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * I decode values written by a {@link BinaryWriter} from a {@link ByteBuffer}, advancing the
+ * buffer's position as I go.  Subclasses that read more than fits in one buffer, such as a file
+ * mapped one window at a time, move on to the next buffer in {@link #refill(ByteBuffer, int)}.
+ */
+public class BinaryReader {
+
+  private ByteBuffer buffer;
+
+  public BinaryReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Return a buffer holding the bytes that follow the ones read from the specified buffer, at
+   * least the specified number of them if there are that many left.  The bytes not yet read from
+   * the exhausted buffer must come first.  By default I read one buffer, so it is returned as is.
+   *
+   * @param exhausted the buffer with fewer bytes remaining than needed
+   * @param needed    the number of bytes needed, never more than 8
+   * @return the buffer to read from next
+   */
+  protected ByteBuffer refill(ByteBuffer exhausted, int needed) {
+    return exhausted;
+  }
+
+  private void require(int needed) {
+    if (buffer.remaining() < needed) {
+      buffer = refill(buffer, needed);
+    }
+  }
+
+  public int readByte() {
+    require(1);
+    return buffer.get() & 0xFF;
+  }
+
+  public int readInt() {
+    require(Integer.BYTES);
+    return buffer.getInt();
+  }
+
+  public long readLong() {
+    require(Long.BYTES);
+    return buffer.getLong();
+  }
+
+  /**
+   * Read an unsigned varint.
+   *
+   * @return the value read
+   */
+  public long readVarLong() {
+    long value = 0;
+    int shift = 0;
+    while (true) {
+      require(1);
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+      shift += 7;
+      if (shift > 63) {
+        throw new IllegalStateException("malformed varint");
+      }
+    }
+  }
+
+  /**
+   * Read a varint written by {@link BinaryWriter#writeSignedVarLong(long)}.
+   *
+   * @return the value read
+   */
+  public long readSignedVarLong() {
+    long value = readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Read a varint written by {@link BinaryWriter#writeNullableVarLong(Long)}.
+   *
+   * @return the value read, or null
+   */
+  public Long readNullableVarLong() {
+    long value = readVarLong();
+    return value == 0 ? null : value - 1;
+  }
+
+  /**
+   * Read a string written by {@link BinaryWriter#writeString(String)}.
+   *
+   * @return the string read, or null
+   */
+  public String readString() {
+    long length = readVarLong();
+    if (length == 0) {
+      return null;
+    }
+    int byteCount = (int) (length - 1);
+    String value;
+    if (buffer.hasArray() && buffer.remaining() >= byteCount) {
+      value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), byteCount,
+          StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + byteCount);
+    } else {
+      byte[] encoded = new byte[byteCount];
+      int read = 0;
+      while (read < byteCount) {
+        require(1);
+        if (!buffer.hasRemaining()) {
+          throw new IllegalStateException("string truncated");
+        }
+        int count = Math.min(byteCount - read, buffer.remaining());
+        buffer.get(encoded, read, count);
+        read += count;
+      }
+      value = new String(encoded, StandardCharsets.UTF_8);
+    }
+    return value;
+  }
+
+  /**
+   * Read a date and time written by {@link BinaryWriter#writeDateTime(LocalDateTime)}.
+   *
+   * @return the date and time read, or null
+   */
+  public LocalDateTime readDateTime() {
+    if (readByte() == 0) {
+      return null;
+    }
+    long epochSecond = readLong();
+    return LocalDateTime.ofEpochSecond(epochSecond, readInt(), ZoneOffset.UTC);
+  }
+
+  public boolean hasRemaining() {
+    require(1);
+    return buffer.hasRemaining();
+  }
+}
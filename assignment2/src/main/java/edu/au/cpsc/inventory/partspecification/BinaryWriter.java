@@ -0,0 +1,178 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * I encode values into a growable byte array.  Integers are written as little-endian base-128
+ * varints so that small ids and quantities take one or two bytes.  Nullable values are written
+ * shifted by one, with zero standing for null.  {@link BinaryReader} reads what I write.
+ */
+public class BinaryWriter {
+
+  private byte[] bytes;
+  private int length;
+
+  public BinaryWriter() {
+    this(64);
+  }
+
+  public BinaryWriter(int initialCapacity) {
+    bytes = new byte[Math.max(16, initialCapacity)];
+  }
+
+  /**
+   * Write a single byte.
+   *
+   * @param value the byte to write
+   * @return me
+   */
+  public BinaryWriter writeByte(int value) {
+    ensureRemaining(1);
+    bytes[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Write a fixed-width, big-endian int.
+   *
+   * @param value the int to write
+   * @return me
+   */
+  public BinaryWriter writeInt(int value) {
+    ensureRemaining(4);
+    bytes[length++] = (byte) (value >>> 24);
+    bytes[length++] = (byte) (value >>> 16);
+    bytes[length++] = (byte) (value >>> 8);
+    bytes[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Write a fixed-width, big-endian long.
+   *
+   * @param value the long to write
+   * @return me
+   */
+  public BinaryWriter writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    return writeInt((int) value);
+  }
+
+  /**
+   * Write an unsigned varint.  Negative values are legal but take ten bytes.
+   *
+   * @param value the value to write
+   * @return me
+   */
+  public BinaryWriter writeVarLong(long value) {
+    ensureRemaining(10);
+    while ((value & ~0x7FL) != 0) {
+      bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Write a signed varint, zigzag-encoded so that values near zero take one byte whatever their
+   * sign.
+   *
+   * @param value the value to write
+   * @return me
+   */
+  public BinaryWriter writeSignedVarLong(long value) {
+    return writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  /**
+   * Write a possibly null id or quantity as a varint.
+   *
+   * @param value the value to write, or null
+   * @return me
+   */
+  public BinaryWriter writeNullableVarLong(Long value) {
+    return writeVarLong(value == null ? 0 : value + 1);
+  }
+
+  /**
+   * Write a possibly null string as its UTF-8 bytes prefixed by their length.
+   *
+   * @param value the string to write, or null
+   * @return me
+   */
+  public BinaryWriter writeString(String value) {
+    if (value == null) {
+      return writeVarLong(0);
+    }
+    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(encoded.length + 1L);
+    return writeBytes(encoded, 0, encoded.length);
+  }
+
+  /**
+   * Write a possibly null date and time as seconds and nanoseconds since the epoch, taking the
+   * date and time to be in UTC.
+   *
+   * @param value the date and time to write, or null
+   * @return me
+   */
+  public BinaryWriter writeDateTime(LocalDateTime value) {
+    if (value == null) {
+      return writeByte(0);
+    }
+    return writeByte(1).writeLong(value.toEpochSecond(ZoneOffset.UTC)).writeInt(value.getNano());
+  }
+
+  /**
+   * Write raw bytes.
+   *
+   * @param source the array holding the bytes
+   * @param offset the index of the first byte to write
+   * @param count  the number of bytes to write
+   * @return me
+   */
+  public BinaryWriter writeBytes(byte[] source, int offset, int count) {
+    ensureRemaining(count);
+    System.arraycopy(source, offset, bytes, length, count);
+    length += count;
+    return this;
+  }
+
+  /**
+   * Return the array I am writing into.  Only the first {@link #length()} bytes are meaningful,
+   * and the array may be replaced by a larger one when more is written.
+   *
+   * @return my backing array
+   */
+  public byte[] array() {
+    return bytes;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Forget everything written so far, keeping my capacity for reuse.
+   *
+   * @return me
+   */
+  public BinaryWriter reset() {
+    length = 0;
+    return this;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(bytes, length);
+  }
+
+  private void ensureRemaining(int count) {
+    if (length + count > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + count));
+    }
+  }
+}
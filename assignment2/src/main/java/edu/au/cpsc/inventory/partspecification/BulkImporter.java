@@ -0,0 +1,681 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.PartSpecificationModel;
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.RequestModel;
+import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.SupplierModel;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * I load a CSV or NDJSON file in {@link InventoryFileFormat} into the repositories of a
+ * {@link CreatePartSpecification}.  The file flows through a pipeline:
+ *
+ * <ol>
+ *   <li>the calling thread reads rows in chunks of a few thousand;</li>
+ *   <li>worker threads, one per core, parse and validate whole chunks in parallel;</li>
+ *   <li>the calling thread takes the parsed chunks back in file order, resolves the keys each row
+ *   refers to, and creates the entities through the use case.</li>
+ * </ol>
+ *
+ * <p>Only a bounded number of chunks are in flight, so memory does not grow with the file beyond
+ * the key maps.  Before the first chunk is read, the repositories are pre-sized for the whole file,
+ * estimated from its size and the mix of rows in windows sampled evenly across it.  The start of
+ * a file alone would not do: rows may only refer to rows before them, so files start with their
+ * suppliers.
+ */
+public class BulkImporter {
+
+  private static final int CHUNK_ROWS = 4096;
+  private static final int SAMPLE_WINDOWS = 16;
+  private static final int SAMPLE_WINDOW_BYTES = 16 << 10;
+  private static final int MAX_REPORTED_ERRORS = 100;
+
+  private final CreatePartSpecification useCase;
+  private final int parallelism;
+
+  public BulkImporter(CreatePartSpecification useCase) {
+    this(useCase, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create an importer parsing on the specified number of threads.
+   *
+   * @param useCase     creates the imported entities
+   * @param parallelism the number of parsing threads
+   */
+  public BulkImporter(CreatePartSpecification useCase, int parallelism) {
+    this.useCase = useCase;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Import the specified file, judging its format by its extension.
+   *
+   * @param path the file to import
+   * @return a summary of the import
+   * @throws IOException if the file cannot be read
+   */
+  public ImportReport importFile(Path path) throws IOException {
+    return importFile(path, InventoryFileFormat.of(path));
+  }
+
+  /**
+   * Import the specified file in the specified format.
+   *
+   * @param path   the file to import
+   * @param format the format of the file
+   * @return a summary of the import
+   * @throws IOException if the file cannot be read
+   */
+  public ImportReport importFile(Path path, InventoryFileFormat format) throws IOException {
+    long start = System.nanoTime();
+    var inserter = new Inserter(Files.size(path));
+    ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "bulk-import");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try (var in = new BufferedReader(new InputStreamReader(Files.newInputStream(path),
+        StandardCharsets.UTF_8), 1 << 16)) {
+      var source = new RecordSource(in, format);
+      int[] columns = format == InventoryFileFormat.CSV ? readHeader(source) : null;
+      inserter.presize(sample(path, format, columns));
+      Deque<Future<Row[]>> inFlight = new ArrayDeque<>();
+      Chunk chunk;
+      while ((chunk = source.nextChunk()) != null) {
+        Chunk parsing = chunk;
+        inFlight.add(workers.submit(() -> parsing.parse(format, columns)));
+        if (inFlight.size() >= parallelism * 2) {
+          inserter.insert(await(inFlight.poll()));
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        inserter.insert(await(inFlight.poll()));
+      }
+    } finally {
+      workers.shutdownNow();
+    }
+    return inserter.report(System.nanoTime() - start);
+  }
+
+  private static int[] readHeader(RecordSource source) throws IOException {
+    String header = source.nextRecord();
+    if (header == null) {
+      return new int[0];
+    }
+    List<String> names = splitCsv(header);
+    int[] columns = new int[names.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = InventoryFileFormat.FIELDS.indexOf(names.get(i).trim());
+    }
+    return columns;
+  }
+
+  /**
+   * Parse the whole records in {@link #SAMPLE_WINDOWS} windows spread evenly across the specified
+   * file.  The records cut by the edges of a window, and the CSV header, are left out; a quoted
+   * CSV field spanning lines may be parsed from its middle and rejected, which only makes the
+   * sample a little smaller.
+   */
+  private static Row[] sample(Path path, InventoryFileFormat format, int[] columns)
+      throws IOException {
+    List<Row> rows = new ArrayList<>();
+    try (var channel = FileChannel.open(path)) {
+      long size = channel.size();
+      int windows = (int) Math.min(SAMPLE_WINDOWS,
+          (size + SAMPLE_WINDOW_BYTES - 1) / SAMPLE_WINDOW_BYTES);
+      for (int i = 0; i < windows; i++) {
+        long offset = size * i / windows;
+        long limit = size * (i + 1) / windows;
+        var window = ByteBuffer.allocate((int) Math.min(SAMPLE_WINDOW_BYTES, limit - offset));
+        while (window.hasRemaining()) {
+          if (channel.read(window, offset + window.position()) < 0) {
+            break;
+          }
+        }
+        String[] lines = new String(window.array(), 0, window.position(), StandardCharsets.UTF_8)
+            .split("\n", -1);
+        int first = offset == 0 && format == InventoryFileFormat.NDJSON ? 0 : 1;
+        int last = offset + window.position() == size ? lines.length : lines.length - 1;
+        for (int j = first; j < last; j++) {
+          String line = lines[j].endsWith("\r")
+              ? lines[j].substring(0, lines[j].length() - 1) : lines[j];
+          if (!line.isBlank()) {
+            rows.add(parse(line, 0, format, columns));
+          }
+        }
+      }
+    }
+    return rows.toArray(new Row[0]);
+  }
+
+  private static Row[] await(Future<Row[]> parsed) throws IOException {
+    try {
+      return parsed.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("import interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("parsing failed", e.getCause());
+    }
+  }
+
+  /**
+   * I read the records of a file, joining the lines of quoted CSV fields that span lines, and hand
+   * them out in chunks.
+   */
+  private static class RecordSource {
+
+    private final BufferedReader in;
+    private final InventoryFileFormat format;
+    private long line;
+
+    RecordSource(BufferedReader in, InventoryFileFormat format) {
+      this.in = in;
+      this.format = format;
+    }
+
+    String nextRecord() throws IOException {
+      String record;
+      do {
+        record = in.readLine();
+        line++;
+        if (record == null) {
+          return null;
+        }
+      } while (record.isBlank());
+      if (format == InventoryFileFormat.CSV) {
+        while (quoteCount(record) % 2 != 0) {
+          String continuation = in.readLine();
+          if (continuation == null) {
+            break;
+          }
+          line++;
+          record = record + "\n" + continuation;
+        }
+      }
+      return record;
+    }
+
+    Chunk nextChunk() throws IOException {
+      var chunk = new Chunk();
+      String record;
+      while (chunk.size < CHUNK_ROWS && (record = nextRecord()) != null) {
+        chunk.add(record, line);
+      }
+      return chunk.size == 0 ? null : chunk;
+    }
+
+    private static int quoteCount(String record) {
+      int count = 0;
+      for (int i = 0; i < record.length(); i++) {
+        if (record.charAt(i) == '"') {
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  /**
+   * I hold consecutive records of a file, with the line each ends on.
+   */
+  private static class Chunk {
+
+    private final String[] records = new String[CHUNK_ROWS];
+    private final long[] lines = new long[CHUNK_ROWS];
+    private int size;
+
+    void add(String record, long line) {
+      records[size] = record;
+      lines[size++] = line;
+    }
+
+    Row[] parse(InventoryFileFormat format, int[] columns) {
+      Row[] rows = new Row[size];
+      for (int i = 0; i < size; i++) {
+        rows[i] = BulkImporter.parse(records[i], lines[i], format, columns);
+      }
+      return rows;
+    }
+  }
+
+  private static Row parse(String record, long line, InventoryFileFormat format, int[] columns) {
+    String[] values = new String[InventoryFileFormat.FIELDS.size()];
+    List<String> suppliers = new ArrayList<>();
+    try {
+      if (format == InventoryFileFormat.CSV) {
+        parseCsv(record, columns, values, suppliers);
+      } else {
+        new JsonObjectParser(record).parse(values, suppliers);
+      }
+      return Row.validate(line, values, suppliers, record.length() + 1);
+    } catch (IllegalArgumentException e) {
+      return Row.rejected(line, e.getMessage(), record.length() + 1);
+    }
+  }
+
+  private static void parseCsv(String record, int[] columns, String[] values,
+      List<String> suppliers) {
+    List<String> fields = splitCsv(record);
+    for (int i = 0; i < fields.size() && i < columns.length; i++) {
+      if (columns[i] >= 0 && !fields.get(i).isEmpty()) {
+        values[columns[i]] = fields.get(i);
+      }
+    }
+    String list = values[Field.SUPPLIERS];
+    if (list != null) {
+      for (String key : list.split(";")) {
+        if (!key.isBlank()) {
+          suppliers.add(key.trim());
+        }
+      }
+    }
+  }
+
+  private static List<String> splitCsv(String record) {
+    List<String> fields = new ArrayList<>();
+    var field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < record.length(); i++) {
+      char c = record.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /**
+   * I parse one line of NDJSON: an object whose values are strings, numbers, literals or arrays
+   * of those.  Fields other than the {@link InventoryFileFormat#FIELDS} are ignored.
+   */
+  private static class JsonObjectParser {
+
+    private final String text;
+    private int position;
+
+    JsonObjectParser(String text) {
+      this.text = text;
+    }
+
+    void parse(String[] values, List<String> suppliers) {
+      expect('{');
+      if (peek() == '}') {
+        position++;
+        return;
+      }
+      do {
+        String name = string();
+        expect(':');
+        int field = InventoryFileFormat.FIELDS.indexOf(name);
+        if (peek() == '[') {
+          position++;
+          if (peek() == ']') {
+            position++;
+          } else {
+            do {
+              String element = scalar();
+              if (field == Field.SUPPLIERS && element != null) {
+                suppliers.add(element);
+              }
+            } while (next() == ',');
+            position--;
+            expect(']');
+          }
+        } else {
+          String value = scalar();
+          if (field >= 0 && field != Field.SUPPLIERS) {
+            values[field] = value;
+          }
+        }
+      } while (next() == ',');
+      position--;
+      expect('}');
+    }
+
+    private String scalar() {
+      char c = peek();
+      if (c == '"') {
+        return string();
+      }
+      int start = position;
+      while (position < text.length() && ",]} \t".indexOf(text.charAt(position)) < 0) {
+        position++;
+      }
+      String literal = text.substring(start, position);
+      if (literal.equals("null")) {
+        return null;
+      }
+      if (literal.isEmpty() || c == '{' || c == '[') {
+        throw new IllegalArgumentException("unsupported value at column " + (start + 1));
+      }
+      return literal;
+    }
+
+    private String string() {
+      expect('"');
+      var value = new StringBuilder();
+      while (true) {
+        if (position >= text.length()) {
+          throw new IllegalArgumentException("unterminated string");
+        }
+        char c = text.charAt(position++);
+        if (c == '"') {
+          return value.toString();
+        }
+        if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+        if (position >= text.length()) {
+          throw new IllegalArgumentException("unterminated string");
+        }
+        char escaped = text.charAt(position++);
+        switch (escaped) {
+          case 'n':
+            value.append('\n');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'u':
+            if (position + 4 > text.length()) {
+              throw new IllegalArgumentException("truncated escape");
+            }
+            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+            position += 4;
+            break;
+          default:
+            value.append(escaped);
+        }
+      }
+    }
+
+    private char peek() {
+      while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+        position++;
+      }
+      if (position >= text.length()) {
+        throw new IllegalArgumentException("unexpected end of line");
+      }
+      return text.charAt(position);
+    }
+
+    private char next() {
+      char c = peek();
+      position++;
+      return c;
+    }
+
+    private void expect(char expected) {
+      if (next() != expected) {
+        throw new IllegalArgumentException("expected '" + expected + "' at column " + position);
+      }
+    }
+  }
+
+  /**
+   * I give the indexes of the {@link InventoryFileFormat#FIELDS} names.
+   */
+  private static final class Field {
+
+    static final int TYPE = InventoryFileFormat.FIELDS.indexOf("type");
+    static final int KEY = InventoryFileFormat.FIELDS.indexOf("key");
+    static final int NAME = InventoryFileFormat.FIELDS.indexOf("name");
+    static final int DESCRIPTION = InventoryFileFormat.FIELDS.indexOf("description");
+    static final int SUPPLIERS = InventoryFileFormat.FIELDS.indexOf("suppliers");
+    static final int PART = InventoryFileFormat.FIELDS.indexOf("part");
+    static final int QUANTITY = InventoryFileFormat.FIELDS.indexOf("quantity");
+    static final int ENGINEER = InventoryFileFormat.FIELDS.indexOf("engineer");
+    static final int DATE = InventoryFileFormat.FIELDS.indexOf("date");
+    static final int SUPPLIER = InventoryFileFormat.FIELDS.indexOf("supplier");
+
+    private Field() {
+    }
+  }
+
+  private enum Kind {
+    SUPPLIER, PART, REQUEST
+  }
+
+  /**
+   * I am one parsed and validated row, or the reason it was rejected.
+   */
+  private static class Row {
+
+    Kind kind;
+    long line;
+    int length;
+    String error;
+    String key;
+    String name;
+    String description;
+    List<String> suppliers;
+    String part;
+    long quantity;
+    String engineer;
+    LocalDateTime date;
+    String supplier;
+
+    static Row rejected(long line, String error, int length) {
+      var row = new Row();
+      row.line = line;
+      row.error = error;
+      row.length = length;
+      return row;
+    }
+
+    static Row validate(long line, String[] values, List<String> suppliers, int length) {
+      var row = new Row();
+      row.line = line;
+      row.length = length;
+      String type = values[Field.TYPE];
+      if (type == null) {
+        throw new IllegalArgumentException("missing type");
+      }
+      switch (type) {
+        case "supplier":
+          row.kind = Kind.SUPPLIER;
+          row.key = required(values, Field.KEY);
+          break;
+        case "part":
+          row.kind = Kind.PART;
+          row.key = required(values, Field.KEY);
+          row.name = required(values, Field.NAME);
+          row.description = values[Field.DESCRIPTION];
+          row.suppliers = suppliers;
+          break;
+        case "request":
+          row.kind = Kind.REQUEST;
+          row.key = values[Field.KEY];
+          row.part = required(values, Field.PART);
+          row.supplier = required(values, Field.SUPPLIER);
+          row.engineer = values[Field.ENGINEER];
+          try {
+            row.quantity = Long.parseLong(required(values, Field.QUANTITY));
+          } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("quantity is not a whole number");
+          }
+          if (row.quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+          }
+          try {
+            row.date = LocalDateTime.parse(required(values, Field.DATE));
+          } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date is not an ISO-8601 date and time");
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("unknown type " + type);
+      }
+      return row;
+    }
+
+    private static String required(String[] values, int field) {
+      String value = values[field];
+      if (value == null || value.isBlank()) {
+        throw new IllegalArgumentException("missing " + InventoryFileFormat.FIELDS.get(field));
+      }
+      return value;
+    }
+  }
+
+  /**
+   * I resolve the keys of parsed rows to ids and create their entities, in file order.
+   */
+  private class Inserter {
+
+    private final long fileSize;
+    private final Map<String, Long> supplierIds = new HashMap<>();
+    private final Map<String, Long> partSpecificationIds = new HashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private long rowsRead;
+    private long suppliers;
+    private long partSpecifications;
+    private long requests;
+
+    Inserter(long fileSize) {
+      this.fileSize = fileSize;
+    }
+
+    void insert(Row[] rows) {
+      for (Row row : rows) {
+        rowsRead++;
+        if (row.error != null) {
+          reject(row, row.error);
+        } else if (row.kind == Kind.SUPPLIER) {
+          insertSupplier(row);
+        } else if (row.kind == Kind.PART) {
+          insertPartSpecification(row);
+        } else {
+          insertRequest(row);
+        }
+      }
+    }
+
+    private void insertSupplier(Row row) {
+      if (supplierIds.containsKey(row.key)) {
+        reject(row, "duplicate supplier key " + row.key);
+        return;
+      }
+      supplierIds.put(row.key, useCase.createSupplier(new SupplierModel()));
+      suppliers++;
+    }
+
+    private void insertPartSpecification(Row row) {
+      if (partSpecificationIds.containsKey(row.key)) {
+        reject(row, "duplicate part key " + row.key);
+        return;
+      }
+      long[] resolved = new long[row.suppliers.size()];
+      for (int i = 0; i < resolved.length; i++) {
+        Long supplierId = supplierIds.get(row.suppliers.get(i));
+        if (supplierId == null) {
+          reject(row, "unknown supplier key " + row.suppliers.get(i));
+          return;
+        }
+        resolved[i] = supplierId;
+      }
+      var model = new PartSpecificationModel();
+      model.setName(row.name);
+      model.setDescription(row.description);
+      Long id = useCase.createPartSpecification(model);
+      for (long supplierId : resolved) {
+        useCase.addSupplierToPartSpecification(id, supplierId);
+      }
+      partSpecificationIds.put(row.key, id);
+      partSpecifications++;
+    }
+
+    private void insertRequest(Row row) {
+      Long partSpecificationId = partSpecificationIds.get(row.part);
+      if (partSpecificationId == null) {
+        reject(row, "unknown part key " + row.part);
+        return;
+      }
+      Long supplierId = supplierIds.get(row.supplier);
+      if (supplierId == null) {
+        reject(row, "unknown supplier key " + row.supplier);
+        return;
+      }
+      Long requestId = useCase.createRequisitionRequest(new RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(partSpecificationId, requestId,
+          row.quantity, row.engineer, row.date, supplierId);
+      requests++;
+    }
+
+    private void reject(Row row, String message) {
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add("line " + row.line + ": " + message);
+      }
+    }
+
+    void presize(Row[] rows) {
+      long bytes = 0;
+      int[] counts = new int[Kind.values().length];
+      for (Row row : rows) {
+        bytes += row.length;
+        if (row.kind != null) {
+          counts[row.kind.ordinal()]++;
+        }
+      }
+      double rowsPerByte = bytes == 0 ? 0 : (double) rows.length / bytes;
+      double estimatedRows = fileSize * rowsPerByte;
+      useCase.ensureCapacity(estimate(estimatedRows, counts[Kind.PART.ordinal()], rows.length),
+          estimate(estimatedRows, counts[Kind.SUPPLIER.ordinal()], rows.length),
+          estimate(estimatedRows, counts[Kind.REQUEST.ordinal()], rows.length));
+    }
+
+    private int estimate(double estimatedRows, int count, int sampled) {
+      return (int) Math.min(Integer.MAX_VALUE - 8, estimatedRows * count / sampled);
+    }
+
+    ImportReport report(long elapsedNanos) {
+      return new ImportReport(rowsRead, suppliers, partSpecifications, requests, errors,
+          elapsedNanos);
+    }
+  }
+}
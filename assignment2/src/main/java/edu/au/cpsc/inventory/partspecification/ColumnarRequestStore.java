@@ -0,0 +1,288 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * I keep {@link PartRequisitionRequest}s as rows of parallel primitive columns instead of as
+ * objects: id, part specification id, quantity, engineer code, request date in epoch milliseconds
+ * (UTC) and the id of the selected supplier, 44 bytes a row.  Engineer names are coded by the
+ * {@link EngineerDictionary} I am given, which must be that of the
+ * {@link PartRequisitionRequestRepository} attaching my requests, so the codes in my column are
+ * the ones the repository hands out.
+ *
+ * <p>A saved request is copied into a new row; the requests I hand out are flyweight views of
+ * their rows, created on demand, whose getters read and whose setters write the columns.  Views of
+ * the same row are equal.  A view keeps only what fits in the columns: request dates are kept to
+ * the millisecond, and of the suppliers added to a request only the last, the selected one, is
+ * kept.  Suppliers are returned as supplied by the resolver I am given.
+ *
+ * <p>Rows are found by id through a {@link RowIndex}.  Scans such as
+ * {@link #sumQuantityBetween(LocalDateTime, LocalDateTime)} read the columns directly.
+ *
+ * <p>I am not thread-safe.
+ */
+public class ColumnarRequestStore implements EntityStore<PartRequisitionRequest> {
+
+  private static final int NONE = -1;
+  private static final long NO_DATE = Long.MIN_VALUE;
+
+  private final LongFunction<Supplier> suppliers;
+  private final EngineerDictionary engineers;
+  private final RowIndex rows;
+  private long[] partSpecificationIds;
+  private long[] quantities;
+  private int[] engineerCodes;
+  private long[] dates;
+  private long[] supplierIds;
+  private final IdAllocator idAllocator;
+
+  /**
+   * Create a store that returns suppliers as new {@link Supplier}s holding only their ids.
+   */
+  public ColumnarRequestStore() {
+    this(id -> {
+      var supplier = new Supplier();
+      supplier.setId(id);
+      return supplier;
+    });
+  }
+
+  /**
+   * Create a store that returns suppliers as found by the specified function, such as
+   * {@link SupplierRepository#findOne(Long)}.
+   *
+   * @param suppliers returns the supplier with a given id
+   */
+  public ColumnarRequestStore(LongFunction<Supplier> suppliers) {
+    this(suppliers, new EngineerDictionary());
+  }
+
+  /**
+   * Create a store that returns suppliers as found by the specified function and codes engineer
+   * names in the specified dictionary.
+   *
+   * @param suppliers returns the supplier with a given id
+   * @param engineers the engineer dictionary of the repository attaching my requests
+   */
+  public ColumnarRequestStore(LongFunction<Supplier> suppliers, EngineerDictionary engineers) {
+    this.suppliers = suppliers;
+    this.engineers = engineers;
+    rows = new RowIndex();
+    idAllocator = new SequentialIdAllocator();
+    allocate(16);
+  }
+
+  private void allocate(int capacity) {
+    rows.ensureCapacity(capacity);
+    partSpecificationIds = Arrays.copyOf(
+        partSpecificationIds == null ? new long[0] : partSpecificationIds, capacity);
+    quantities = Arrays.copyOf(quantities == null ? new long[0] : quantities, capacity);
+    engineerCodes = Arrays.copyOf(engineerCodes == null ? new int[0] : engineerCodes, capacity);
+    dates = Arrays.copyOf(dates == null ? new long[0] : dates, capacity);
+    supplierIds = Arrays.copyOf(supplierIds == null ? new long[0] : supplierIds, capacity);
+  }
+
+  @Override
+  public Long save(PartRequisitionRequest entity) {
+    if (entity.getId() == null) {
+      entity.setId(idAllocator.next());
+    }
+    long id = entity.getId();
+    if (rows.size() == quantities.length) {
+      allocate(rows.size() * 2);
+    }
+    int row = rows.add(id);
+    idAllocator.observe(id);
+    var view = new View(row);
+    view.setPartSpecificationId(entity.getPartSpecificationId());
+    view.setQuantity(entity.getQuantity());
+    view.setEngineerName(entity.getEngineerName());
+    view.setRequestDate(entity.getRequestDate());
+    List<Supplier> selected = entity.getSuppliers();
+    supplierIds[row] = NONE;
+    if (!selected.isEmpty()) {
+      view.addSupplier(selected.get(selected.size() - 1));
+    }
+    return id;
+  }
+
+  @Override
+  public long reserveIds(int count) {
+    return idAllocator.reserve(count);
+  }
+
+  @Override
+  public List<PartRequisitionRequest> findAll() {
+    return new AbstractList<>() {
+      @Override
+      public PartRequisitionRequest get(int index) {
+        if (index < 0 || index >= rows.size()) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return new View(index);
+      }
+
+      @Override
+      public int size() {
+        return rows.size();
+      }
+    };
+  }
+
+  @Override
+  public PartRequisitionRequest findOne(long id) {
+    int row = rows.rowOf(id);
+    return row < 0 ? null : new View(row);
+  }
+
+  @Override
+  public void ensureCapacity(int additional) {
+    if (rows.size() + additional > quantities.length) {
+      allocate(rows.size() + additional);
+    }
+  }
+
+  /**
+   * Return the total quantity of the requests made in the specified period, in one pass over the
+   * date and quantity columns.
+   *
+   * @param from the start of the period, inclusive
+   * @param to   the end of the period, exclusive
+   * @return the sum of the quantities of the requests made in that period
+   */
+  public long sumQuantityBetween(LocalDateTime from, LocalDateTime to) {
+    long fromMillis = epochMillis(from);
+    long toMillis = epochMillis(to);
+    long sum = 0;
+    for (int row = 0, size = rows.size(); row < size; row++) {
+      long date = dates[row];
+      if (date >= fromMillis && date < toMillis) {
+        sum += quantities[row];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Return the number of bytes my columns take, including capacity not yet used.
+   *
+   * @return the size of my columns in bytes
+   */
+  public long columnBytes() {
+    return (long) quantities.length * (5 * Long.BYTES + Integer.BYTES);
+  }
+
+  private static long epochMillis(LocalDateTime date) {
+    return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  /**
+   * I am a requisition request backed by one row of my store's columns.
+   */
+  private class View extends PartRequisitionRequest {
+
+    private final int row;
+
+    View(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public Long getId() {
+      return rows.idAt(row);
+    }
+
+    @Override
+    public void setId(Long id) {
+      throw new UnsupportedOperationException("the id of a stored request cannot be changed");
+    }
+
+    @Override
+    public long getQuantity() {
+      return quantities[row];
+    }
+
+    @Override
+    public void setQuantity(Long quantity) {
+      quantities[row] = quantity;
+    }
+
+    @Override
+    public String getEngineerName() {
+      return engineers.decode(engineerCodes[row]);
+    }
+
+    @Override
+    public void setEngineerName(String engineerName) {
+      engineerCodes[row] = engineers.encode(engineerName);
+    }
+
+    @Override
+    public int getEngineerCode() {
+      return engineerCodes[row];
+    }
+
+    @Override
+    void encodeEngineerName(EngineerDictionary dictionary) {
+      if (dictionary != engineers) {
+        throw new IllegalArgumentException(
+            "a columnar store must be given the engineer dictionary of its repository");
+      }
+    }
+
+    @Override
+    public LocalDateTime getRequestDate() {
+      long date = dates[row];
+      return date == NO_DATE ? null : LocalDateTime.ofEpochSecond(Math.floorDiv(date, 1000),
+          Math.floorMod(date, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    @Override
+    public void setRequestDate(LocalDateTime requestDate) {
+      dates[row] = requestDate == null ? NO_DATE : epochMillis(requestDate);
+    }
+
+    @Override
+    public void addSupplier(Supplier supplier) {
+      supplierIds[row] = supplier == null || supplier.getId() == null ? NONE : supplier.getId();
+    }
+
+    @Override
+    public List<Supplier> getSuppliers() {
+      long id = supplierIds[row];
+      return id == NONE ? List.of() : Collections.singletonList(suppliers.apply(id));
+    }
+
+    @Override
+    public Long getPartSpecificationId() {
+      long id = partSpecificationIds[row];
+      return id == NONE ? null : id;
+    }
+
+    @Override
+    public void setPartSpecificationId(Long partSpecificationId) {
+      partSpecificationIds[row] = partSpecificationId == null ? NONE : partSpecificationId;
+    }
+
+    private ColumnarRequestStore store() {
+      return ColumnarRequestStore.this;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof View && ((View) other).store() == store()
+          && ((View) other).row == row;
+    }
+
+    @Override
+    public int hashCode() {
+      return row;
+    }
+  }
+}
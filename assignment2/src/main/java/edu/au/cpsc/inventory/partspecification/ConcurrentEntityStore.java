@@ -0,0 +1,115 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.List;
+
+/**
+ * I store {@link Entity}s for repositories that are used from many threads at once.  Ids are
+ * handed out by a {@link LeasedIdAllocator} unless I am given another, so saving threads do not
+ * contend on a shared counter, the id index is split into independently locked stripes so that
+ * saves and lookups of different ids rarely contend, and {@link #findAll()} returns a consistent
+ * snapshot without blocking writers.
+ *
+ * @param <T> the type of {@link Entity} stored.
+ */
+public class ConcurrentEntityStore<T extends Entity> implements EntityStore<T> {
+
+  private final IdAllocator idAllocator;
+  private final AppendOnlyList<T> entities;
+  private final LongObjectHashMap<T>[] stripes;
+  private final int stripeMask;
+
+  public ConcurrentEntityStore() {
+    this(Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * Create a store whose id index is split into at least the specified number of stripes.
+   *
+   * @param concurrencyLevel the expected number of concurrently saving threads
+   */
+  public ConcurrentEntityStore(int concurrencyLevel) {
+    this(concurrencyLevel, new LeasedIdAllocator());
+  }
+
+  /**
+   * Create a store that assigns ids handed out by the specified allocator.
+   *
+   * @param idAllocator the allocator of my ids, which must be thread-safe
+   */
+  public ConcurrentEntityStore(IdAllocator idAllocator) {
+    this(Runtime.getRuntime().availableProcessors() * 4, idAllocator);
+  }
+
+  /**
+   * Create a store whose id index is split into at least the specified number of stripes, and
+   * that assigns ids handed out by the specified allocator.
+   *
+   * @param concurrencyLevel the expected number of concurrently saving threads
+   * @param idAllocator      the allocator of my ids, which must be thread-safe
+   */
+  public ConcurrentEntityStore(int concurrencyLevel, IdAllocator idAllocator) {
+    int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+    this.idAllocator = idAllocator;
+    entities = new AppendOnlyList<>();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    LongObjectHashMap<T>[] created = new LongObjectHashMap[stripeCount];
+    stripes = created;
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new LongObjectHashMap<>();
+    }
+    stripeMask = stripeCount - 1;
+  }
+
+  private void ensureId(T entity) {
+    if (entity.getId() != null) {
+      idAllocator.observe(entity.getId());
+      return;
+    }
+    entity.setId(idAllocator.next());
+  }
+
+  @Override
+  public Long save(T entity) {
+    ensureId(entity);
+    long id = entity.getId();
+    var stripe = stripeFor(id);
+    synchronized (stripe) {
+      stripe.putIfAbsent(id, entity);
+    }
+    entities.add(entity);
+    return entity.getId();
+  }
+
+  @Override
+  public long reserveIds(int count) {
+    return idAllocator.reserve(count);
+  }
+
+  @Override
+  public List<T> findAll() {
+    return entities.snapshot();
+  }
+
+  @Override
+  public T findOne(long id) {
+    var stripe = stripeFor(id);
+    synchronized (stripe) {
+      return stripe.get(id);
+    }
+  }
+
+  @Override
+  public void ensureCapacity(int additional) {
+    int perStripe = additional / stripes.length + 1;
+    for (var stripe : stripes) {
+      synchronized (stripe) {
+        stripe.ensureCapacity(stripe.size() + perStripe);
+      }
+    }
+  }
+
+  private LongObjectHashMap<T> stripeFor(long id) {
+    long h = id * 0x9E3779B97F4A7C15L;
+    return stripes[(int) (h >>> 40) & stripeMask];
+  }
+}
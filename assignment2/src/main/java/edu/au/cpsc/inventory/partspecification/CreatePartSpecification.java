@@ -1,27 +1,78 @@
 package edu.au.cpsc.inventory.partspecification;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the create part specification use case.  Supports listing and create part
  * specifications as well as listing and creating suppliers.
+ *
+ * <p>Each change is made as one write of the part specification repository, and listings are read
+ * through snapshots, so when the repositories keep their entities in {@link VersionedEntityStore}s
+ * sharing one {@link VersionClock}, listings see a consistent inventory while other threads make
+ * changes.  Changes commit one at a time through my {@link OptimisticTransactions}; adding a
+ * requisition request, which changes a part specification and a request, finds its entities
+ * before committing and is run again if another change to them commits first.
  */
 public class CreatePartSpecification {
 
+  /**
+   * The result of {@link #createRequisitionRequests(List)} for no requisitions, which is no id.
+   */
+  public static final long NO_REQUESTS = -1;
+
+  private static final int MAX_ATTEMPTS = 100;
+
   private PartSpecificationRepository partSpecificationRepository;
   private SupplierRepository supplierRepository;
 
   private PartRequisitionRequestRepository partRequisitionRepository;
 
+  private InventoryJournal journal;
+
+  private OptimisticTransactions transactions;
+
 
   public CreatePartSpecification(PartSpecificationRepository partSpecificationRepository,
       SupplierRepository supplierRepository,
       PartRequisitionRequestRepository partRequisitionRepository) {
+    this(partSpecificationRepository, supplierRepository, partRequisitionRepository,
+        InventoryJournal.NONE);
+  }
+
+  /**
+   * Create the use case over the specified repositories, telling the specified journal about every
+   * change made to them.
+   *
+   * @param partSpecificationRepository the repository of part specifications
+   * @param supplierRepository          the repository of suppliers
+   * @param partRequisitionRepository   the repository of requisition requests
+   * @param journal                     the journal told about every change
+   */
+  public CreatePartSpecification(PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRepository, InventoryJournal journal) {
     this.partSpecificationRepository = partSpecificationRepository;
     this.supplierRepository = supplierRepository;
     this.partRequisitionRepository = partRequisitionRepository;
+    this.journal = journal;
+    transactions = new OptimisticTransactions(partSpecificationRepository, MAX_ATTEMPTS);
+  }
+
+  /**
+   * Return the transactions my changes commit through, to see how often they conflict.
+   *
+   * @return my transactions
+   */
+  public OptimisticTransactions getTransactions() {
+    return transactions;
   }
 
 
@@ -32,12 +83,48 @@ public class CreatePartSpecification {
    */
   public List<PartSpecificationModel> getPartSpecifications() {
     List<PartSpecificationModel> result = new ArrayList<>();
-    for (var ps : partSpecificationRepository.findAll()) {
-      result.add(partSpecificationToModel(ps));
+    try (var snapshot = partSpecificationRepository.openSnapshot()) {
+      for (var ps : partSpecificationRepository.findAll(snapshot)) {
+        result.add(partSpecificationToModel(ps));
+      }
     }
     return result;
   }
 
+  /**
+   * List one page of the part specifications in my repository.
+   *
+   * @param cursor {@link Page#FIRST} or the next cursor of the previous page
+   * @param limit  the largest number of part specifications on the page
+   * @return the page of part specifications as model objects
+   */
+  public Page<PartSpecificationModel> getPartSpecifications(long cursor, int limit) {
+    return partSpecificationRepository.findPage(cursor, limit, this::partSpecificationToModel);
+  }
+
+  /**
+   * Stream the part specifications in my repository, converting each to a model object only when
+   * it is reached.
+   *
+   * @return the part specifications as model objects
+   */
+  public Stream<PartSpecificationModel> streamPartSpecifications() {
+    return partSpecificationRepository.stream().map(this::partSpecificationToModel);
+  }
+
+  /**
+   * Return the part specification with the specified id.
+   *
+   * @param id the id of the part specification
+   * @return the part specification as a model object, or null if there is none
+   */
+  public PartSpecificationModel getPartSpecification(Long id) {
+    try (var snapshot = partSpecificationRepository.openSnapshot()) {
+      var ps = partSpecificationRepository.findOne(id, snapshot);
+      return ps == null ? null : partSpecificationToModel(ps);
+    }
+  }
+
   /**
    * Create a part description by adding it to my part description repository thereby assigning it
    * an id.
@@ -47,7 +134,11 @@ public class CreatePartSpecification {
    */
   public Long createPartSpecification(PartSpecificationModel partSpecificationModel) {
     PartSpecification partSpecification = modelToPartSpecification(partSpecificationModel);
-    return partSpecificationRepository.save(partSpecification);
+    return transactions.write(() -> {
+      Long id = partSpecificationRepository.save(partSpecification);
+      journal.partSpecificationCreated(partSpecification);
+      return id;
+    });
   }
 
   /**
@@ -60,11 +151,57 @@ public class CreatePartSpecification {
 
   public void editPartSpecification(
       Long id, String name, String description) {
-    PartSpecification partSpecification = partSpecificationRepository.findOne(id);
+    transactions.write(() -> {
+      PartSpecification partSpecification = partSpecificationRepository.findOne(id);
 
-    partSpecification.setName(name);
-    partSpecification.setDescription(description);
+      partSpecificationRepository.update(partSpecification, name, description);
+      journal.partSpecificationEdited(id, name, description);
+    });
+  }
 
+  /**
+   * List the part specifications with exactly the specified name.
+   *
+   * @param name the name to look for
+   * @return list of part specifications with that name as model objects, ordered by id
+   */
+  public List<PartSpecificationModel> findPartSpecificationsByName(String name) {
+    var result = new ArrayList<PartSpecificationModel>();
+    for (var ps : partSpecificationRepository.findByName(name)) {
+      result.add(partSpecificationToModel(ps));
+    }
+    return result;
+  }
+
+  /**
+   * List the part specifications whose name starts with the specified prefix.
+   *
+   * @param prefix the start of the names to look for
+   * @param limit  the largest number of part specifications to list
+   * @return list of at most limit part specifications as model objects, ordered by name
+   */
+  public List<PartSpecificationModel> findPartSpecificationsByNamePrefix(String prefix,
+      int limit) {
+    var result = new ArrayList<PartSpecificationModel>();
+    for (var ps : partSpecificationRepository.findByNamePrefix(prefix, limit)) {
+      result.add(partSpecificationToModel(ps));
+    }
+    return result;
+  }
+
+  /**
+   * Search the descriptions of the part specifications for the specified words.
+   *
+   * @param query the words to search for, such as "M3 stainless hex bolt"
+   * @param limit the largest number of part specifications to list
+   * @return list of at most limit part specifications as model objects, best match first
+   */
+  public List<PartSpecificationModel> searchPartSpecifications(String query, int limit) {
+    var result = new ArrayList<PartSpecificationModel>();
+    for (var ps : partSpecificationRepository.searchDescriptions(query, limit)) {
+      result.add(partSpecificationToModel(ps));
+    }
+    return result;
   }
 
   /**
@@ -74,12 +211,35 @@ public class CreatePartSpecification {
    */
   public List<SupplierModel> getSuppliers() {
     var result = new ArrayList<SupplierModel>();
-    for (var supplier : supplierRepository.findAll()) {
-      result.add(supplierToModel(supplier));
+    try (var snapshot = supplierRepository.openSnapshot()) {
+      for (var supplier : supplierRepository.findAll(snapshot)) {
+        result.add(supplierToModel(supplier));
+      }
     }
     return result;
   }
 
+  /**
+   * List one page of the suppliers in my repository.
+   *
+   * @param cursor {@link Page#FIRST} or the next cursor of the previous page
+   * @param limit  the largest number of suppliers on the page
+   * @return the page of suppliers as model objects
+   */
+  public Page<SupplierModel> getSuppliers(long cursor, int limit) {
+    return supplierRepository.findPage(cursor, limit, this::supplierToModel);
+  }
+
+  /**
+   * Stream the suppliers in my repository, converting each to a model object only when it is
+   * reached.
+   *
+   * @return the suppliers as model objects
+   */
+  public Stream<SupplierModel> streamSuppliers() {
+    return supplierRepository.stream().map(this::supplierToModel);
+  }
+
   /**
    * Given a part specification, add a supplier to its list of suppliers.
    *
@@ -87,9 +247,12 @@ public class CreatePartSpecification {
    * @param supplierId          the id of the supplier to be added to the part specification
    */
   public void addSupplierToPartSpecification(Long partSpecificationId, Long supplierId) {
-    var ps = partSpecificationRepository.findOne(partSpecificationId);
-    var s = supplierRepository.findOne(supplierId);
-    ps.addSupplier(s);
+    transactions.write(() -> {
+      var ps = partSpecificationRepository.findOne(partSpecificationId);
+      var s = supplierRepository.findOne(supplierId);
+      partSpecificationRepository.addSupplier(ps, s);
+      journal.supplierAdded(partSpecificationId, supplierId);
+    });
   }
 
   /**
@@ -99,11 +262,29 @@ public class CreatePartSpecification {
    */
 
   public void removeSupplierToPartSpecification(Long partSpecificationId) {
-    var ps = partSpecificationRepository.findOne(partSpecificationId);
-    ps.removeSupplier();
+    transactions.write(() -> {
+      var ps = partSpecificationRepository.findOne(partSpecificationId);
+      partSpecificationRepository.removeSuppliers(ps);
+      journal.suppliersRemoved(partSpecificationId);
+    });
   }
 
-  private PartSpecificationModel partSpecificationToModel(PartSpecification ps) {
+  /**
+   * List the part specifications the specified supplier supplies, whether it was added to them
+   * directly or through a requisition request.
+   *
+   * @param supplierId the id of the supplier
+   * @return list of the part specifications it supplies as model objects, ordered by id
+   */
+  public List<PartSpecificationModel> getPartSpecificationsOfSupplier(Long supplierId) {
+    var result = new ArrayList<PartSpecificationModel>();
+    for (var ps : partSpecificationRepository.findBySupplier(supplierId)) {
+      result.add(partSpecificationToModel(ps));
+    }
+    return result;
+  }
+
+  PartSpecificationModel partSpecificationToModel(PartSpecification ps) {
     PartSpecificationModel partSpecificationModel = new PartSpecificationModel();
     partSpecificationModel.setName(ps.getName());
     partSpecificationModel.setDescription(ps.getDescription());
@@ -118,7 +299,7 @@ public class CreatePartSpecification {
     return partSpecification;
   }
 
-  private SupplierModel supplierToModel(Supplier s) {
+  SupplierModel supplierToModel(Supplier s) {
     SupplierModel supplierModel = new SupplierModel();
     supplierModel.setId(s.getId());
     return supplierModel;
@@ -133,9 +314,15 @@ public class CreatePartSpecification {
    * Create a supplier by adding it to my supplier repository.
    *
    * @param supplier the supplier to be saved.
+   * @return the id of the created supplier
    */
-  public void createSupplier(SupplierModel supplier) {
-    supplierRepository.save(modelToSupplier(supplier));
+  public Long createSupplier(SupplierModel supplier) {
+    Supplier s = modelToSupplier(supplier);
+    return transactions.write(() -> {
+      Long id = supplierRepository.save(s);
+      journal.supplierCreated(s);
+      return id;
+    });
   }
 
   /**
@@ -146,10 +333,12 @@ public class CreatePartSpecification {
    */
 
   public List<SupplierModel> getSuppliersOfPartSpecification(Long partSpecificationId) {
-    var ps = partSpecificationRepository.findOne(partSpecificationId);
     var result = new ArrayList<SupplierModel>();
-    for (var supplier : ps.getSuppliers()) {
-      result.add(supplierToModel(supplier));
+    try (var snapshot = partSpecificationRepository.openSnapshot()) {
+      var ps = partSpecificationRepository.findOne(partSpecificationId, snapshot);
+      for (var supplier : ps.getSuppliers()) {
+        result.add(supplierToModel(supplier));
+      }
     }
     return result;
   }
@@ -163,12 +352,172 @@ public class CreatePartSpecification {
   public List<PartRequisitionRequest> getRequests() {
 
     var requisitionRequestsList = new ArrayList<PartRequisitionRequest>();
-    for (var requisitionRequest : partRequisitionRepository.findAll()) {
-      requisitionRequestsList.add(requisitionRequest);
+    try (var snapshot = partRequisitionRepository.openSnapshot()) {
+      for (var requisitionRequest : partRequisitionRepository.findAll(snapshot)) {
+        requisitionRequestsList.add(requisitionRequest);
+      }
     }
     return requisitionRequestsList;
   }
 
+  /**
+   * List one page of the requisition requests in my repository.
+   *
+   * @param cursor {@link Page#FIRST} or the next cursor of the previous page
+   * @param limit  the largest number of requisition requests on the page
+   * @return the page of requisition requests
+   */
+  public Page<PartRequisitionRequest> getRequests(long cursor, int limit) {
+    return partRequisitionRepository.findPage(cursor, limit);
+  }
+
+  /**
+   * Stream the requisition requests in my repository without copying them.
+   *
+   * @return the requisition requests
+   */
+  public Stream<PartRequisitionRequest> streamRequests() {
+    return partRequisitionRepository.stream();
+  }
+
+  /**
+   * List the requisition requests made for the specified part specification.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @return list of the requisition requests for that part specification
+   */
+  public List<PartRequisitionRequest> getRequestsForPartSpecification(Long partSpecificationId) {
+    return partRequisitionRepository.findByPartSpecification(partSpecificationId);
+  }
+
+  /**
+   * List the requisition requests made in the specified period, such as the last 24 hours.
+   *
+   * @param from the start of the period, inclusive
+   * @param to   the end of the period, exclusive
+   * @return list of the requisition requests made in that period, ordered by request date
+   */
+  public List<PartRequisitionRequest> getRequestsBetween(LocalDateTime from, LocalDateTime to) {
+    return partRequisitionRepository.findByRequestDateBetween(from, to);
+  }
+
+  /**
+   * Stream the requisition requests made in the specified period without materializing them all.
+   *
+   * @param from the start of the period, inclusive
+   * @param to   the end of the period, exclusive
+   * @return the requisition requests made in that period, ordered by request date
+   */
+  public Stream<PartRequisitionRequest> streamRequestsBetween(LocalDateTime from,
+      LocalDateTime to) {
+    return partRequisitionRepository.streamByRequestDateBetween(from, to);
+  }
+
+  /**
+   * Return the total quantity requested for the specified part specification.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @return the sum of the quantities of its requisition requests
+   */
+  public long getQuantityRequestedForPartSpecification(Long partSpecificationId) {
+    return partRequisitionRepository.getQuantityTotals().forPartSpecification(partSpecificationId);
+  }
+
+  /**
+   * Return the total quantity requested from the specified supplier.
+   *
+   * @param supplierId the id of the supplier
+   * @return the sum of the quantities of the requisition requests selecting that supplier
+   */
+  public long getQuantityRequestedFromSupplier(Long supplierId) {
+    return partRequisitionRepository.getQuantityTotals().forSupplier(supplierId);
+  }
+
+  /**
+   * Return the total quantity requested by the specified engineer.
+   *
+   * @param engineerName the name of the engineer
+   * @return the sum of the quantities of the requisition requests that engineer made
+   */
+  public long getQuantityRequestedByEngineer(String engineerName) {
+    return partRequisitionRepository.getQuantityTotals().forEngineer(engineerName);
+  }
+
+  /**
+   * List the part specifications with the largest quantity requested in a recent period.
+   *
+   * @param window the period, such as the last hour
+   * @param k      the largest number of part specifications to list
+   * @return at most k part specification ids with the quantity requested, largest first
+   */
+  public List<TopKCounter.Entry> getTopPartSpecifications(RequisitionLeaderboard.Window window,
+      int k) {
+    return partRequisitionRepository.getLeaderboard().topPartSpecifications(window, k);
+  }
+
+  /**
+   * List the suppliers with the largest quantity requested from them in a recent period.
+   *
+   * @param window the period, such as the last hour
+   * @param k      the largest number of suppliers to list
+   * @return at most k supplier ids with the quantity requested, largest first
+   */
+  public List<TopKCounter.Entry> getTopSuppliers(RequisitionLeaderboard.Window window, int k) {
+    return partRequisitionRepository.getLeaderboard().topSuppliers(window, k);
+  }
+
+  /**
+   * Estimate how many distinct engineers requested the specified part specification in a range of
+   * months.  The estimate is within about 3.3% of the exact count; see {@link DistinctCounts}.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @param from                the first month, inclusive
+   * @param to                  the last month, inclusive
+   * @return the estimated number of distinct engineers
+   */
+  public long getDistinctEngineersForPartSpecification(Long partSpecificationId, YearMonth from,
+      YearMonth to) {
+    return partRequisitionRepository.getDistinctCounts().engineers(partSpecificationId, from, to);
+  }
+
+  /**
+   * Estimate how many distinct suppliers were selected for the specified part specification in a
+   * range of months.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @param from                the first month, inclusive
+   * @param to                  the last month, inclusive
+   * @return the estimated number of distinct suppliers
+   */
+  public long getDistinctSuppliersForPartSpecification(Long partSpecificationId, YearMonth from,
+      YearMonth to) {
+    return partRequisitionRepository.getDistinctCounts().suppliers(partSpecificationId, from, to);
+  }
+
+  /**
+   * Estimate how many distinct engineers made requisition requests in a range of months.  The
+   * estimate is within about 0.8% of the exact count.
+   *
+   * @param from the first month, inclusive
+   * @param to   the last month, inclusive
+   * @return the estimated number of distinct engineers
+   */
+  public long getDistinctEngineers(YearMonth from, YearMonth to) {
+    return partRequisitionRepository.getDistinctCounts().engineers(from, to);
+  }
+
+  /**
+   * Estimate how many distinct suppliers were selected for requisition requests in a range of
+   * months.
+   *
+   * @param from the first month, inclusive
+   * @param to   the last month, inclusive
+   * @return the estimated number of distinct suppliers
+   */
+  public long getDistinctSuppliers(YearMonth from, YearMonth to) {
+    return partRequisitionRepository.getDistinctCounts().suppliers(from, to);
+  }
+
   /**
    * Given a part specification, add a created requisition request. Including the requisition
    * request's quantity, engineer name, date and time, and supplier.
@@ -179,33 +528,180 @@ public class CreatePartSpecification {
    * @param quantity             long of the quantity of the requisition request
    * @param engineerName         String of the requisition request
    * @param date                 LocalDateTime  of the requisition request
-   * @param supplierId           the id of the supplier of the requisition request
+   * @param supplierId           the id of the supplier of the requisition request, or null
+   * @throws NullPointerException  if the part specification, the requisition request, the quantity
+   *                               or the named supplier is missing, in which case nothing changes
+   * @throws IllegalStateException if the requisition request was already added to a part
+   *                               specification, in which case nothing changes
    */
 
   public void addRequisitionRequestToPartSpecification(Long partSpecificationId,
       Long requisitionRequestId, Long quantity, String engineerName,
       LocalDateTime date, Long supplierId) {
-    var ps = partSpecificationRepository.findOne(partSpecificationId);
-    var rr = partRequisitionRepository.findOne(requisitionRequestId);
-    var s = supplierRepository.findOne(supplierId);
-    ps.addSupplier(s);
-    rr.setQuantity(quantity);
-    rr.setEngineerName(engineerName);
-    rr.setRequestDate(date);
-
-    rr.addSupplier(s);
-    ps.addPartRequisitionRequest(rr);
-
+    Objects.requireNonNull(quantity, "no quantity");
+    transactions.run(transaction -> {
+      var ps = transaction.read(partSpecificationRepository, partSpecificationId);
+      var rr = transaction.read(partRequisitionRepository, requisitionRequestId);
+      var s = transaction.read(supplierRepository, supplierId);
+      Objects.requireNonNull(ps, "no part specification " + partSpecificationId);
+      Objects.requireNonNull(rr, "no requisition request " + requisitionRequestId);
+      if (supplierId != null) {
+        Objects.requireNonNull(s, "no supplier " + supplierId);
+      }
+      if (rr.getPartSpecificationId() != null) {
+        throw new IllegalStateException("requisition request " + requisitionRequestId
+            + " was already added to part specification " + rr.getPartSpecificationId());
+      }
+      transaction.onCommit(() -> {
+        if (s != null) {
+          partSpecificationRepository.addSupplier(ps, s);
+        }
+        partRequisitionRepository.attach(rr, ps, quantity, engineerName, date, s);
+        partSpecificationRepository.addPartRequisitionRequest(ps, rr);
+        journal.requisitionRequestAdded(partSpecificationId, requisitionRequestId, quantity,
+            engineerName, date, supplierId);
+      });
+      return null;
+    });
   }
 
   /**
    * Create a requisition request by adding it to my part requisition request repository.
    *
    * @param requestModel the requestModel to be saved.
+   * @return the id of the created requisition request
    */
 
-  public void createRequisitionRequest(RequestModel requestModel) {
-    partRequisitionRepository.save(modelToRequest(requestModel));
+  public Long createRequisitionRequest(RequestModel requestModel) {
+    PartRequisitionRequest request = modelToRequest(requestModel);
+    return transactions.write(() -> {
+      Long id = partRequisitionRepository.save(request);
+      journal.requisitionRequestCreated(request);
+      return id;
+    });
+  }
+
+  /**
+   * Create a requisition request for each of the specified requisitions and add it to its part
+   * specification, as {@link #addRequisitionRequestToPartSpecification} would, in one commit.  The
+   * part specifications and suppliers are found once each, before the commit, and the requests are
+   * given a block of consecutive ids reserved from my requisition request repository, in the order
+   * of the requisitions.
+   *
+   * @param requisitions the requisitions to make
+   * @return the id of the request made for the first requisition, or {@link #NO_REQUESTS} if
+   *         there are no requisitions
+   * @throws IllegalArgumentException if a requisition names no existing part specification or
+   *                                  supplier, in which case no request is made
+   */
+  public long createRequisitionRequests(List<RequisitionModel> requisitions) {
+    int count = requisitions.size();
+    if (count == 0) {
+      return NO_REQUESTS;
+    }
+    var partsById = new LongObjectHashMap<PartSpecification>();
+    var suppliersById = new LongObjectHashMap<Supplier>();
+    var parts = new PartSpecification[count];
+    var suppliers = new Supplier[count];
+    for (int i = 0; i < count; i++) {
+      var requisition = requisitions.get(i);
+      Long partSpecificationId = requisition.getPartSpecificationId();
+      var ps = partSpecificationId == null ? null : partsById.get(partSpecificationId);
+      if (ps == null) {
+        ps = partSpecificationRepository.findOne(partSpecificationId);
+        if (ps == null) {
+          throw new IllegalArgumentException(
+              "requisition " + i + " names no part specification " + partSpecificationId);
+        }
+        partsById.put(partSpecificationId, ps);
+      }
+      parts[i] = ps;
+      Long supplierId = requisition.getSupplierId();
+      var supplier = supplierId == null ? null : suppliersById.get(supplierId);
+      if (supplier == null && supplierId != null) {
+        supplier = supplierRepository.findOne(supplierId);
+        if (supplier == null) {
+          throw new IllegalArgumentException(
+              "requisition " + i + " names no supplier " + supplierId);
+        }
+        suppliersById.put(supplierId, supplier);
+      }
+      suppliers[i] = supplier;
+    }
+
+    return transactions.write(() -> {
+      long first = partRequisitionRepository.reserveIds(count);
+      partRequisitionRepository.ensureCapacity(count);
+      for (int i = 0; i < count; i++) {
+        var requisition = requisitions.get(i);
+        var request = new PartRequisitionRequest();
+        request.setId(first + i);
+        partRequisitionRepository.save(request);
+        journal.requisitionRequestCreated(request);
+        if (suppliers[i] != null) {
+          partSpecificationRepository.addSupplier(parts[i], suppliers[i]);
+        }
+        partRequisitionRepository.attach(request, parts[i], requisition.getQuantity(),
+            requisition.getEngineerName(), requisition.getRequestDate(), suppliers[i]);
+        partSpecificationRepository.addPartRequisitionRequest(parts[i], request);
+        journal.requisitionRequestAdded(parts[i].getId(), request.getId(),
+            requisition.getQuantity(), requisition.getEngineerName(),
+            requisition.getRequestDate(), requisition.getSupplierId());
+      }
+      return first;
+    });
+  }
+
+  /**
+   * Import suppliers, part specifications and requisition requests from a CSV or NDJSON file, as
+   * described by {@link InventoryFileFormat}.  Rows are parsed and validated on every core and
+   * created through this use case in file order, so the import is journalled like any other
+   * change.  Invalid rows are skipped and reported.
+   *
+   * @param path the file to import, named with a .csv, .ndjson or .jsonl extension
+   * @return how many rows were imported and rejected, and how fast
+   * @throws IOException if the file cannot be read
+   */
+  public ImportReport importInventory(Path path) throws IOException {
+    return new BulkImporter(this).importFile(path);
+  }
+
+  /**
+   * Export every supplier, part specification and requisition request to a CSV or NDJSON file, as
+   * described by {@link InventoryFileFormat}, in one pass over my repositories.  The file can be
+   * read by {@link #importInventory(Path)}, which rejects requests with a quantity that is not
+   * positive, no supplier or no date.
+   *
+   * @param path the file to write, named with a .csv, .ndjson or .jsonl extension
+   * @return the number of rows written
+   * @throws IOException if the file cannot be written
+   */
+  public long exportInventory(Path path) throws IOException {
+    return new InventoryExporter(partSpecificationRepository, supplierRepository,
+        partRequisitionRepository).exportFile(path);
+  }
+
+  /**
+   * Export every supplier, part specification and requisition request to the specified channel.
+   *
+   * @param channel receives the rows and is left open
+   * @param format  the format to write
+   * @return the number of rows written
+   * @throws IOException if the channel cannot be written
+   */
+  public long exportInventory(WritableByteChannel channel, InventoryFileFormat format)
+      throws IOException {
+    return new InventoryExporter(partSpecificationRepository, supplierRepository,
+        partRequisitionRepository).export(channel, format);
+  }
+
+  /**
+   * Prepare my repositories for a bulk load of the specified numbers of entities.
+   */
+  void ensureCapacity(int partSpecifications, int suppliers, int requests) {
+    partSpecificationRepository.ensureCapacity(partSpecifications);
+    supplierRepository.ensureCapacity(suppliers);
+    partRequisitionRepository.ensureCapacity(requests);
   }
 
   private RequestModel requestToModel(PartRequisitionRequest request) {
@@ -319,4 +815,57 @@ public class CreatePartSpecification {
 
   }
 
+  /**
+   * A "requisition model" describes one requisition request to be made for a part specification
+   * by {@link #createRequisitionRequests(List)}.
+   */
+  public static class RequisitionModel {
+
+    private Long partSpecificationId;
+    private long quantity;
+    private String engineerName;
+    private LocalDateTime requestDate;
+    private Long supplierId;
+
+    public Long getPartSpecificationId() {
+      return partSpecificationId;
+    }
+
+    public void setPartSpecificationId(Long partSpecificationId) {
+      this.partSpecificationId = partSpecificationId;
+    }
+
+    public long getQuantity() {
+      return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+      this.quantity = quantity;
+    }
+
+    public String getEngineerName() {
+      return engineerName;
+    }
+
+    public void setEngineerName(String engineerName) {
+      this.engineerName = engineerName;
+    }
+
+    public LocalDateTime getRequestDate() {
+      return requestDate;
+    }
+
+    public void setRequestDate(LocalDateTime requestDate) {
+      this.requestDate = requestDate;
+    }
+
+    public Long getSupplierId() {
+      return supplierId;
+    }
+
+    public void setSupplierId(Long supplierId) {
+      this.supplierId = supplierId;
+    }
+  }
+
 }
@@ -1,6 +1,8 @@
 package edu.au.cpsc.inventory.partspecification;
 
 import edu.au.cpsc.inventory.partspecification.CreatePartSpecification.RequestModel;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Scanner;
 
@@ -51,6 +53,12 @@ public class CreatePartSpecificationConsoleUserInterface {
       case PART_REQUISITION_REQUEST:
         partRequisitionRequest();
         break;
+      case IMPORT_INVENTORY:
+        importInventory();
+        break;
+      case EXPORT_INVENTORY:
+        exportInventory();
+        break;
       case INVALID:
       default:
         System.out.println("Invalid menu selection");
@@ -58,22 +66,20 @@ public class CreatePartSpecificationConsoleUserInterface {
   }
 
   private void editPartSpecification() {
-    if (createPartSpecification.getPartSpecifications().isEmpty()) {
+    if (!hasPartSpecifications()) {
       System.out.println("No part specifications, create one first");
       return;
     }
 
     System.out.println("Existing part specifications: ");
-    for (var m : createPartSpecification.getPartSpecifications()) {
-      System.out.printf("%d) %s: %s\n", m.getId(), m.getName(), m.getDescription());
-    }
+    createPartSpecification.streamPartSpecifications().forEach(m ->
+        System.out.printf("%d) %s: %s\n", m.getId(), m.getName(), m.getDescription()));
     System.out.println("");
     System.out.print("Enter id of the part specification to modify: ");
     final long partSpecificationId = scanner.nextLong();
     scanner.nextLine();
 
-    var model = createPartSpecification
-        .getPartSpecifications().get((int) partSpecificationId);
+    var model = createPartSpecification.getPartSpecification(partSpecificationId);
     System.out.println("");
     System.out.println("The part specification selected:");
     System.out.printf("%d) %s: %s\n", model.getId(), model.getName(), model.getDescription());
@@ -101,15 +107,14 @@ public class CreatePartSpecificationConsoleUserInterface {
       return;
     }
 
-    if (createPartSpecification.getSuppliers().isEmpty()) {
+    if (!hasSuppliers()) {
       System.out.println("No suppliers, create one first");
       return;
     }
 
     System.out.println("Suppliers: ");
-    for (var m : createPartSpecification.getSuppliers()) {
-      System.out.printf("%d\n", m.getId());
-    }
+    createPartSpecification.streamSuppliers()
+        .forEach(m -> System.out.printf("%d\n", m.getId()));
 
     System.out.print("Enter id of the supplier to add. "
         + "All previously assigned suppliers will be removed: ");
@@ -121,27 +126,27 @@ public class CreatePartSpecificationConsoleUserInterface {
   }
 
   private void partRequisitionRequest() {
-    if (createPartSpecification.getPartSpecifications().isEmpty()) {
+    if (!hasPartSpecifications()) {
       System.out.println("No part specifications, create one first");
       return;
     }
 
     System.out.println("Existing part specifications: ");
-    for (var m : createPartSpecification.getPartSpecifications()) {
-      System.out.printf("%d) %s: %s\n", m.getId(), m.getName(), m.getDescription());
-    }
+    createPartSpecification.streamPartSpecifications().forEach(m ->
+        System.out.printf("%d) %s: %s\n", m.getId(), m.getName(), m.getDescription()));
     System.out.println("");
     System.out.print("To see a list of all requisition requests for a part specification"
         + "\nEnter id of the part specification: ");
     final long partSpecificationId = scanner.nextLong();
     scanner.nextLine();
 
+    var requests = createPartSpecification.getRequestsForPartSpecification(partSpecificationId);
     System.out.println("Requisition requests for that part specification: ");
-    for (var m : createPartSpecification.getRequests()) {
+    for (var m : requests) {
       System.out.printf("%d\n", m.getId());
     }
 
-    if (createPartSpecification.getRequests().isEmpty()) {
+    if (requests.isEmpty()) {
       System.out.println("");
       System.out.println("No requisition requests for that part specification.");
     }
@@ -153,16 +158,9 @@ public class CreatePartSpecificationConsoleUserInterface {
     if (response.toLowerCase().equals("n")) {
       return;
     }
-    createPartSpecification.createRequisitionRequest(new RequestModel());
-
-    System.out.println("Requisition requests for that part specification: ");
-    for (var m : createPartSpecification.getRequests()) {
-      System.out.printf("id: %d\n", m.getId());
-    }
-
-    System.out.print("Enter the id of the new requisition request created: ");
-    final Long requisitionId = scanner.nextLong();
-    scanner.nextLine();
+    final Long requisitionId =
+        createPartSpecification.createRequisitionRequest(new RequestModel());
+    System.out.printf("Created requisition request id: %d\n", requisitionId);
 
     System.out.print("Enter the quantity for the new requisition request: ");
     final Long quantity = scanner.nextLong();
@@ -184,9 +182,8 @@ public class CreatePartSpecificationConsoleUserInterface {
 
     if (createPartSpecification.getSuppliersOfPartSpecification(partSpecificationId).isEmpty()) {
       System.out.println("List of all suppliers: ");
-      for (var m : createPartSpecification.getSuppliers()) {
-        System.out.printf("%d\n", m.getId());
-      }
+      createPartSpecification.streamSuppliers()
+          .forEach(m -> System.out.printf("%d\n", m.getId()));
     }
 
     System.out.print("Enter id of the supplier to add: ");
@@ -199,34 +196,55 @@ public class CreatePartSpecificationConsoleUserInterface {
 
   }
 
+  private void importInventory() {
+    System.out.print("Enter the path of the file to import: ");
+    String path = scanner.nextLine();
+    try {
+      ImportReport report = createPartSpecification.importInventory(Path.of(path));
+      System.out.println(report);
+      report.getErrors().forEach(System.out::println);
+    } catch (IOException | IllegalArgumentException e) {
+      System.out.println("Could not import " + path + ": " + e.getMessage());
+    }
+  }
+
+  private void exportInventory() {
+    System.out.print("Enter the path of the file to export to: ");
+    String path = scanner.nextLine();
+    try {
+      long rows = createPartSpecification.exportInventory(Path.of(path));
+      System.out.printf("Exported %d rows\n", rows);
+    } catch (IOException | IllegalArgumentException e) {
+      System.out.println("Could not export to " + path + ": " + e.getMessage());
+    }
+  }
+
   private void createSupplier() {
     createPartSpecification.createSupplier(new CreatePartSpecification.SupplierModel());
     System.out.println("Created!");
   }
 
   private void assignSupplier() {
-    if (createPartSpecification.getSuppliers().isEmpty()) {
+    if (!hasSuppliers()) {
       System.out.println("No suppliers, create one first");
       return;
     }
-    if (createPartSpecification.getPartSpecifications().isEmpty()) {
+    if (!hasPartSpecifications()) {
       System.out.println("No part specifications, create one first");
       return;
     }
     System.out.println("Create part\n");
     System.out.println("Existing part specifications: ");
-    for (var m : createPartSpecification.getPartSpecifications()) {
-      System.out.printf("%d) %s: %s\n", m.getId(), m.getName(), m.getDescription());
-    }
+    createPartSpecification.streamPartSpecifications().forEach(m ->
+        System.out.printf("%d) %s: %s\n", m.getId(), m.getName(), m.getDescription()));
 
     System.out.print("Enter id of the part specification to modify: ");
     final Long partSpecificationId = scanner.nextLong();
     scanner.nextLine();
 
     System.out.println("Suppliers: ");
-    for (var m : createPartSpecification.getSuppliers()) {
-      System.out.printf("%d\n", m.getId());
-    }
+    createPartSpecification.streamSuppliers()
+        .forEach(m -> System.out.printf("%d\n", m.getId()));
 
     System.out.print("Enter id of the supplier to add: ");
     final Long supplierId = scanner.nextLong();
@@ -238,9 +256,8 @@ public class CreatePartSpecificationConsoleUserInterface {
   private void createPartSpecification() {
     System.out.println("Create part\n");
     System.out.println("Existing part specifications: ");
-    for (var m : createPartSpecification.getPartSpecifications()) {
-      System.out.printf("%s: %s\n", m.getName(), m.getDescription());
-    }
+    createPartSpecification.streamPartSpecifications().forEach(m ->
+        System.out.printf("%s: %s\n", m.getName(), m.getDescription()));
     System.out.println("Are you sure you want to create a new one?");
     String response = scanner.nextLine();
     if (response.toLowerCase().equals("n")) {
@@ -256,6 +273,14 @@ public class CreatePartSpecificationConsoleUserInterface {
     createPartSpecification.createPartSpecification(model);
   }
 
+  private boolean hasPartSpecifications() {
+    return !createPartSpecification.getPartSpecifications(Page.FIRST, 1).getItems().isEmpty();
+  }
+
+  private boolean hasSuppliers() {
+    return !createPartSpecification.getSuppliers(Page.FIRST, 1).getItems().isEmpty();
+  }
+
   private MenuResponse getMenuResponse() {
     System.out.print("Enter selection> ");
     String line = scanner.nextLine();
@@ -283,6 +308,8 @@ public class CreatePartSpecificationConsoleUserInterface {
     CREATE_SUPPLIER('s', "Create supplier"),
     EDIT_PART_SPECIFICATION('e', "Edit part specification"),
     PART_REQUISITION_REQUEST('r', "Create requisition request"),
+    IMPORT_INVENTORY('i', "Import inventory from a CSV or NDJSON file"),
+    EXPORT_INVENTORY('x', "Export inventory to a CSV or NDJSON file"),
     QUIT('q', "Quit");
 
     private final char inputCharacter;
@@ -0,0 +1,144 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.TreeMap;
+
+/**
+ * I estimate how many distinct engineers and suppliers made or received requests, per part
+ * specification and overall, in any range of calendar months.  Each month keeps a
+ * {@link HyperLogLog} of engineer names and one of supplier ids for every part specification
+ * requested in it, at precision {@value #PART_PRECISION}, and one of each over all part
+ * specifications at precision {@value #OVERALL_PRECISION}; a range of months is answered by
+ * merging its months' sketches.
+ *
+ * <p>Estimates per part specification are within about 3.3% of the true count (one standard
+ * error) and overall within about 0.8%; see {@link HyperLogLog}.  A request counts in the month of
+ * its request date, towards its engineer and its selected supplier (the last one added to it);
+ * requests without a date are not counted.  Sketches cannot forget, so a request that is
+ * re-attached still counts where it was first attached.  I am thread-safe.
+ */
+public class DistinctCounts {
+
+  public static final int PART_PRECISION = 10;
+  public static final int OVERALL_PRECISION = 14;
+
+  private final TreeMap<YearMonth, Month> months;
+
+  public DistinctCounts() {
+    months = new TreeMap<>();
+  }
+
+  /**
+   * The sketches of one month.
+   */
+  private static class Month {
+
+    final LongObjectHashMap<HyperLogLog> engineersByPart = new LongObjectHashMap<>();
+    final LongObjectHashMap<HyperLogLog> suppliersByPart = new LongObjectHashMap<>();
+    final HyperLogLog engineers = new HyperLogLog(OVERALL_PRECISION);
+    final HyperLogLog suppliers = new HyperLogLog(OVERALL_PRECISION);
+  }
+
+  /**
+   * Count the engineer and supplier of a request that has been made for a part specification.
+   *
+   * @param request the request, whose part specification id is set
+   */
+  public synchronized void add(PartRequisitionRequest request) {
+    LocalDateTime date = request.getRequestDate();
+    Long partSpecificationId = request.getPartSpecificationId();
+    if (date == null || partSpecificationId == null) {
+      return;
+    }
+    Month month = months.computeIfAbsent(YearMonth.from(date), key -> new Month());
+    String engineerName = request.getEngineerName();
+    if (engineerName != null) {
+      partSketch(month.engineersByPart, partSpecificationId).add(engineerName);
+      month.engineers.add(engineerName);
+    }
+    var suppliers = request.getSuppliers();
+    Supplier supplier = suppliers.isEmpty() ? null : suppliers.get(suppliers.size() - 1);
+    if (supplier != null && supplier.getId() != null) {
+      partSketch(month.suppliersByPart, partSpecificationId).add(supplier.getId());
+      month.suppliers.add(supplier.getId());
+    }
+  }
+
+  private static HyperLogLog partSketch(LongObjectHashMap<HyperLogLog> sketches, long id) {
+    HyperLogLog sketch = sketches.get(id);
+    if (sketch == null) {
+      sketch = new HyperLogLog(PART_PRECISION);
+      sketches.put(id, sketch);
+    }
+    return sketch;
+  }
+
+  /**
+   * Estimate the distinct engineers who requested a part specification in a range of months.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @param from                the first month, inclusive
+   * @param to                  the last month, inclusive
+   * @return the estimated number of distinct engineers
+   */
+  public synchronized long engineers(long partSpecificationId, YearMonth from, YearMonth to) {
+    var union = new HyperLogLog(PART_PRECISION);
+    for (Month month : months.subMap(from, true, to, true).values()) {
+      HyperLogLog sketch = month.engineersByPart.get(partSpecificationId);
+      if (sketch != null) {
+        union.merge(sketch);
+      }
+    }
+    return union.estimate();
+  }
+
+  /**
+   * Estimate the distinct suppliers selected for a part specification in a range of months.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @param from                the first month, inclusive
+   * @param to                  the last month, inclusive
+   * @return the estimated number of distinct suppliers
+   */
+  public synchronized long suppliers(long partSpecificationId, YearMonth from, YearMonth to) {
+    var union = new HyperLogLog(PART_PRECISION);
+    for (Month month : months.subMap(from, true, to, true).values()) {
+      HyperLogLog sketch = month.suppliersByPart.get(partSpecificationId);
+      if (sketch != null) {
+        union.merge(sketch);
+      }
+    }
+    return union.estimate();
+  }
+
+  /**
+   * Estimate the distinct engineers who made any request in a range of months.
+   *
+   * @param from the first month, inclusive
+   * @param to   the last month, inclusive
+   * @return the estimated number of distinct engineers
+   */
+  public synchronized long engineers(YearMonth from, YearMonth to) {
+    var union = new HyperLogLog(OVERALL_PRECISION);
+    for (Month month : months.subMap(from, true, to, true).values()) {
+      union.merge(month.engineers);
+    }
+    return union.estimate();
+  }
+
+  /**
+   * Estimate the distinct suppliers selected for any request in a range of months.
+   *
+   * @param from the first month, inclusive
+   * @param to   the last month, inclusive
+   * @return the estimated number of distinct suppliers
+   */
+  public synchronized long suppliers(YearMonth from, YearMonth to) {
+    var union = new HyperLogLog(OVERALL_PRECISION);
+    for (Month month : months.subMap(from, true, to, true).values()) {
+      union.merge(month.suppliers);
+    }
+    return union.estimate();
+  }
+}
@@ -0,0 +1,89 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * I give each distinct engineer name a small int code, in the order the names are first seen, and
+ * keep one canonical copy of each name.  Requests by a few hundred engineers then share a few
+ * hundred strings instead of holding one each, and a request can be stored as its code.
+ *
+ * <p>Codes are never reused or forgotten.  Encoding a name already seen is one hash lookup
+ * without locking; only new names are added under a lock.  Decoding is an array read.
+ */
+public class EngineerDictionary {
+
+  /**
+   * The code of a missing (null) name.
+   */
+  public static final int NONE = -1;
+
+  private final ConcurrentHashMap<String, Integer> codes;
+  private volatile String[] names;
+  private int size;
+
+  public EngineerDictionary() {
+    codes = new ConcurrentHashMap<>();
+    names = new String[16];
+  }
+
+  /**
+   * Return the code of the specified name, giving it the next code if it is new.
+   *
+   * @param name the engineer name, or null
+   * @return the code of the name, or {@link #NONE} for null
+   */
+  public int encode(String name) {
+    if (name == null) {
+      return NONE;
+    }
+    Integer code = codes.get(name);
+    if (code != null) {
+      return code;
+    }
+    synchronized (this) {
+      code = codes.get(name);
+      if (code != null) {
+        return code;
+      }
+      String[] current = names;
+      if (size == current.length) {
+        current = Arrays.copyOf(current, size * 2);
+      }
+      current[size] = name;
+      names = current;
+      code = size++;
+      codes.put(name, code);
+      return code;
+    }
+  }
+
+  /**
+   * Return the name with the specified code.
+   *
+   * @param code a code returned by {@link #encode(String)}, or {@link #NONE}
+   * @return the canonical name, or null for {@link #NONE}
+   */
+  public String decode(int code) {
+    return code == NONE ? null : names[code];
+  }
+
+  /**
+   * Return the canonical copy of the specified name, adding it if it is new.
+   *
+   * @param name the engineer name, or null
+   * @return the equal name I keep, or null
+   */
+  public String canonical(String name) {
+    return decode(encode(name));
+  }
+
+  /**
+   * Return the number of distinct names I hold.
+   *
+   * @return my size
+   */
+  public int size() {
+    return codes.size();
+  }
+}
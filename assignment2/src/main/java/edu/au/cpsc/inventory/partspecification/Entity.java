@@ -2,10 +2,15 @@ package edu.au.cpsc.inventory.partspecification;
 
 /**
  * My concrete instances have identifiers that are unique by class.
+ *
+ * <p>I also carry a version stamp, counted up by {@link InMemoryEntityRepository#update(Entity)}
+ * each time I am changed in place, so that {@link OptimisticTransactions} can tell whether I
+ * changed after they read me.
  */
 public class Entity {
 
   private Long id;
+  private volatile long version;
 
   public Long getId() {
     return id;
@@ -14,4 +19,12 @@ public class Entity {
   public void setId(Long id) {
     this.id = id;
   }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
 }
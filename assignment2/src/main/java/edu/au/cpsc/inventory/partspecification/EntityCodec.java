@@ -0,0 +1,249 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * I encode {@link Supplier}s, {@link PartRequisitionRequest}s and {@link PartSpecification}s into
+ * a compact binary form, and decode them again, field by field without reflection:
+ *
+ * <ul>
+ *   <li>ids and quantities are varints;</li>
+ *   <li>engineer names are dictionary-encoded: a name is written out the first time it is seen
+ *   and as a small code afterwards;</li>
+ *   <li>request dates are varint seconds since the epoch (UTC), with nanoseconds only when they
+ *   are not zero;</li>
+ *   <li>links to other entities are written as arrays of their ids.  A request's part
+ *   specification is not written; the part specification lists its requests.</li>
+ * </ul>
+ *
+ * <p>An encoding is a stream: it starts with a header holding my format {@link #VERSION}, and the
+ * dictionary grows as it goes, so entities must be decoded in the order they were encoded, by one
+ * instance of me that has read the header.  Decoding accepts every version up to my own.
+ *
+ * <p>Version history: 1 is the first version.
+ */
+public class EntityCodec {
+
+  public static final int VERSION = 1;
+
+  private static final long NEW_NAME = 1;
+  private static final long FIRST_CODE = 2;
+
+  private final Map<String, Integer> engineerCodes;
+  private final List<String> engineerNames;
+  private int version;
+
+  public EntityCodec() {
+    engineerCodes = new HashMap<>();
+    engineerNames = new ArrayList<>();
+    version = VERSION;
+  }
+
+  /**
+   * Start an encoding by writing my version.
+   *
+   * @param out receives the header
+   */
+  public void writeHeader(BinaryWriter out) {
+    out.writeVarLong(VERSION);
+  }
+
+  /**
+   * Start a decoding by reading the version it was encoded with.
+   *
+   * @param in holds the header
+   * @throws IllegalArgumentException if the encoding is of a version newer than mine
+   */
+  public void readHeader(BinaryReader in) {
+    long encoded = in.readVarLong();
+    if (encoded < 1 || encoded > VERSION) {
+      throw new IllegalArgumentException("unsupported entity encoding version " + encoded);
+    }
+    version = (int) encoded;
+  }
+
+  /**
+   * Return the version of the encoding being decoded, or my own version when encoding.
+   *
+   * @return the format version
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Encode a supplier.
+   *
+   * @param out      receives the encoded supplier
+   * @param supplier the supplier to encode, which must have an id
+   */
+  public void writeSupplier(BinaryWriter out, Supplier supplier) {
+    out.writeVarLong(supplier.getId());
+  }
+
+  /**
+   * Decode a supplier.
+   *
+   * @param in holds the encoded supplier
+   * @return the decoded supplier
+   */
+  public Supplier readSupplier(BinaryReader in) {
+    var supplier = new Supplier();
+    supplier.setId(in.readVarLong());
+    return supplier;
+  }
+
+  /**
+   * Encode a requisition request.
+   *
+   * @param out     receives the encoded request
+   * @param request the request to encode, which must have an id
+   */
+  public void writePartRequisitionRequest(BinaryWriter out, PartRequisitionRequest request) {
+    out.writeVarLong(request.getId());
+    out.writeSignedVarLong(request.getQuantity());
+    writeEngineerName(out, request.getEngineerName());
+    writeDateTime(out, request.getRequestDate());
+    writeIds(out, request.getSuppliers());
+  }
+
+  /**
+   * Decode a requisition request.
+   *
+   * @param in        holds the encoded request
+   * @param suppliers returns the supplier with a given id
+   * @return the decoded request
+   */
+  public PartRequisitionRequest readPartRequisitionRequest(BinaryReader in,
+      LongFunction<Supplier> suppliers) {
+    var request = new PartRequisitionRequest();
+    request.setId(in.readVarLong());
+    request.setQuantity(in.readSignedVarLong());
+    request.setEngineerName(readEngineerName(in));
+    request.setRequestDate(readDateTime(in));
+    long count = in.readVarLong();
+    for (long i = 0; i < count; i++) {
+      request.addSupplier(resolve(in, suppliers));
+    }
+    return request;
+  }
+
+  /**
+   * Encode a part specification with the ids of its suppliers and requests.
+   *
+   * @param out               receives the encoded part specification
+   * @param partSpecification the part specification to encode, which must have an id
+   */
+  public void writePartSpecification(BinaryWriter out, PartSpecification partSpecification) {
+    out.writeVarLong(partSpecification.getId());
+    out.writeString(partSpecification.getName());
+    out.writeString(partSpecification.getDescription());
+    writeIds(out, partSpecification.getSuppliers());
+    writeIds(out, partSpecification.getPartRequisitionRequests());
+  }
+
+  /**
+   * Decode a part specification.  Its requests are added to it but not told about it.
+   *
+   * @param in        holds the encoded part specification
+   * @param suppliers returns the supplier with a given id
+   * @param requests  returns the requisition request with a given id
+   * @return the decoded part specification
+   */
+  public PartSpecification readPartSpecification(BinaryReader in,
+      LongFunction<Supplier> suppliers, LongFunction<PartRequisitionRequest> requests) {
+    var partSpecification = new PartSpecification();
+    partSpecification.setId(in.readVarLong());
+    partSpecification.setName(in.readString());
+    partSpecification.setDescription(in.readString());
+    long supplierCount = in.readVarLong();
+    for (long i = 0; i < supplierCount; i++) {
+      partSpecification.addSupplier(resolve(in, suppliers));
+    }
+    long requestCount = in.readVarLong();
+    for (long i = 0; i < requestCount; i++) {
+      partSpecification.addPartRequisitionRequest(resolve(in, requests));
+    }
+    return partSpecification;
+  }
+
+  private void writeEngineerName(BinaryWriter out, String name) {
+    if (name == null) {
+      out.writeVarLong(0);
+      return;
+    }
+    Integer code = engineerCodes.get(name);
+    if (code != null) {
+      out.writeVarLong(FIRST_CODE + code);
+      return;
+    }
+    engineerCodes.put(name, engineerCodes.size());
+    out.writeVarLong(NEW_NAME);
+    out.writeString(name);
+  }
+
+  private String readEngineerName(BinaryReader in) {
+    long tag = in.readVarLong();
+    if (tag == 0) {
+      return null;
+    }
+    if (tag == NEW_NAME) {
+      String name = in.readString();
+      engineerNames.add(name);
+      return name;
+    }
+    long code = tag - FIRST_CODE;
+    if (code >= engineerNames.size()) {
+      throw new IllegalStateException("unknown engineer name code " + code);
+    }
+    return engineerNames.get((int) code);
+  }
+
+  /**
+   * Write a date and time as one varint: zero for null, otherwise the zigzag-encoded epoch second
+   * shifted left by one, with the low bit set when a nanosecond varint follows, plus one.
+   */
+  private static void writeDateTime(BinaryWriter out, LocalDateTime value) {
+    if (value == null) {
+      out.writeVarLong(0);
+      return;
+    }
+    long seconds = value.toEpochSecond(ZoneOffset.UTC);
+    int nanos = value.getNano();
+    long zigzag = (seconds << 1) ^ (seconds >> 63);
+    out.writeVarLong(((zigzag << 1) | (nanos == 0 ? 0 : 1)) + 1);
+    if (nanos != 0) {
+      out.writeVarLong(nanos);
+    }
+  }
+
+  private static LocalDateTime readDateTime(BinaryReader in) {
+    long value = in.readVarLong();
+    if (value == 0) {
+      return null;
+    }
+    value--;
+    long zigzag = value >>> 1;
+    long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+    int nanos = (value & 1) == 0 ? 0 : (int) in.readVarLong();
+    return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+  }
+
+  private static void writeIds(BinaryWriter out, List<? extends Entity> entities) {
+    out.writeVarLong(entities.size());
+    for (var entity : entities) {
+      out.writeNullableVarLong(entity == null ? null : entity.getId());
+    }
+  }
+
+  private static <T> T resolve(BinaryReader in, LongFunction<T> entities) {
+    Long id = in.readNullableVarLong();
+    return id == null ? null : entities.apply(id);
+  }
+}
@@ -0,0 +1,114 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.List;
+
+/**
+ * I hold the {@link Entity}s of an {@link InMemoryEntityRepository} and hand out their ids, as an
+ * {@link IdAllocator} allocates them.  Repositories delegate storage to me so that different
+ * storage strategies can be injected without changing the repositories or the use cases built on
+ * them.
+ *
+ * @param <T> the type of {@link Entity} stored.
+ */
+public interface EntityStore<T extends Entity> {
+
+  /**
+   * Store the specified {@link Entity}.  If the {@link Entity} does not have an id, one will be
+   * assigned by my {@link IdAllocator}.  Ids assigned later are greater than the ids of the
+   * {@link Entity}s stored before, except that a {@link LeasedIdAllocator} only orders the ids
+   * it assigns on one thread.
+   *
+   * @param entity the {@link Entity} to add
+   * @return the id of the stored {@link Entity}
+   */
+  Long save(T entity);
+
+  /**
+   * Return all stored {@link Entity}s in the order they were saved.  The list is an unmodifiable
+   * view rather than a copy, so it is cheap to obtain and to page through.
+   *
+   * @return all stored {@link Entity}s
+   */
+  List<T> findAll();
+
+  /**
+   * Return the {@link Entity} with the specified id or null if there is none.
+   *
+   * @param id the id of the {@link Entity} to find
+   * @return the {@link Entity} with that id or null
+   */
+  T findOne(long id);
+
+  /**
+   * Reserve a block of consecutive ids that I will not assign, for {@link Entity}s that will be
+   * saved with them, as my {@link IdAllocator} reserves them.
+   *
+   * @param count the number of ids to reserve
+   * @return the first id of the block
+   */
+  long reserveIds(int count);
+
+  /**
+   * Prepare to store the specified number of additional {@link Entity}s without growing my
+   * structures one step at a time.  This is only a hint; by default it does nothing.
+   *
+   * @param additional the number of {@link Entity}s about to be saved
+   */
+  default void ensureCapacity(int additional) {
+  }
+
+  /**
+   * Tell me that the specified {@link Entity}, which I hold, has been changed in place.  Stores
+   * that keep versions publish the change; by default this does nothing.
+   *
+   * @param entity the changed {@link Entity}
+   */
+  default void update(T entity) {
+  }
+
+  /**
+   * Make the specified change as one write.  Stores that keep versions make writes one at a time
+   * and publish their changes together; by default the change is just made.
+   *
+   * @param change the change to make
+   * @param <R>    the type of result of the change
+   * @return the result of the change
+   */
+  default <R> R write(java.util.function.Supplier<R> change) {
+    return change.get();
+  }
+
+  /**
+   * Open a snapshot to read me through.  Stores that keep versions return a snapshot of their
+   * latest committed version; by default {@link VersionClock.Snapshot#LATEST} is returned.
+   *
+   * @return an open snapshot, to be closed when done
+   */
+  default VersionClock.Snapshot openSnapshot() {
+    return VersionClock.Snapshot.LATEST;
+  }
+
+  /**
+   * Return all {@link Entity}s stored as of the specified snapshot, in the order they were saved.
+   * By default the snapshot is ignored and {@link #findAll()} is returned.
+   *
+   * @param snapshot an open snapshot
+   * @return the {@link Entity}s seen by the snapshot
+   */
+  default List<T> findAll(VersionClock.Snapshot snapshot) {
+    return findAll();
+  }
+
+  /**
+   * Return the {@link Entity} with the specified id as of the specified snapshot, or null if
+   * there was none.  By default the snapshot is ignored.
+   *
+   * @param id       the id of the {@link Entity} to find
+   * @param snapshot an open snapshot
+   * @return the {@link Entity} with that id as the snapshot sees it, or null
+   */
+  default T findOne(long id, VersionClock.Snapshot snapshot) {
+    return findOne(id);
+  }
+
+}
@@ -0,0 +1,147 @@
+package edu.au.cpsc.inventory.partspecification;
+
+/**
+ * I estimate how many distinct values have been added to me, in a fixed {@code 2^precision} bytes
+ * however many there are.  Each value is hashed to 64 bits; the first {@code precision} bits pick
+ * a register and the register keeps the longest run of leading zeros seen in the remaining bits.
+ * The estimate is the bias-corrected harmonic mean of the registers, with linear counting of
+ * the empty registers while few have been touched.
+ *
+ * <p>The relative standard error of the estimate is about {@code 1.04 / sqrt(2^precision)}: 3.3%
+ * at precision 10 (1 KiB) and 0.8% at precision 14 (16 KiB).  About 99% of estimates fall within
+ * three standard errors of the true count.
+ *
+ * <p>Sketches of the same precision can be merged; the result is the sketch of the union of their
+ * values, so counts kept per period can be combined into counts for a longer one.  Values cannot
+ * be removed.  I am not thread-safe.
+ */
+public class HyperLogLog {
+
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+
+  private final int precision;
+  private final byte[] registers;
+
+  /**
+   * Create an empty sketch with {@code 2^precision} registers.
+   *
+   * @param precision the number of hash bits used to pick a register
+   * @throws IllegalArgumentException if the precision is out of range
+   */
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and "
+          + MAX_PRECISION);
+    }
+    this.precision = precision;
+    registers = new byte[1 << precision];
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Return the relative standard error of my estimates.
+   *
+   * @return the standard error as a fraction of the true count
+   */
+  public double getStandardError() {
+    return 1.04 / Math.sqrt(registers.length);
+  }
+
+  /**
+   * Add a long value, such as an id.
+   *
+   * @param value the value to add
+   */
+  public void add(long value) {
+    addHash(mix(value));
+  }
+
+  /**
+   * Add a string value, such as a name.
+   *
+   * @param value the value to add, which must not be null
+   */
+  public void add(String value) {
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+    }
+    addHash(mix(hash));
+  }
+
+  private void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+    if (rank > registers[index]) {
+      registers[index] = (byte) rank;
+    }
+  }
+
+  /**
+   * Add every value added to another sketch of the same precision.
+   *
+   * @param other the sketch to merge into me
+   * @throws IllegalArgumentException if the precisions differ
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException("cannot merge precision " + other.precision + " into "
+          + precision);
+    }
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * Return the estimated number of distinct values added.
+   *
+   * @return the estimate, rounded to a whole number
+   */
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * Return a new sketch holding the same values as me.
+   *
+   * @return a copy of me
+   */
+  public HyperLogLog copy() {
+    var copy = new HyperLogLog(precision);
+    System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+    return copy;
+  }
+
+  /**
+   * Spread the bits of a value over the whole word (the MurmurHash3 finalizer).
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
@@ -0,0 +1,37 @@
+package edu.au.cpsc.inventory.partspecification;
+
+/**
+ * I hand out the ids an {@link EntityStore} assigns to the {@link Entity}s saved without one.
+ * Stores are given an allocator so that how ids are handed out, one counter for a store used from
+ * one thread or ranges leased to each thread of a store used from many, can be chosen without
+ * changing the stores.
+ *
+ * <p>Ids are dealt in as primitives, so handing one out allocates nothing.
+ */
+public interface IdAllocator {
+
+  /**
+   * Hand out an id that I have not handed out before.
+   *
+   * @return the id
+   */
+  long next();
+
+  /**
+   * Hand out a block of consecutive ids that I have not handed out before and will not hand out
+   * again, so that a batch of {@link Entity}s can be saved with contiguous ids.
+   *
+   * @param count the number of ids in the block
+   * @return the first id of the block
+   */
+  long reserve(int count);
+
+  /**
+   * Tell me that an {@link Entity} was saved with the specified id, which I may not have handed
+   * out, so that the ids I hand out from now on are greater.  Ids below my high-water mark are
+   * taken to have been handed out already.
+   *
+   * @param id the id of the saved {@link Entity}
+   */
+  void observe(long id);
+}
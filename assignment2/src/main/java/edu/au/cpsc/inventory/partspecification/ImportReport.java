@@ -0,0 +1,82 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.List;
+
+/**
+ * I summarize a bulk import: how many rows were read, imported and rejected, why the first few
+ * rejected rows were rejected, and how long the import took.
+ */
+public class ImportReport {
+
+  private final long rowsRead;
+  private final long suppliersImported;
+  private final long partSpecificationsImported;
+  private final long requestsImported;
+  private final List<String> errors;
+  private final long elapsedNanos;
+
+  /**
+   * Create a report.
+   *
+   * @param rowsRead                   the number of rows read, not counting a header
+   * @param suppliersImported          the number of suppliers created
+   * @param partSpecificationsImported the number of part specifications created
+   * @param requestsImported           the number of requisition requests created
+   * @param errors                     descriptions of the first rejected rows
+   * @param elapsedNanos               how long the import took
+   */
+  public ImportReport(long rowsRead, long suppliersImported, long partSpecificationsImported,
+      long requestsImported, List<String> errors, long elapsedNanos) {
+    this.rowsRead = rowsRead;
+    this.suppliersImported = suppliersImported;
+    this.partSpecificationsImported = partSpecificationsImported;
+    this.requestsImported = requestsImported;
+    this.errors = List.copyOf(errors);
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getSuppliersImported() {
+    return suppliersImported;
+  }
+
+  public long getPartSpecificationsImported() {
+    return partSpecificationsImported;
+  }
+
+  public long getRequestsImported() {
+    return requestsImported;
+  }
+
+  public long getRowsRejected() {
+    return rowsRead - suppliersImported - partSpecificationsImported - requestsImported;
+  }
+
+  /**
+   * Return descriptions of the first rejected rows, each starting with the row's line number.
+   *
+   * @return at most a hundred descriptions
+   */
+  public List<String> getErrors() {
+    return errors;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  public double getRowsPerSecond() {
+    return elapsedNanos == 0 ? 0 : rowsRead * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d rows in %.3f s (%.0f rows/s): %d suppliers, %d part specifications, "
+            + "%d requests imported, %d rejected", rowsRead, elapsedNanos / 1e9,
+        getRowsPerSecond(), suppliersImported, partSpecificationsImported, requestsImported,
+        getRowsRejected());
+  }
+}
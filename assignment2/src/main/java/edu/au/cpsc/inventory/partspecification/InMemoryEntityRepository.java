@@ -2,31 +2,36 @@ package edu.au.cpsc.inventory.partspecification;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
- * My concrete instances store {@link Entity}s.
+ * My concrete instances store {@link Entity}s.  Besides keeping entities in the order they were
+ * saved, I index them by id so that {@link #findOne(Long)} does not depend on how many entities I
+ * hold.  How the entities are kept is up to the {@link EntityStore} I am given.
+ *
+ * <p>Listings are read through a snapshot of my store, so they are consistent when the store keeps
+ * versions, as a {@link VersionedEntityStore} does, even while other threads write.  Changes made
+ * to my entities in place should be made within {@link #write(Runnable)} and reported with
+ * {@link #update(Entity)}.
  *
  * @param <T> the type of {@link Entity} stored by this repository.
  */
 public class InMemoryEntityRepository<T extends Entity> {
 
-  protected List<T> entities;
-  protected long lastId;
+  protected final EntityStore<T> store;
 
   public InMemoryEntityRepository() {
-    entities = new ArrayList<>();
-    lastId = 0;
-  }
-
-  private Long nextId() {
-    return Long.valueOf(lastId++);
+    this(new IndexedEntityStore<>());
   }
 
-  private void ensureId(T entity) {
-    if (entity.getId() != null) {
-      return;
-    }
-    entity.setId(nextId());
+  /**
+   * Create a repository that keeps its {@link Entity}s in the specified store.
+   *
+   * @param store the store holding my {@link Entity}s
+   */
+  public InMemoryEntityRepository(EntityStore<T> store) {
+    this.store = store;
   }
 
   /**
@@ -37,9 +42,28 @@ public class InMemoryEntityRepository<T extends Entity> {
    * @return the id of the object to save
    */
   public Long save(T entity) {
-    ensureId(entity);
-    entities.add(entity);
-    return entity.getId();
+    return store.save(entity);
+  }
+
+  /**
+   * Reserve a block of consecutive ids for {@link Entity}s that will be saved with them, so that a
+   * batch gets contiguous ids however many other saves are made meanwhile.
+   *
+   * @param count the number of ids to reserve
+   * @return the first id of the block
+   */
+  public long reserveIds(int count) {
+    return store.reserveIds(count);
+  }
+
+  /**
+   * Prepare to save the specified number of additional {@link Entity}s, so that a bulk load does
+   * not repeatedly grow my storage.
+   *
+   * @param additional the number of {@link Entity}s about to be saved
+   */
+  public void ensureCapacity(int additional) {
+    store.ensureCapacity(additional);
   }
 
   /**
@@ -48,7 +72,126 @@ public class InMemoryEntityRepository<T extends Entity> {
    * @return all {@link Entity}s that have been saved in this repository
    */
   public List<T> findAll() {
-    return entities;
+    return store.findAll();
+  }
+
+  /**
+   * Return one page of the {@link Entity}s saved in this repository, in the order they were saved.
+   * Only the entities on the page are copied.
+   *
+   * @param cursor {@link Page#FIRST} or the next cursor of the previous page
+   * @param limit  the largest number of entities on the page
+   * @return the page starting at the cursor
+   */
+  public Page<T> findPage(long cursor, int limit) {
+    return findPage(cursor, limit, Function.identity());
+  }
+
+  /**
+   * Return one page of the {@link Entity}s saved in this repository, converted by the specified
+   * function.  Only the entities on the page are converted.
+   *
+   * @param cursor    {@link Page#FIRST} or the next cursor of the previous page
+   * @param limit     the largest number of entities on the page
+   * @param converter converts each entity on the page
+   * @param <R>       the type of the converted entities
+   * @return the page starting at the cursor
+   */
+  public <R> Page<R> findPage(long cursor, int limit, Function<? super T, R> converter) {
+    try (var snapshot = store.openSnapshot()) {
+      List<T> all = store.findAll(snapshot);
+      int from = (int) Math.min(Math.max(cursor, 0), all.size());
+      int to = (int) Math.min((long) from + Math.max(limit, 0), all.size());
+      var items = new ArrayList<R>(to - from);
+      for (var entity : all.subList(from, to)) {
+        items.add(converter.apply(entity));
+      }
+      return new Page<>(items, to < all.size() ? to : Page.END);
+    }
+  }
+
+  /**
+   * Return a lazy stream of the {@link Entity}s saved in this repository, in the order they were
+   * saved.  When my store keeps versions, the entities of one snapshot are collected first, so the
+   * snapshot need not stay open while the stream is read.
+   *
+   * @return the saved entities
+   */
+  public Stream<T> stream() {
+    try (var snapshot = store.openSnapshot()) {
+      if (snapshot == VersionClock.Snapshot.LATEST) {
+        return store.findAll().stream();
+      }
+      return new ArrayList<>(store.findAll(snapshot)).stream();
+    }
+  }
+
+  /**
+   * Open a snapshot to read this repository through, with {@link #findAll(VersionClock.Snapshot)}
+   * and {@link #findOne(Long, VersionClock.Snapshot)}, and close it when done.
+   *
+   * @return an open snapshot
+   */
+  public VersionClock.Snapshot openSnapshot() {
+    return store.openSnapshot();
+  }
+
+  /**
+   * Return the {@link Entity}s saved in this repository as of the specified snapshot.
+   *
+   * @param snapshot an open snapshot
+   * @return the {@link Entity}s the snapshot sees
+   */
+  public List<T> findAll(VersionClock.Snapshot snapshot) {
+    return store.findAll(snapshot);
+  }
+
+  /**
+   * Return the {@link Entity} with the specified id as of the specified snapshot, or null.
+   *
+   * @param id       the id of the {@link Entity} to find
+   * @param snapshot an open snapshot
+   * @return the {@link Entity} as the snapshot sees it, or null
+   */
+  public T findOne(Long id, VersionClock.Snapshot snapshot) {
+    if (id == null) {
+      return null;
+    }
+    return store.findOne(id, snapshot);
+  }
+
+  /**
+   * Make the specified change as one write of my store.
+   *
+   * @param change the change to make
+   * @param <R>    the type of result of the change
+   * @return the result of the change
+   */
+  public <R> R write(java.util.function.Supplier<R> change) {
+    return store.write(change);
+  }
+
+  /**
+   * Make the specified change as one write of my store.
+   *
+   * @param change the change to make
+   */
+  public void write(Runnable change) {
+    store.write(() -> {
+      change.run();
+      return null;
+    });
+  }
+
+  /**
+   * Report that the specified {@link Entity}, saved in this repository, was changed in place,
+   * counting up its version stamp.
+   *
+   * @param entity the changed {@link Entity}
+   */
+  public void update(T entity) {
+    entity.setVersion(entity.getVersion() + 1);
+    store.update(entity);
   }
 
   /**
@@ -59,12 +202,10 @@ public class InMemoryEntityRepository<T extends Entity> {
    * @return the part specification with that id or null if there is none
    */
   public T findOne(Long id) {
-    for (var ps : entities) {
-      if (ps.getId().equals(id)) {
-        return ps;
-      }
+    if (id == null) {
+      return null;
     }
-    return null;
+    return store.findOne(id);
   }
 
-}
\ No newline at end of file
+}
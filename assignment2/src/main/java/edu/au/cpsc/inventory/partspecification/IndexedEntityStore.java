@@ -0,0 +1,73 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * I keep {@link Entity}s in the order they were saved and index them by id.  I am the default
+ * store of an {@link InMemoryEntityRepository}.
+ *
+ * <p>I am not thread-safe; use a {@link ConcurrentEntityStore} when saving from many threads.
+ *
+ * @param <T> the type of {@link Entity} stored.
+ */
+public class IndexedEntityStore<T extends Entity> implements EntityStore<T> {
+
+  private final ArrayList<T> entities;
+  private final LongObjectHashMap<T> entitiesById;
+  private final IdAllocator idAllocator;
+
+  public IndexedEntityStore() {
+    this(new SequentialIdAllocator());
+  }
+
+  /**
+   * Create a store that assigns ids handed out by the specified allocator.
+   *
+   * @param idAllocator the allocator of my ids
+   */
+  public IndexedEntityStore(IdAllocator idAllocator) {
+    entities = new ArrayList<>();
+    entitiesById = new LongObjectHashMap<>();
+    this.idAllocator = idAllocator;
+  }
+
+  private void ensureId(T entity) {
+    if (entity.getId() != null) {
+      idAllocator.observe(entity.getId());
+      return;
+    }
+    entity.setId(idAllocator.next());
+  }
+
+  @Override
+  public Long save(T entity) {
+    ensureId(entity);
+    entities.add(entity);
+    entitiesById.putIfAbsent(entity.getId(), entity);
+    return entity.getId();
+  }
+
+  @Override
+  public long reserveIds(int count) {
+    return idAllocator.reserve(count);
+  }
+
+  @Override
+  public List<T> findAll() {
+    return Collections.unmodifiableList(entities);
+  }
+
+  @Override
+  public T findOne(long id) {
+    return entitiesById.get(id);
+  }
+
+  @Override
+  public void ensureCapacity(int additional) {
+    entities.ensureCapacity(entities.size() + additional);
+    entitiesById.ensureCapacity(entitiesById.size() + additional);
+  }
+
+}
@@ -0,0 +1,309 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * I write every supplier, part specification and requisition request held by the repositories to a
+ * channel in an {@link InventoryFileFormat}, using ids as keys.  Suppliers come first, then part
+ * specifications, then requests, each walked once in the order they were saved, all read through
+ * one snapshot of the part specification repository's store.  Repositories whose stores keep
+ * versions must share its {@link VersionClock}.
+ *
+ * <p>Rows are encoded one at a time into a fixed buffer that is written to the channel whenever it
+ * fills, and the repositories are read through the lists their stores hand out rather than copies,
+ * so my memory use does not depend on the size of the inventory.  Requests that were never added
+ * to a part specification hold no data and are left out.
+ *
+ * <p>A {@link BulkImporter} reads my files, but it rejects requests that the use case accepts
+ * and I write as they are: those with a quantity that is not positive, no supplier or no date.
+ */
+public class InventoryExporter {
+
+  private static final int BUFFER_BYTES = 64 << 10;
+
+  private final PartSpecificationRepository partSpecificationRepository;
+  private final SupplierRepository supplierRepository;
+  private final PartRequisitionRequestRepository partRequisitionRequestRepository;
+
+  /**
+   * Create an exporter of the specified repositories.
+   *
+   * @param partSpecificationRepository      the part specifications to export
+   * @param supplierRepository               the suppliers to export
+   * @param partRequisitionRequestRepository the requisition requests to export
+   */
+  public InventoryExporter(PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) {
+    this.partSpecificationRepository = partSpecificationRepository;
+    this.supplierRepository = supplierRepository;
+    this.partRequisitionRequestRepository = partRequisitionRequestRepository;
+  }
+
+  /**
+   * Export to the specified file, replacing it, in the format its extension names.
+   *
+   * @param path the file to write
+   * @return the number of rows written
+   * @throws IOException if the file cannot be written
+   */
+  public long exportFile(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      return export(channel, InventoryFileFormat.of(path));
+    }
+  }
+
+  /**
+   * Export to the specified channel in the specified format.  The channel is left open.
+   *
+   * @param channel receives the rows
+   * @param format  the format to write
+   * @return the number of rows written
+   * @throws IOException if the channel cannot be written
+   */
+  public long export(WritableByteChannel channel, InventoryFileFormat format) throws IOException {
+    var out = new RowWriter(channel, format);
+    if (format == InventoryFileFormat.CSV) {
+      out.header();
+    }
+    try (var snapshot = partSpecificationRepository.openSnapshot()) {
+      for (var supplier : supplierRepository.findAll(snapshot)) {
+        out.begin("supplier", supplier.getId());
+        out.end();
+      }
+      for (var ps : partSpecificationRepository.findAll(snapshot)) {
+        out.begin("part", ps.getId());
+        out.string("name", ps.getName());
+        out.string("description", ps.getDescription());
+        out.ids("suppliers", ps.getSuppliers());
+        out.end();
+      }
+      for (var request : partRequisitionRequestRepository.findAll(snapshot)) {
+        if (request.getPartSpecificationId() == null) {
+          continue;
+        }
+        List<Supplier> suppliers = request.getSuppliers();
+        Supplier supplier = suppliers.isEmpty() ? null : suppliers.get(suppliers.size() - 1);
+        out.begin("request", request.getId());
+        out.number("part", request.getPartSpecificationId());
+        out.number("quantity", request.getQuantity());
+        out.string("engineer", request.getEngineerName());
+        out.string("date", request.getRequestDate() == null ? null
+            : request.getRequestDate().toString());
+        out.number("supplier", supplier == null ? null : supplier.getId());
+        out.end();
+      }
+    }
+    out.flush();
+    return out.rows;
+  }
+
+  /**
+   * I build one row at a time in either format and encode it into a buffer drained to a channel.
+   * CSV fields must be given in {@link InventoryFileFormat#FIELDS} order; missing ones are left
+   * empty.
+   */
+  private static class RowWriter {
+
+    private final WritableByteChannel channel;
+    private final InventoryFileFormat format;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final StringBuilder row = new StringBuilder(256);
+    private int column;
+    private long rows;
+
+    RowWriter(WritableByteChannel channel, InventoryFileFormat format) {
+      this.channel = channel;
+      this.format = format;
+    }
+
+    void header() throws IOException {
+      row.setLength(0);
+      row.append(String.join(",", InventoryFileFormat.FIELDS)).append('\n');
+      write();
+    }
+
+    void begin(String type, Long key) {
+      row.setLength(0);
+      if (format == InventoryFileFormat.CSV) {
+        row.append(type);
+        column = 0;
+      } else {
+        row.append("{\"type\":\"").append(type).append('"');
+      }
+      number("key", key);
+    }
+
+    void string(String field, String value) {
+      if (format == InventoryFileFormat.CSV) {
+        skipTo(field);
+        if (value != null) {
+          appendCsv(value);
+        }
+      } else {
+        row.append(",\"").append(field).append("\":");
+        if (value == null) {
+          row.append("null");
+        } else {
+          appendJson(value);
+        }
+      }
+    }
+
+    void number(String field, Long value) {
+      if (format == InventoryFileFormat.CSV) {
+        skipTo(field);
+        if (value != null) {
+          row.append(value.longValue());
+        }
+      } else {
+        row.append(",\"").append(field).append("\":");
+        if (value == null) {
+          row.append("null");
+        } else {
+          row.append(value.longValue());
+        }
+      }
+    }
+
+    void ids(String field, List<? extends Entity> entities) {
+      if (format == InventoryFileFormat.CSV) {
+        skipTo(field);
+      } else {
+        row.append(",\"").append(field).append("\":[");
+      }
+      boolean first = true;
+      for (var entity : entities) {
+        if (entity == null || entity.getId() == null) {
+          continue;
+        }
+        if (!first) {
+          row.append(format == InventoryFileFormat.CSV ? ';' : ',');
+        }
+        row.append(entity.getId().longValue());
+        first = false;
+      }
+      if (format == InventoryFileFormat.NDJSON) {
+        row.append(']');
+      }
+    }
+
+    void end() throws IOException {
+      if (format == InventoryFileFormat.CSV) {
+        skipTo(null);
+      } else {
+        row.append('}');
+      }
+      row.append('\n');
+      rows++;
+      write();
+    }
+
+    /**
+     * Append the commas separating the previous CSV field from the specified one, or from the end
+     * of the row if the field is null.
+     */
+    private void skipTo(String field) {
+      int target = field == null ? InventoryFileFormat.FIELDS.size() - 1
+          : InventoryFileFormat.FIELDS.indexOf(field);
+      while (column < target) {
+        row.append(',');
+        column++;
+      }
+    }
+
+    private void appendCsv(String value) {
+      boolean quote = false;
+      for (int i = 0; i < value.length() && !quote; i++) {
+        char c = value.charAt(i);
+        quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+      }
+      if (!quote) {
+        row.append(value);
+        return;
+      }
+      row.append('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"') {
+          row.append('"');
+        }
+        row.append(c);
+      }
+      row.append('"');
+    }
+
+    private void appendJson(String value) {
+      row.append('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '"':
+            row.append("\\\"");
+            break;
+          case '\\':
+            row.append("\\\\");
+            break;
+          case '\n':
+            row.append("\\n");
+            break;
+          case '\r':
+            row.append("\\r");
+            break;
+          case '\t':
+            row.append("\\t");
+            break;
+          default:
+            if (c < 0x20) {
+              row.append(String.format("\\u%04x", (int) c));
+            } else {
+              row.append(c);
+            }
+        }
+      }
+      row.append('"');
+    }
+
+    private void write() throws IOException {
+      CharBuffer chars = CharBuffer.wrap(row);
+      while (true) {
+        CoderResult result = encoder.encode(chars, buffer, true);
+        if (result.isUnderflow()) {
+          break;
+        }
+        if (result.isOverflow()) {
+          drain();
+        } else {
+          result.throwException();
+        }
+      }
+      encoder.reset();
+    }
+
+    private void drain() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    void flush() throws IOException {
+      drain();
+    }
+  }
+}
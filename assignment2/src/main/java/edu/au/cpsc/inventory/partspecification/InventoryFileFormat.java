@@ -0,0 +1,48 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * I name the text formats an inventory can be imported from and exported to.  Both hold one row
+ * per supplier, part specification or requisition request, with the {@link #FIELDS} below:
+ *
+ * <ul>
+ *   <li>{@code type} is {@code supplier}, {@code part} or {@code request};</li>
+ *   <li>{@code key} identifies a supplier or part specification within the file;</li>
+ *   <li>a part has a {@code name}, a {@code description} and the keys of its {@code
+ *   suppliers};</li>
+ *   <li>a request names its {@code part} and {@code supplier} by key and has a {@code quantity},
+ *   an {@code engineer} and an ISO-8601 {@code date} such as {@code 2022-10-03T14:30}.</li>
+ * </ul>
+ *
+ * <p>A CSV file starts with a header naming its columns, quotes fields as RFC 4180 does and
+ * separates supplier keys with semicolons.  An NDJSON file holds one JSON object per line and
+ * lists supplier keys in an array.  Rows may only refer to rows before them.
+ */
+public enum InventoryFileFormat {
+  CSV,
+  NDJSON;
+
+  public static final List<String> FIELDS = List.of("type", "key", "name", "description",
+      "suppliers", "part", "quantity", "engineer", "date", "supplier");
+
+  /**
+   * Return the format of the specified file, judged by its extension.
+   *
+   * @param path a file named with a .csv, .ndjson or .jsonl extension
+   * @return the format of the file
+   * @throws IllegalArgumentException if the extension is not one of those
+   */
+  public static InventoryFileFormat of(Path path) {
+    String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+    if (name.endsWith(".csv")) {
+      return CSV;
+    }
+    if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+      return NDJSON;
+    }
+    throw new IllegalArgumentException("cannot tell the format of " + path + " from its name");
+  }
+}
@@ -0,0 +1,40 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.LocalDateTime;
+
+/**
+ * I am told about every change the create part specification use case makes to its repositories,
+ * so that the changes can be made durable.  Each method is called after the change has been made.
+ *
+ * <p>My methods do nothing by default; {@link #NONE} is the journal of a use case that is not
+ * persisted.
+ */
+public interface InventoryJournal {
+
+  InventoryJournal NONE = new InventoryJournal() {
+  };
+
+  default void partSpecificationCreated(PartSpecification partSpecification) {
+  }
+
+  default void partSpecificationEdited(Long partSpecificationId, String name,
+      String description) {
+  }
+
+  default void supplierCreated(Supplier supplier) {
+  }
+
+  default void supplierAdded(Long partSpecificationId, Long supplierId) {
+  }
+
+  default void suppliersRemoved(Long partSpecificationId) {
+  }
+
+  default void requisitionRequestCreated(PartRequisitionRequest request) {
+  }
+
+  default void requisitionRequestAdded(Long partSpecificationId, Long requisitionRequestId,
+      Long quantity, String engineerName, LocalDateTime date, Long supplierId) {
+  }
+
+}
@@ -0,0 +1,322 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * I write the whole entity graph held by the three repositories (suppliers, requisition requests
+ * and part specifications with their supplier links and requests) to a memory-mapped file, and
+ * load it back.  Loading a snapshot decodes the mapped file directly, without the per-record
+ * framing and checksums of a {@link WriteAheadLog}, so restoring a large inventory costs one pass
+ * over its bytes.  Both ways the file is mapped one window at a time, so a snapshot may be larger
+ * than one mapping can hold.
+ *
+ * <p>Entities are encoded by an {@link EntityCodec}.  Snapshots of version 1, written before the
+ * codec existed, can still be read.
+ *
+ * <p>A snapshot remembers the sequence number of the last journal record it includes, so records
+ * still in the journal after a crash between snapshot and truncation are not applied twice.
+ */
+public class InventorySnapshot {
+
+  private static final long MAGIC = 0x494E56534E415031L;
+  private static final int VERSION = 2;
+  private static final int WINDOW_BYTES = 64 << 20;
+
+  private InventorySnapshot() {
+  }
+
+  /**
+   * Write a snapshot of the specified repositories.  The snapshot is written next to the target
+   * and moved over it once complete, so a crash never leaves a partial snapshot behind.
+   *
+   * @param path                             the file to hold the snapshot
+   * @param sequenceNumber                   the last journal record reflected in the repositories
+   * @param partSpecificationRepository      the part specifications to write
+   * @param supplierRepository               the suppliers to write
+   * @param partRequisitionRequestRepository the requisition requests to write
+   * @throws IOException if the snapshot cannot be written
+   */
+  public static void write(Path path, long sequenceNumber,
+      PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) throws IOException {
+    write(path, sequenceNumber, partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository, WINDOW_BYTES);
+  }
+
+  /**
+   * Write a snapshot, mapping windows of the specified size.
+   */
+  static void write(Path path, long sequenceNumber,
+      PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository, int windowBytes)
+      throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (var out = new MappedOutput(temporary, windowBytes)) {
+      var codec = new EntityCodec();
+      var record = new BinaryWriter(4096);
+      record.writeLong(MAGIC).writeInt(VERSION).writeLong(sequenceNumber);
+      codec.writeHeader(record);
+      out.write(record);
+
+      List<Supplier> suppliers = distinct(supplierRepository.findAll());
+      out.write(record.reset().writeVarLong(suppliers.size()));
+      for (var supplier : suppliers) {
+        codec.writeSupplier(record.reset(), supplier);
+        out.write(record);
+      }
+
+      List<PartRequisitionRequest> requests = distinct(partRequisitionRequestRepository.findAll());
+      out.write(record.reset().writeVarLong(requests.size()));
+      for (var request : requests) {
+        codec.writePartRequisitionRequest(record.reset(), request);
+        out.write(record);
+      }
+
+      List<PartSpecification> partSpecifications = distinct(
+          partSpecificationRepository.findAll());
+      out.write(record.reset().writeVarLong(partSpecifications.size()));
+      for (var ps : partSpecifications) {
+        codec.writePartSpecification(record.reset(), ps);
+        out.write(record);
+      }
+      out.finish();
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Load the snapshot at the specified path into the specified repositories, which are expected to
+   * be empty.
+   *
+   * @param path                             the file holding the snapshot
+   * @param partSpecificationRepository      receives the part specifications
+   * @param supplierRepository               receives the suppliers
+   * @param partRequisitionRequestRepository receives the requisition requests
+   * @return the sequence number of the last journal record included in the snapshot
+   * @throws IOException if the snapshot cannot be read or is not a snapshot
+   */
+  public static long read(Path path, PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) throws IOException {
+    return read(path, partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository, WINDOW_BYTES);
+  }
+
+  /**
+   * Load a snapshot, mapping windows of the specified size.
+   */
+  static long read(Path path, PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository, int windowBytes)
+      throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var in = new MappedInput(channel, windowBytes);
+      int version;
+      if (in.readLong() != MAGIC || (version = in.readInt()) < 1 || version > VERSION) {
+        throw new IOException(path + " is not an inventory snapshot");
+      }
+      long sequenceNumber = in.readLong();
+      if (version == 1) {
+        readVersion1(in, partSpecificationRepository, supplierRepository,
+            partRequisitionRequestRepository);
+        return sequenceNumber;
+      }
+      var codec = new EntityCodec();
+      codec.readHeader(in);
+
+      long supplierCount = in.readVarLong();
+      for (long i = 0; i < supplierCount; i++) {
+        supplierRepository.save(codec.readSupplier(in));
+      }
+
+      long requestCount = in.readVarLong();
+      for (long i = 0; i < requestCount; i++) {
+        partRequisitionRequestRepository.save(
+            codec.readPartRequisitionRequest(in, supplierRepository::findOne));
+      }
+
+      long partSpecificationCount = in.readVarLong();
+      for (long i = 0; i < partSpecificationCount; i++) {
+        var ps = codec.readPartSpecification(in, supplierRepository::findOne,
+            partRequisitionRequestRepository::findOne);
+        partSpecificationRepository.save(ps);
+        for (var request : ps.getPartRequisitionRequests()) {
+          partRequisitionRequestRepository.attach(request, ps);
+        }
+      }
+      return sequenceNumber;
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("snapshot " + path + " is corrupt", e);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Read the body of a snapshot written before entities were encoded by an {@link EntityCodec}.
+   */
+  private static void readVersion1(BinaryReader in,
+      PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) {
+    long supplierCount = in.readVarLong();
+    for (long i = 0; i < supplierCount; i++) {
+      var supplier = new Supplier();
+      supplier.setId(in.readVarLong());
+      supplierRepository.save(supplier);
+    }
+
+    long requestCount = in.readVarLong();
+    for (long i = 0; i < requestCount; i++) {
+      var request = new PartRequisitionRequest();
+      request.setId(in.readVarLong());
+      request.setQuantity(in.readVarLong());
+      request.setEngineerName(in.readString());
+      request.setRequestDate(in.readDateTime());
+      long suppliers = in.readVarLong();
+      for (long j = 0; j < suppliers; j++) {
+        request.addSupplier(supplierRepository.findOne(in.readNullableVarLong()));
+      }
+      partRequisitionRequestRepository.save(request);
+    }
+
+    long partSpecificationCount = in.readVarLong();
+    for (long i = 0; i < partSpecificationCount; i++) {
+      var ps = new PartSpecification();
+      ps.setId(in.readVarLong());
+      ps.setName(in.readString());
+      ps.setDescription(in.readString());
+      long suppliers = in.readVarLong();
+      for (long j = 0; j < suppliers; j++) {
+        ps.addSupplier(supplierRepository.findOne(in.readNullableVarLong()));
+      }
+      long requests = in.readVarLong();
+      for (long j = 0; j < requests; j++) {
+        ps.addPartRequisitionRequest(
+            partRequisitionRequestRepository.findOne(in.readNullableVarLong()));
+      }
+      partSpecificationRepository.save(ps);
+      for (var request : ps.getPartRequisitionRequests()) {
+        partRequisitionRequestRepository.attach(request, ps);
+      }
+    }
+  }
+
+  /**
+   * Drop repeated saves of the same {@link Entity}, keeping the first.
+   */
+  private static <T extends Entity> List<T> distinct(List<T> entities) {
+    var seen = new LongObjectHashMap<T>(entities.size());
+    var result = new ArrayList<T>(entities.size());
+    for (var entity : entities) {
+      if (seen.putIfAbsent(entity.getId(), entity) == null) {
+        result.add(entity);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * I decode records from a file through a sliding window of mapped memory, as
+   * {@link MappedOutput} wrote them, mapping the next window, starting at the first byte not yet
+   * read, whenever a value runs past the end of the current one.  Snapshots larger than one mapping
+   * can hold are read this way.
+   */
+  private static class MappedInput extends BinaryReader {
+
+    private final FileChannel channel;
+    private final int windowBytes;
+    private long windowStart;
+
+    MappedInput(FileChannel channel, int windowBytes) throws IOException {
+      this(channel, windowBytes, channel.map(MapMode.READ_ONLY, 0,
+          Math.min(windowBytes, channel.size())));
+    }
+
+    private MappedInput(FileChannel channel, int windowBytes, MappedByteBuffer first) {
+      super(first);
+      this.channel = channel;
+      this.windowBytes = windowBytes;
+      windowStart = 0;
+    }
+
+    @Override
+    protected ByteBuffer refill(ByteBuffer exhausted, int needed) {
+      try {
+        long start = windowStart + exhausted.position();
+        long size = Math.min(windowBytes, channel.size() - start);
+        if (size <= exhausted.remaining()) {
+          return exhausted;
+        }
+        windowStart = start;
+        return channel.map(MapMode.READ_ONLY, start, size);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * I copy encoded records into a file through a sliding window of mapped memory, mapping the next
+   * window whenever the current one fills up.
+   */
+  private static class MappedOutput implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long written;
+
+    MappedOutput(Path path, int windowBytes) throws IOException {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      this.windowBytes = windowBytes;
+      windowStart = 0;
+      window = channel.map(MapMode.READ_WRITE, 0, windowBytes);
+    }
+
+    void write(BinaryWriter record) throws IOException {
+      byte[] bytes = record.array();
+      int offset = 0;
+      int remaining = record.length();
+      while (remaining > 0) {
+        if (!window.hasRemaining()) {
+          window.force();
+          windowStart += window.capacity();
+          window = channel.map(MapMode.READ_WRITE, windowStart, windowBytes);
+        }
+        int count = Math.min(remaining, window.remaining());
+        window.put(bytes, offset, count);
+        offset += count;
+        remaining -= count;
+      }
+      written += record.length();
+    }
+
+    void finish() throws IOException {
+      window.force();
+      channel.truncate(written);
+      channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
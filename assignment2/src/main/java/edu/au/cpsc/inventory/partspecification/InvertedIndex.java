@@ -0,0 +1,190 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * I am a full-text index over documents identified by long ids.  Text is split into lower-case
+ * runs of letters and digits, and each term maps to a {@link PostingList} of the documents
+ * containing it.  I am updated incrementally as documents are added, changed and removed.
+ *
+ * <p>Searches rank documents by TF-IDF: each query term contributes {@code (1 + ln tf) * ln(1 +
+ * N / df)}, where tf is how often the term occurs in the document, N is the number of documents
+ * and df the number of documents containing the term.  A document matching any query term is a
+ * candidate; documents matching more, rarer terms rank higher.
+ *
+ * <p>Searches can run concurrently with each other, but not with updates.
+ */
+public class InvertedIndex {
+
+  private final Map<String, PostingList> postings;
+  private final ReadWriteLock lock;
+  private long documentCount;
+
+  public InvertedIndex() {
+    postings = new HashMap<>();
+    lock = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Add a document, which must not be in the index yet.
+   *
+   * @param id   the id of the document
+   * @param text the text of the document, or null
+   */
+  public void add(long id, String text) {
+    if (text == null) {
+      return;
+    }
+    Map<String, Integer> frequencies = termFrequencies(text);
+    if (frequencies.isEmpty()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      for (var entry : frequencies.entrySet()) {
+        postings.computeIfAbsent(entry.getKey(), term -> new PostingList())
+            .put(id, entry.getValue());
+      }
+      documentCount++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a document, given the text it was added with.
+   *
+   * @param id   the id of the document
+   * @param text the text the document was added with, or null
+   */
+  public void remove(long id, String text) {
+    if (text == null) {
+      return;
+    }
+    Map<String, Integer> frequencies = termFrequencies(text);
+    if (frequencies.isEmpty()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      for (String term : frequencies.keySet()) {
+        PostingList list = postings.get(term);
+        if (list != null) {
+          list.remove(id);
+          if (list.size() == 0) {
+            postings.remove(term);
+          }
+        }
+      }
+      documentCount--;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Return the ids of the best matching documents, best first.
+   *
+   * @param query the words to search for
+   * @param limit the largest number of ids to return
+   * @return the ids of at most limit documents matching at least one query term
+   */
+  public long[] search(String query, int limit) {
+    if (query == null || limit <= 0) {
+      return SortedLongArrays.EMPTY;
+    }
+    Set<String> terms = new LinkedHashSet<>(tokenize(query));
+    LongObjectHashMap<double[]> scores = new LongObjectHashMap<>();
+    List<Long> candidates = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      for (String term : terms) {
+        PostingList list = postings.get(term);
+        if (list == null) {
+          continue;
+        }
+        double idf = Math.log(1.0 + (double) documentCount / list.size());
+        list.forEach((id, frequency) -> {
+          double[] score = scores.get(id);
+          if (score == null) {
+            score = new double[1];
+            scores.put(id, score);
+            candidates.add(id);
+          }
+          score[0] += (1.0 + Math.log(frequency)) * idf;
+        });
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    // Keep the best limit candidates in a min-heap so the weakest is evicted first.
+    Comparator<Long> byScore = Comparator.<Long>comparingDouble(id -> scores.get(id)[0])
+        .thenComparing(Comparator.reverseOrder());
+    PriorityQueue<Long> best = new PriorityQueue<>(byScore);
+    for (Long id : candidates) {
+      best.add(id);
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+    long[] result = new long[best.size()];
+    for (int i = result.length - 1; i >= 0; i--) {
+      result[i] = best.poll();
+    }
+    return result;
+  }
+
+  /**
+   * Return the number of distinct terms in the index.
+   *
+   * @return my vocabulary size
+   */
+  public int termCount() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Split text into lower-case terms made of letters and digits.
+   *
+   * @param text the text to split
+   * @return the terms in the order they occur, with repetitions
+   */
+  public static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordCharacter && start < 0) {
+        start = i;
+      } else if (!wordCharacter && start >= 0) {
+        terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return terms;
+  }
+
+  private static Map<String, Integer> termFrequencies(String text) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    for (String term : tokenize(text)) {
+      frequencies.merge(term, 1, Integer::sum);
+    }
+    return frequencies;
+  }
+}
@@ -0,0 +1,111 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * I hand out ids to many threads at once without making them contend on a shared counter.  Each
+ * thread leases a block of consecutive ids from my high-water mark and hands them out by itself,
+ * coming back only when the block is used up, so the shared counter is touched once per block
+ * rather than once per id.  {@link #reserve(int)} takes its block straight from the high-water
+ * mark, so a batch gets contiguous ids however many threads are allocating.
+ *
+ * <p>Ids handed out by {@link #next()} on one thread increase, but ids handed out on different
+ * threads interleave, and the ids left in the lease of a thread that stops allocating are never
+ * handed out.
+ *
+ * <p>I keep the live leases by their first id, so an id {@link #observe observed} inside one of
+ * them, which its thread has not handed out, revokes just that lease: its thread leases a fresh
+ * block above the observed id on its next call, and the rest of the old block is never handed
+ * out.  Ids observed inside a block handed out by {@link #reserve(int)} revoke nothing, so a batch
+ * saved with its reserved ids leaves every lease alone.  The lease a thread holds when it stops
+ * allocating stays live for as long as I do.
+ */
+public class LeasedIdAllocator implements IdAllocator {
+
+  public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+  private final int blockSize;
+  private final AtomicLong highWaterMark;
+  private final ThreadLocal<Lease> leases;
+  private final ConcurrentSkipListMap<Long, Lease> liveLeases;
+
+  public LeasedIdAllocator() {
+    this(DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Create an allocator that leases blocks of the specified number of ids.
+   *
+   * @param blockSize the number of ids leased to a thread at a time
+   */
+  public LeasedIdAllocator(int blockSize) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("block size must be positive: " + blockSize);
+    }
+    this.blockSize = blockSize;
+    highWaterMark = new AtomicLong();
+    leases = ThreadLocal.withInitial(() -> Lease.EMPTY);
+    liveLeases = new ConcurrentSkipListMap<>();
+  }
+
+  /**
+   * I am the block of ids leased to one thread.
+   */
+  private static final class Lease {
+
+    private static final Lease EMPTY = new Lease(0, 0);
+
+    private final long start;
+    private final long end;
+    private long next;
+    private volatile boolean revoked;
+
+    private Lease(long start, long end) {
+      this.start = start;
+      this.end = end;
+      next = start;
+    }
+  }
+
+  @Override
+  public long next() {
+    Lease lease = leases.get();
+    if (lease.next == lease.end || lease.revoked) {
+      liveLeases.remove(lease.start, lease);
+      long start = take(blockSize);
+      lease = new Lease(start, start + blockSize);
+      liveLeases.put(start, lease);
+      leases.set(lease);
+    }
+    return lease.next++;
+  }
+
+  @Override
+  public long reserve(int count) {
+    return take(count);
+  }
+
+  @Override
+  public void observe(long id) {
+    if (id < highWaterMark.getAndAccumulate(id + 1, Math::max)) {
+      var live = liveLeases.floorEntry(id);
+      if (live != null && id < live.getValue().end) {
+        live.getValue().revoked = true;
+      }
+    }
+  }
+
+  /**
+   * Return the id the next block will start at.
+   *
+   * @return my high-water mark
+   */
+  public long getHighWaterMark() {
+    return highWaterMark.get();
+  }
+
+  private long take(int count) {
+    return highWaterMark.getAndAdd(count);
+  }
+}
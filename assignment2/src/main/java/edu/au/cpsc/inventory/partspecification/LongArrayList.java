@@ -0,0 +1,66 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+
+/**
+ * I am a growable list of primitive longs, kept in the order they were added.
+ *
+ * <p>I am not thread-safe.
+ */
+public class LongArrayList {
+
+  private long[] values;
+  private int size;
+
+  public LongArrayList() {
+    this(4);
+  }
+
+  public LongArrayList(int initialCapacity) {
+    values = new long[Math.max(1, initialCapacity)];
+  }
+
+  /**
+   * Add a value to my end.
+   *
+   * @param value the value to add
+   */
+  public void add(long value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size << 1);
+    }
+    values[size++] = value;
+  }
+
+  /**
+   * Remove the first occurrence of the specified value.
+   *
+   * @param value the value to remove
+   * @return true if the value was present
+   */
+  public boolean removeValue(long value) {
+    for (int i = 0; i < size; i++) {
+      if (values[i] == value) {
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        size--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public long get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return values[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
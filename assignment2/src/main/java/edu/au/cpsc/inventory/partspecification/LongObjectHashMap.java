@@ -0,0 +1,230 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * I map primitive {@code long} keys to non-null values.  Keys are stored unboxed in an
+ * open-addressing table with linear probing, so a lookup costs a hash, an array read and (rarely)
+ * a short probe sequence instead of a walk over every stored value.
+ *
+ * <p>I am not thread-safe.
+ *
+ * @param <V> the type of value stored in this map.
+ */
+public class LongObjectHashMap<V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private long[] keys;
+  private Object[] values;
+  private int size;
+  private int mask;
+  private int resizeThreshold;
+
+  public LongObjectHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create a map that can hold the specified number of entries without resizing.
+   *
+   * @param expectedSize the number of entries expected to be stored
+   */
+  public LongObjectHashMap(int expectedSize) {
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  /**
+   * Return the value stored under the specified key or null if there is none.
+   *
+   * @param key the key to look up
+   * @return the value for that key or null
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  public boolean containsKey(long key) {
+    return indexOf(key) >= 0;
+  }
+
+  /**
+   * Store a value under the specified key, replacing any previous value.
+   *
+   * @param key   the key to store under
+   * @param value the non-null value to store
+   * @return the previous value for that key or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null values are not supported");
+    }
+    int slot = slotFor(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & mask;
+    }
+    insertAt(slot, key, value);
+    return null;
+  }
+
+  /**
+   * Store a value under the specified key only if the key has no value yet.
+   *
+   * @param key   the key to store under
+   * @param value the non-null value to store
+   * @return the value already stored under that key, or null if the specified value was stored
+   */
+  @SuppressWarnings("unchecked")
+  public V putIfAbsent(long key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null values are not supported");
+    }
+    int slot = slotFor(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    insertAt(slot, key, value);
+    return null;
+  }
+
+  /**
+   * Remove the value stored under the specified key.
+   *
+   * @param key the key to remove
+   * @return the removed value or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    int slot = indexOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    V previous = (V) values[slot];
+    // Backward-shift deletion keeps every probe sequence contiguous without tombstones.
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (values[next] != null) {
+      int home = slotFor(keys[next]);
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    values[hole] = null;
+    size--;
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Grow my table, if necessary, so that the specified number of entries fit without resizing.
+   *
+   * @param expectedSize the number of entries expected to be stored
+   */
+  public void ensureCapacity(int expectedSize) {
+    int tableSize = tableSizeFor(expectedSize);
+    if (tableSize > keys.length) {
+      rehash(tableSize);
+    }
+  }
+
+  /**
+   * Pass every value to the specified action, in no particular order.  The action must not change
+   * me.
+   *
+   * @param action receives each value
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<? super V> action) {
+    for (Object value : values) {
+      if (value != null) {
+        action.accept((V) value);
+      }
+    }
+  }
+
+  /**
+   * Remove all entries.
+   */
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  private void insertAt(int slot, long key, V value) {
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > resizeThreshold) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  private int indexOf(long key) {
+    int slot = slotFor(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int slotFor(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  private void rehash(int tableSize) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(tableSize);
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slotFor(oldKeys[i]);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int tableSize) {
+    keys = new long[tableSize];
+    values = new Object[tableSize];
+    mask = tableSize - 1;
+    resizeThreshold = (int) (tableSize * LOAD_FACTOR);
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    long needed = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1);
+    if (needed > (1 << 30)) {
+      return 1 << 30;
+    }
+    return Integer.highestOneBit((int) needed - 1) << 1;
+  }
+}
@@ -1,20 +1,34 @@
 package edu.au.cpsc.inventory.partspecification;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Start the console user interface.  This class currently serves as documentation about the
  * start-up of the system.  Especially in terms of injecting dependencies.
  */
 public class Main {
 
+  private static final String DEFAULT_JOURNAL = "inventory.journal";
+
   /**
-   * Start the console user interface.
+   * Start the console user interface.  Changes are journaled to the file named by the first
+   * command line argument, and the journal is replayed on start-up.
    *
    * @param args command line arguments
+   * @throws IOException if the journal cannot be read or written
    */
-  public static void main(String[] args) {
-    new CreatePartSpecificationConsoleUserInterface(
-        new CreatePartSpecification(new PartSpecificationRepository(),
-            new SupplierRepository(), new PartRequisitionRequestRepository())).run();
+  public static void main(String[] args) throws IOException {
+    var partSpecificationRepository = new PartSpecificationRepository();
+    var supplierRepository = new SupplierRepository();
+    var partRequisitionRequestRepository = new PartRequisitionRequestRepository();
+    Path journalPath = Path.of(args.length > 0 ? args[0] : DEFAULT_JOURNAL);
+    try (var journal = WriteAheadInventoryJournal.open(journalPath, partSpecificationRepository,
+        supplierRepository, partRequisitionRequestRepository)) {
+      new CreatePartSpecificationConsoleUserInterface(
+          new CreatePartSpecification(partSpecificationRepository, supplierRepository,
+              partRequisitionRequestRepository, journal)).run();
+    }
   }
 
 }
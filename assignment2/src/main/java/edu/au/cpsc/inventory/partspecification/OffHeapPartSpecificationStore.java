@@ -0,0 +1,463 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * I keep {@link PartSpecification}s outside the Java heap, as records in an arena of direct
+ * {@link ByteBuffer}s, so that a large catalog adds almost nothing for the garbage collector to
+ * trace or copy.  On the heap I keep only a {@link RowIndex} and the address of each row's record.
+ *
+ * <p>A record holds the id, the name and description as UTF-8 with their lengths, and the ids of
+ * the suppliers, sorted, and of the requisition requests, each in a slot with spare capacity.  A
+ * supplier or request id is added in place while its slot has room; otherwise, and whenever the
+ * name or description changes, the record is rewritten at the end of the arena and the old one is
+ * left as garbage until {@link #compact()}.  Records are never split across the arena's chunks.
+ *
+ * <p>A saved part specification is copied into a new record; the part specifications I hand out
+ * are flyweight views of their rows, created on demand, whose getters read and whose setters write
+ * the record.  Views of the same row are equal.  Only suppliers and requests with ids are kept,
+ * and they are returned as supplied by the resolvers I am given.
+ *
+ * <p>I am not thread-safe.
+ */
+public class OffHeapPartSpecificationStore implements EntityStore<PartSpecification> {
+
+  private static final int CHUNK_BYTES = 1 << 20;
+  private static final int ID = 0;
+  private static final int NAME_LENGTH = 8;
+  private static final int DESCRIPTION_LENGTH = 12;
+  private static final int SUPPLIER_COUNT = 16;
+  private static final int SUPPLIER_CAPACITY = 20;
+  private static final int REQUEST_COUNT = 24;
+  private static final int REQUEST_CAPACITY = 28;
+  private static final int HEADER_BYTES = 32;
+  private static final int NULL_LENGTH = -1;
+
+  private final LongFunction<Supplier> suppliers;
+  private final LongFunction<PartRequisitionRequest> requests;
+  private final RowIndex rows;
+  private long[] addresses;
+  private ArrayList<ByteBuffer> chunks;
+  private long garbageBytes;
+  private final IdAllocator idAllocator;
+
+  /**
+   * Create a store that returns suppliers and requisition requests as new entities holding only
+   * their ids.
+   */
+  public OffHeapPartSpecificationStore() {
+    this(id -> {
+      var supplier = new Supplier();
+      supplier.setId(id);
+      return supplier;
+    }, id -> {
+      var request = new PartRequisitionRequest();
+      request.setId(id);
+      return request;
+    });
+  }
+
+  /**
+   * Create a store that returns suppliers and requisition requests as found by the specified
+   * functions, such as {@link SupplierRepository#findOne(Long)} and
+   * {@link PartRequisitionRequestRepository#findOne(Long)}.
+   *
+   * @param suppliers returns the supplier with a given id
+   * @param requests  returns the requisition request with a given id
+   */
+  public OffHeapPartSpecificationStore(LongFunction<Supplier> suppliers,
+      LongFunction<PartRequisitionRequest> requests) {
+    this.suppliers = suppliers;
+    this.requests = requests;
+    rows = new RowIndex();
+    idAllocator = new SequentialIdAllocator();
+    addresses = new long[16];
+    chunks = new ArrayList<>();
+  }
+
+  @Override
+  public Long save(PartSpecification entity) {
+    if (entity.getId() == null) {
+      entity.setId(idAllocator.next());
+    }
+    long id = entity.getId();
+    idAllocator.observe(id);
+    long[] supplierIds = entity.getSupplierIds().clone();
+    long[] requestIds = entity.getPartRequisitionRequests().stream()
+        .filter(request -> request != null && request.getId() != null)
+        .mapToLong(PartRequisitionRequest::getId)
+        .toArray();
+    long address = write(id, encode(entity.getName()), encode(entity.getDescription()),
+        supplierIds, supplierIds.length, supplierIds.length, requestIds, requestIds.length,
+        requestIds.length);
+    if (rows.size() == addresses.length) {
+      addresses = Arrays.copyOf(addresses, rows.size() * 2);
+    }
+    addresses[rows.add(id)] = address;
+    return id;
+  }
+
+  @Override
+  public long reserveIds(int count) {
+    return idAllocator.reserve(count);
+  }
+
+  @Override
+  public List<PartSpecification> findAll() {
+    return new AbstractList<>() {
+      @Override
+      public PartSpecification get(int index) {
+        if (index < 0 || index >= rows.size()) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return new View(index);
+      }
+
+      @Override
+      public int size() {
+        return rows.size();
+      }
+    };
+  }
+
+  @Override
+  public PartSpecification findOne(long id) {
+    int row = rows.rowOf(id);
+    return row < 0 ? null : new View(row);
+  }
+
+  @Override
+  public void ensureCapacity(int additional) {
+    rows.ensureCapacity(rows.size() + additional);
+    if (rows.size() + additional > addresses.length) {
+      addresses = Arrays.copyOf(addresses, rows.size() + additional);
+    }
+  }
+
+  /**
+   * Return the number of bytes my arena takes outside the heap, including space not yet used and
+   * space held by records that have been rewritten.
+   *
+   * @return the size of my arena in bytes
+   */
+  public long arenaBytes() {
+    long bytes = 0;
+    for (ByteBuffer chunk : chunks) {
+      bytes += chunk.capacity();
+    }
+    return bytes;
+  }
+
+  /**
+   * Return the number of bytes in my arena held by records that have since been rewritten.
+   *
+   * @return the bytes {@link #compact()} would reclaim, besides unused space
+   */
+  public long garbageBytes() {
+    return garbageBytes;
+  }
+
+  /**
+   * Copy every record into a new arena, without the space held by records that have been
+   * rewritten, and release the old arena.  Views handed out before remain valid.
+   */
+  public void compact() {
+    ArrayList<ByteBuffer> old = chunks;
+    chunks = new ArrayList<>();
+    for (int row = 0; row < rows.size(); row++) {
+      ByteBuffer from = old.get(chunk(addresses[row]));
+      int position = position(addresses[row]);
+      int length = recordBytes(from, position);
+      long address = allocate(length);
+      chunks.get(chunk(address)).put(position(address), from, position, length);
+      addresses[row] = address;
+    }
+    garbageBytes = 0;
+  }
+
+  private long write(long id, byte[] name, byte[] description, long[] supplierIds,
+      int supplierCount, int supplierCapacity, long[] requestIds, int requestCount,
+      int requestCapacity) {
+    int nameBytes = name == null ? 0 : name.length;
+    int descriptionBytes = description == null ? 0 : description.length;
+    long address = allocate(HEADER_BYTES + nameBytes + descriptionBytes
+        + (supplierCapacity + requestCapacity) * Long.BYTES);
+    ByteBuffer buffer = chunks.get(chunk(address));
+    int position = position(address);
+    buffer.putLong(position + ID, id);
+    buffer.putInt(position + NAME_LENGTH, name == null ? NULL_LENGTH : nameBytes);
+    buffer.putInt(position + DESCRIPTION_LENGTH,
+        description == null ? NULL_LENGTH : descriptionBytes);
+    buffer.putInt(position + SUPPLIER_COUNT, supplierCount);
+    buffer.putInt(position + SUPPLIER_CAPACITY, supplierCapacity);
+    buffer.putInt(position + REQUEST_COUNT, requestCount);
+    buffer.putInt(position + REQUEST_CAPACITY, requestCapacity);
+    int offset = position + HEADER_BYTES;
+    if (name != null) {
+      buffer.put(offset, name);
+    }
+    offset += nameBytes;
+    if (description != null) {
+      buffer.put(offset, description);
+    }
+    offset += descriptionBytes;
+    for (int i = 0; i < supplierCount; i++) {
+      buffer.putLong(offset + i * Long.BYTES, supplierIds[i]);
+    }
+    offset += supplierCapacity * Long.BYTES;
+    for (int i = 0; i < requestCount; i++) {
+      buffer.putLong(offset + i * Long.BYTES, requestIds[i]);
+    }
+    return address;
+  }
+
+  private long allocate(int bytes) {
+    ByteBuffer last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+    if (last == null || last.capacity() - last.position() < bytes) {
+      last = ByteBuffer.allocateDirect(Math.max(CHUNK_BYTES, bytes))
+          .order(ByteOrder.nativeOrder());
+      chunks.add(last);
+    }
+    int position = last.position();
+    last.position(position + bytes);
+    return ((long) (chunks.size() - 1) << 32) | position;
+  }
+
+  private static int chunk(long address) {
+    return (int) (address >>> 32);
+  }
+
+  private static int position(long address) {
+    return (int) address;
+  }
+
+  private static int recordBytes(ByteBuffer buffer, int position) {
+    return HEADER_BYTES + Math.max(0, buffer.getInt(position + NAME_LENGTH))
+        + Math.max(0, buffer.getInt(position + DESCRIPTION_LENGTH))
+        + (buffer.getInt(position + SUPPLIER_CAPACITY)
+        + buffer.getInt(position + REQUEST_CAPACITY)) * Long.BYTES;
+  }
+
+  private static byte[] encode(String text) {
+    return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * I am a part specification backed by one record of my store's arena.  I find my record through
+   * my row each time, as it moves when it is rewritten.
+   */
+  private class View extends PartSpecification {
+
+    private final int row;
+
+    View(int row) {
+      this.row = row;
+    }
+
+    private ByteBuffer buffer() {
+      return chunks.get(chunk(addresses[row]));
+    }
+
+    private int position() {
+      return OffHeapPartSpecificationStore.position(addresses[row]);
+    }
+
+    private byte[] bytes(int lengthField, int offset) {
+      ByteBuffer buffer = buffer();
+      int position = position();
+      int length = buffer.getInt(position + lengthField);
+      if (length == NULL_LENGTH) {
+        return null;
+      }
+      byte[] bytes = new byte[length];
+      buffer.get(position + offset, bytes);
+      return bytes;
+    }
+
+    private byte[] nameBytes() {
+      return bytes(NAME_LENGTH, HEADER_BYTES);
+    }
+
+    private byte[] descriptionBytes() {
+      int nameLength = buffer().getInt(position() + NAME_LENGTH);
+      return bytes(DESCRIPTION_LENGTH, HEADER_BYTES + Math.max(0, nameLength));
+    }
+
+    private int suppliersOffset() {
+      ByteBuffer buffer = buffer();
+      int position = position();
+      return position + HEADER_BYTES + Math.max(0, buffer.getInt(position + NAME_LENGTH))
+          + Math.max(0, buffer.getInt(position + DESCRIPTION_LENGTH));
+    }
+
+    private int requestsOffset() {
+      return suppliersOffset() + buffer().getInt(position() + SUPPLIER_CAPACITY) * Long.BYTES;
+    }
+
+    private long[] ids(int offset, int countField) {
+      ByteBuffer buffer = buffer();
+      long[] ids = new long[buffer.getInt(position() + countField)];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = buffer.getLong(offset + i * Long.BYTES);
+      }
+      return ids;
+    }
+
+    private void rewrite(byte[] name, byte[] description, long[] supplierIds,
+        int supplierCapacity, long[] requestIds, int requestCapacity) {
+      garbageBytes += recordBytes(buffer(), position());
+      addresses[row] = write(rows.idAt(row), name, description, supplierIds, supplierIds.length,
+          supplierCapacity, requestIds, requestIds.length, requestCapacity);
+    }
+
+    private void rewrite(byte[] name, byte[] description) {
+      ByteBuffer buffer = buffer();
+      int position = position();
+      rewrite(name, description, getSupplierIds(), buffer.getInt(position + SUPPLIER_CAPACITY),
+          ids(requestsOffset(), REQUEST_COUNT), buffer.getInt(position + REQUEST_CAPACITY));
+    }
+
+    @Override
+    public Long getId() {
+      return rows.idAt(row);
+    }
+
+    @Override
+    public void setId(Long id) {
+      throw new UnsupportedOperationException(
+          "the id of a stored part specification cannot be changed");
+    }
+
+    @Override
+    public String getName() {
+      byte[] name = nameBytes();
+      return name == null ? null : new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void setName(String name) {
+      rewrite(encode(name), descriptionBytes());
+    }
+
+    @Override
+    public String getDescription() {
+      byte[] description = descriptionBytes();
+      return description == null ? null : new String(description, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void setDescription(String description) {
+      rewrite(nameBytes(), encode(description));
+    }
+
+    @Override
+    public boolean addSupplier(Supplier supplier) {
+      if (supplier == null || supplier.getId() == null) {
+        return false;
+      }
+      long supplierId = supplier.getId();
+      long[] supplierIds = getSupplierIds();
+      int index = Arrays.binarySearch(supplierIds, supplierId);
+      if (index >= 0) {
+        return false;
+      }
+      ByteBuffer buffer = buffer();
+      int position = position();
+      int capacity = buffer.getInt(position + SUPPLIER_CAPACITY);
+      if (supplierIds.length == capacity) {
+        rewrite(nameBytes(), descriptionBytes(), SortedLongArrays.add(supplierIds, supplierId),
+            Math.max(4, capacity * 2), ids(requestsOffset(), REQUEST_COUNT),
+            buffer.getInt(position + REQUEST_CAPACITY));
+        return true;
+      }
+      int offset = suppliersOffset();
+      for (int i = supplierIds.length; i > -index - 1; i--) {
+        buffer.putLong(offset + i * Long.BYTES, supplierIds[i - 1]);
+      }
+      buffer.putLong(offset + (-index - 1) * Long.BYTES, supplierId);
+      buffer.putInt(position + SUPPLIER_COUNT, supplierIds.length + 1);
+      return true;
+    }
+
+    @Override
+    public boolean hasSupplier(long supplierId) {
+      return SortedLongArrays.contains(getSupplierIds(), supplierId);
+    }
+
+    @Override
+    public long[] getSupplierIds() {
+      return ids(suppliersOffset(), SUPPLIER_COUNT);
+    }
+
+    @Override
+    public void removeSupplier() {
+      buffer().putInt(position() + SUPPLIER_COUNT, 0);
+    }
+
+    @Override
+    public List<Supplier> getSuppliers() {
+      return resolve(getSupplierIds(), suppliers);
+    }
+
+    @Override
+    public void addPartRequisitionRequest(PartRequisitionRequest partRequisitionRequest) {
+      if (partRequisitionRequest == null || partRequisitionRequest.getId() == null) {
+        return;
+      }
+      ByteBuffer buffer = buffer();
+      int position = position();
+      int count = buffer.getInt(position + REQUEST_COUNT);
+      int capacity = buffer.getInt(position + REQUEST_CAPACITY);
+      if (count == capacity) {
+        long[] requestIds = Arrays.copyOf(ids(requestsOffset(), REQUEST_COUNT), count + 1);
+        requestIds[count] = partRequisitionRequest.getId();
+        rewrite(nameBytes(), descriptionBytes(), getSupplierIds(),
+            buffer.getInt(position + SUPPLIER_CAPACITY), requestIds, Math.max(4, capacity * 2));
+        return;
+      }
+      buffer.putLong(requestsOffset() + count * Long.BYTES, partRequisitionRequest.getId());
+      buffer.putInt(position + REQUEST_COUNT, count + 1);
+    }
+
+    @Override
+    public List<PartRequisitionRequest> getPartRequisitionRequests() {
+      return resolve(ids(requestsOffset(), REQUEST_COUNT), requests);
+    }
+
+    private <T> List<T> resolve(long[] ids, LongFunction<T> resolver) {
+      return new AbstractList<>() {
+        @Override
+        public T get(int index) {
+          return resolver.apply(ids[index]);
+        }
+
+        @Override
+        public int size() {
+          return ids.length;
+        }
+      };
+    }
+
+    private OffHeapPartSpecificationStore store() {
+      return OffHeapPartSpecificationStore.this;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof View && ((View) other).store() == store()
+          && ((View) other).row == row;
+    }
+
+    @Override
+    public int hashCode() {
+      return row;
+    }
+  }
+}
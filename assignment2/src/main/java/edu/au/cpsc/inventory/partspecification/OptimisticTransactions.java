@@ -0,0 +1,189 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * I run changes that span several repositories as optimistic transactions.  A transaction first
+ * {@link Transaction#read reads} the entities it needs, without locking, noting the version stamp
+ * of each, and says what it will change with {@link Transaction#onCommit(Runnable)}.  It then
+ * commits: under my commit lock, and as one write of the repository I am given, I check that none
+ * of the entities read has been changed since, and only then make the changes.  If one has, nothing
+ * is changed and the transaction is run again from the start.
+ *
+ * <p>Only the reads and the work done before the commit are optimistic.  My commit lock is one
+ * lock for all transactions, whatever entities they touch, so commits are made one at a time; the
+ * version stamps catch changes made between a transaction's reads and its commit.  Keep the
+ * changes given to {@link Transaction#onCommit(Runnable)} short, and check everything that could
+ * make them fail before giving them, as a change that throws has already changed what it
+ * changed.
+ *
+ * <p>Changes made with {@link #write(Runnable)} take the same lock, so they commit one at a time
+ * with transactions.  Changes made to the repositories any other way are seen by a transaction
+ * only through the version stamps of the entities they changed.
+ *
+ * <p>Stores that hand out views of their rows, such as {@link ColumnarRequestStore}, give every
+ * view a fresh stamp, so transactions do not see changes to them.
+ */
+public class OptimisticTransactions {
+
+  private final InMemoryEntityRepository<?> repository;
+  private final int maxAttempts;
+  private final ReentrantLock commitLock;
+  private final LongAdder commits;
+  private final LongAdder conflicts;
+
+  /**
+   * Create transactions that commit as writes of the specified repository, giving up after the
+   * specified number of conflicting attempts.
+   *
+   * @param repository  the repository whose writes commits are made in, so that repositories
+   *                    sharing its {@link VersionClock} publish each commit together
+   * @param maxAttempts the largest number of times a transaction is run
+   */
+  public OptimisticTransactions(InMemoryEntityRepository<?> repository, int maxAttempts) {
+    this.repository = repository;
+    this.maxAttempts = maxAttempts;
+    commitLock = new ReentrantLock();
+    commits = new LongAdder();
+    conflicts = new LongAdder();
+  }
+
+  /**
+   * I am one attempt at a transaction.
+   */
+  public static final class Transaction {
+
+    private final List<Entity> read;
+    private final List<Long> readVersions;
+    private final List<Runnable> changes;
+
+    Transaction() {
+      read = new ArrayList<>();
+      readVersions = new ArrayList<>();
+      changes = new ArrayList<>();
+    }
+
+    /**
+     * Find the entity with the specified id, noting its version stamp so that the transaction
+     * conflicts if it changes before the commit.
+     *
+     * @param repository the repository to look in
+     * @param id         the id of the entity
+     * @param <T>        the type of entity
+     * @return the entity, or null if there is none
+     */
+    public <T extends Entity> T read(InMemoryEntityRepository<T> repository, Long id) {
+      T entity = repository.findOne(id);
+      if (entity != null) {
+        readVersions.add(entity.getVersion());
+        read.add(entity);
+      }
+      return entity;
+    }
+
+    /**
+     * Make the specified change when the transaction commits.  Changes are made in the order they
+     * were given.
+     *
+     * @param change the change to make
+     */
+    public void onCommit(Runnable change) {
+      changes.add(change);
+    }
+
+    private boolean isValid() {
+      for (int i = 0; i < read.size(); i++) {
+        if (read.get(i).getVersion() != readVersions.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Run the specified transaction until it commits without conflict.
+   *
+   * @param body reads the entities of the transaction and says what it changes
+   * @param <R>  the type of result of the transaction
+   * @return the result of the attempt that committed
+   * @throws ConcurrentModificationException if every attempt conflicted
+   */
+  public <R> R run(Function<Transaction, R> body) {
+    for (int attempt = 0; attempt < maxAttempts; attempt++) {
+      var transaction = new Transaction();
+      R result = body.apply(transaction);
+      boolean committed = commit(() -> {
+        if (!transaction.isValid()) {
+          return false;
+        }
+        for (Runnable change : transaction.changes) {
+          change.run();
+        }
+        return true;
+      });
+      if (committed) {
+        commits.increment();
+        return result;
+      }
+      conflicts.increment();
+    }
+    throw new ConcurrentModificationException(
+        "transaction conflicted " + maxAttempts + " times");
+  }
+
+  /**
+   * Make the specified change at once, one commit at a time with my transactions.
+   *
+   * @param change the change to make
+   * @param <R>    the type of result of the change
+   * @return the result of the change
+   */
+  public <R> R write(java.util.function.Supplier<R> change) {
+    return commit(change);
+  }
+
+  /**
+   * Make the specified change at once, one commit at a time with my transactions.
+   *
+   * @param change the change to make
+   */
+  public void write(Runnable change) {
+    commit(() -> {
+      change.run();
+      return null;
+    });
+  }
+
+  private <R> R commit(java.util.function.Supplier<R> change) {
+    commitLock.lock();
+    try {
+      return repository.write(change);
+    } finally {
+      commitLock.unlock();
+    }
+  }
+
+  /**
+   * Return the number of transactions committed.
+   *
+   * @return my commits
+   */
+  public long getCommits() {
+    return commits.sum();
+  }
+
+  /**
+   * Return the number of attempts that conflicted and were run again.
+   *
+   * @return my conflicts
+   */
+  public long getConflicts() {
+    return conflicts.sum();
+  }
+}
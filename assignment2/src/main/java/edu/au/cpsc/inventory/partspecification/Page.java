@@ -0,0 +1,40 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.List;
+
+/**
+ * I am one page of a listing.  Besides my items, I hold the cursor at which the next page starts,
+ * so a caller can walk a long listing a page at a time without it being materialized at once.
+ *
+ * @param <E> the type of item listed.
+ */
+public class Page<E> {
+
+  public static final long FIRST = 0;
+  public static final long END = -1;
+
+  private final List<E> items;
+  private final long nextCursor;
+
+  public Page(List<E> items, long nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<E> getItems() {
+    return items;
+  }
+
+  /**
+   * Return the cursor of the page after me, or {@link #END} if I am the last page.
+   *
+   * @return the cursor of the next page
+   */
+  public long getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != END;
+  }
+}
@@ -7,18 +7,46 @@ import java.util.List;
 /**
  * A Requisition Request is created for a part specification. The request will have a quantity, name
  * of the requesting engineer, the date and time the request was entered, and a selected supplier.
+ *
+ * <p>Once the request is attached in a {@link PartRequisitionRequestRepository}, its engineer name
+ * is kept as an int code in the {@link EngineerDictionary} of that repository and decoded when it
+ * is read, so requests by a few hundred engineers hold no strings of their own.  Until then the
+ * request holds the name it was given.
+ *
+ * <p>The list of suppliers is allocated when the first supplier is added, so a flyweight subclass,
+ * such as a view of a {@link ColumnarRequestStore} row, allocates nothing but itself.
  */
 public class PartRequisitionRequest extends Entity {
 
   private long quantity;
   private String engineerName;
+  private EngineerDictionary engineerNames;
+  private int engineerCode;
 
   private LocalDateTime requestDate;
 
   private List<Supplier> suppliers;
 
+  private Long partSpecificationId;
+
   public PartRequisitionRequest() {
-    suppliers = new ArrayList<>();
+  }
+
+  /**
+   * Create a copy of the specified request that does not change when it does.
+   *
+   * @param other the request to copy
+   */
+  public PartRequisitionRequest(PartRequisitionRequest other) {
+    setId(other.getId());
+    setVersion(other.getVersion());
+    quantity = other.quantity;
+    engineerName = other.engineerName;
+    engineerNames = other.engineerNames;
+    engineerCode = other.engineerCode;
+    requestDate = other.requestDate;
+    suppliers = other.suppliers == null ? null : new ArrayList<>(other.suppliers);
+    partSpecificationId = other.partSpecificationId;
   }
 
 
@@ -31,11 +59,38 @@ public class PartRequisitionRequest extends Entity {
   }
 
   public String getEngineerName() {
-    return this.engineerName;
+    return engineerNames == null ? engineerName : engineerNames.decode(engineerCode);
   }
 
   public void setEngineerName(String engineerName) {
-    this.engineerName = engineerName;
+    if (engineerNames == null) {
+      this.engineerName = engineerName;
+    } else {
+      engineerCode = engineerNames.encode(engineerName);
+    }
+  }
+
+  /**
+   * Return the code of the engineer name in the dictionary of the repository I am attached in.
+   *
+   * @return the engineer code, or {@link EngineerDictionary#NONE} if there is no name or I have
+   *         not been attached
+   */
+  public int getEngineerCode() {
+    return engineerNames == null ? EngineerDictionary.NONE : engineerCode;
+  }
+
+  /**
+   * Keep my engineer name as its code in the specified dictionary from now on.
+   *
+   * @param dictionary the engineer dictionary of the repository attaching me
+   */
+  void encodeEngineerName(EngineerDictionary dictionary) {
+    if (engineerNames != dictionary) {
+      engineerCode = dictionary.encode(getEngineerName());
+      engineerNames = dictionary;
+      engineerName = null;
+    }
   }
 
   public LocalDateTime getRequestDate() {
@@ -52,11 +107,28 @@ public class PartRequisitionRequest extends Entity {
    * @param supplier the supplier to add
    */
   public void addSupplier(Supplier supplier) {
+    if (suppliers == null) {
+      suppliers = new ArrayList<>();
+    }
     suppliers.add(supplier);
   }
 
   public List<Supplier> getSuppliers() {
-    return suppliers;
+    return suppliers == null ? List.of() : suppliers;
+  }
+
+  /**
+   * Return the id of the part specification this request was made for, or null if it has not been
+   * added to a part specification.
+   *
+   * @return the id of the requested part specification
+   */
+  public Long getPartSpecificationId() {
+    return partSpecificationId;
+  }
+
+  public void setPartSpecificationId(Long partSpecificationId) {
+    this.partSpecificationId = partSpecificationId;
   }
 
 
@@ -1,11 +1,271 @@
 package edu.au.cpsc.inventory.partspecification;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * A collection of requisition requests.  New requests can be added, and they will be assigned
  * unique ids.
+ *
+ * <p>Requests added to a part specification through {@link #attach} are indexed by the id of that
+ * part specification, so the requests for one part specification can be listed without looking at
+ * the requests for any other.  They are also indexed by request date in a {@link TimeBucketIndex},
+ * so the requests made in a period can be found without looking at the others.  Request dates are
+ * taken to be in UTC.
+ *
+ * <p>The quantities of attached requests are summed in {@link QuantityTotals} per part
+ * specification, supplier and engineer as they are attached, and taken back out when a request is
+ * re-attached, so totals are available without looking at any request.  They are ranked the same
+ * way over sliding windows by a {@link RequisitionLeaderboard}, and their distinct engineers and
+ * suppliers are estimated per month by {@link DistinctCounts}.
+ *
+ * <p>Attached requests keep their engineer names as int codes in my {@link EngineerDictionary},
+ * and decode them through it when they are read.
  */
 
 public class PartRequisitionRequestRepository extends
     InMemoryEntityRepository<PartRequisitionRequest> {
 
+  private final LongObjectHashMap<LongArrayList> requestIdsByPartSpecification;
+  private final TimeBucketIndex requestIdsByDate;
+  private final QuantityTotals quantityTotals;
+  private final RequisitionLeaderboard leaderboard;
+  private final DistinctCounts distinctCounts;
+  private final EngineerDictionary engineerNames;
+
+  public PartRequisitionRequestRepository() {
+    this(new IndexedEntityStore<>());
+  }
+
+  public PartRequisitionRequestRepository(EntityStore<PartRequisitionRequest> store) {
+    this(store, Clock.systemUTC());
+  }
+
+  /**
+   * Create a repository that keeps its requests in the specified store and ranks them over
+   * windows ending at the current time of the specified clock.
+   *
+   * @param store the store holding my requests
+   * @param clock tells the current time to my {@link RequisitionLeaderboard}
+   */
+  public PartRequisitionRequestRepository(EntityStore<PartRequisitionRequest> store,
+      Clock clock) {
+    this(store, new EngineerDictionary(), clock);
+  }
+
+  /**
+   * Create a repository that keeps its requests in the specified store, codes their engineer
+   * names in the specified dictionary, and ranks them over windows ending at the current time of
+   * the specified clock.  A store that keeps engineer codes itself, as a
+   * {@link ColumnarRequestStore} does, must be given the same dictionary.
+   *
+   * @param store         the store holding my requests
+   * @param engineerNames the dictionary coding the engineer names of my requests
+   * @param clock         tells the current time to my {@link RequisitionLeaderboard}
+   */
+  public PartRequisitionRequestRepository(EntityStore<PartRequisitionRequest> store,
+      EngineerDictionary engineerNames, Clock clock) {
+    super(store);
+    requestIdsByPartSpecification = new LongObjectHashMap<>();
+    requestIdsByDate = new TimeBucketIndex();
+    quantityTotals = new QuantityTotals();
+    leaderboard = new RequisitionLeaderboard(clock);
+    distinctCounts = new DistinctCounts();
+    this.engineerNames = engineerNames;
+  }
+
+  /**
+   * Fill in the specified request and record that it was made for the specified part
+   * specification.  A request attached before is re-indexed under its new part specification and
+   * date.
+   *
+   * @param request           the request
+   * @param partSpecification the part specification requested
+   * @param quantity          the quantity requested
+   * @param engineerName      the name of the requesting engineer
+   * @param date              the date and time of the request
+   * @param supplier          the supplier selected for the request
+   */
+  public void attach(PartRequisitionRequest request, PartSpecification partSpecification,
+      Long quantity, String engineerName, LocalDateTime date, Supplier supplier) {
+    write(() -> {
+      detach(request);
+      request.setQuantity(quantity);
+      request.setEngineerName(engineerName);
+      request.setRequestDate(date);
+      request.addSupplier(supplier);
+      attach(request, partSpecification);
+    });
+  }
+
+  /**
+   * Record that the specified request, which is already filled in, was made for the specified
+   * part specification.
+   *
+   * @param request           the request
+   * @param partSpecification the part specification requested
+   */
+  public void attach(PartRequisitionRequest request, PartSpecification partSpecification) {
+    write(() -> attachInWrite(request, partSpecification));
+  }
+
+  private void attachInWrite(PartRequisitionRequest request,
+      PartSpecification partSpecification) {
+    Long id = partSpecification.getId();
+    request.encodeEngineerName(engineerNames);
+    if (request.getPartSpecificationId() != null) {
+      if (request.getPartSpecificationId().equals(id)) {
+        return;
+      }
+      detach(request);
+    }
+    if (request.getRequestDate() != null) {
+      requestIdsByDate.add(epochMillis(request.getRequestDate()), request.getId());
+    }
+    synchronized (requestIdsByPartSpecification) {
+      var ids = requestIdsByPartSpecification.get(id);
+      if (ids == null) {
+        ids = new LongArrayList();
+        requestIdsByPartSpecification.put(id, ids);
+      }
+      ids.add(request.getId());
+    }
+    request.setPartSpecificationId(id);
+    update(request);
+    quantityTotals.add(request);
+    leaderboard.add(request);
+    distinctCounts.add(request);
+  }
+
+  private void detach(PartRequisitionRequest request) {
+    Long previous = request.getPartSpecificationId();
+    if (previous == null) {
+      return;
+    }
+    if (request.getRequestDate() != null) {
+      requestIdsByDate.remove(epochMillis(request.getRequestDate()), request.getId());
+    }
+    synchronized (requestIdsByPartSpecification) {
+      var ids = requestIdsByPartSpecification.get(previous);
+      if (ids != null) {
+        ids.removeValue(request.getId());
+      }
+    }
+    quantityTotals.remove(request);
+    leaderboard.remove(request);
+    request.setPartSpecificationId(null);
+  }
+
+  /**
+   * Return the requests made for the specified part specification, in the order they were added
+   * to it.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @return the requests for that part specification
+   */
+  public List<PartRequisitionRequest> findByPartSpecification(Long partSpecificationId) {
+    if (partSpecificationId == null) {
+      return List.of();
+    }
+    long[] ids;
+    synchronized (requestIdsByPartSpecification) {
+      var list = requestIdsByPartSpecification.get(partSpecificationId);
+      if (list == null) {
+        return List.of();
+      }
+      ids = list.toArray();
+    }
+    var result = new ArrayList<PartRequisitionRequest>(ids.length);
+    for (long id : ids) {
+      result.add(findOne(id));
+    }
+    return result;
+  }
+
+  /**
+   * Return the requests made in the specified period, ordered by request date.
+   *
+   * @param from the start of the period, inclusive
+   * @param to   the end of the period, exclusive
+   * @return the requests made in that period
+   */
+  public List<PartRequisitionRequest> findByRequestDateBetween(LocalDateTime from,
+      LocalDateTime to) {
+    long[] ids = requestIdsByDate.between(epochMillis(from), epochMillis(to));
+    var result = new ArrayList<PartRequisitionRequest>(ids.length);
+    for (long id : ids) {
+      result.add(findOne(id));
+    }
+    return result;
+  }
+
+  /**
+   * Stream the requests made in the specified period, ordered by request date, without copying
+   * the whole period first.
+   *
+   * @param from the start of the period, inclusive
+   * @param to   the end of the period, exclusive
+   * @return the requests made in that period
+   */
+  public Stream<PartRequisitionRequest> streamByRequestDateBetween(LocalDateTime from,
+      LocalDateTime to) {
+    return requestIdsByDate.stream(epochMillis(from), epochMillis(to)).mapToObj(this::findOne);
+  }
+
+  /**
+   * Return the number of requests made in the specified period.
+   *
+   * @param from the start of the period, inclusive
+   * @param to   the end of the period, exclusive
+   * @return the number of requests made in that period
+   */
+  public long countByRequestDateBetween(LocalDateTime from, LocalDateTime to) {
+    return requestIdsByDate.count(epochMillis(from), epochMillis(to));
+  }
+
+  /**
+   * Return the running totals of the quantities of attached requests.
+   *
+   * @return the totals per part specification, supplier and engineer
+   */
+  public QuantityTotals getQuantityTotals() {
+    return quantityTotals;
+  }
+
+  /**
+   * Return the rankings of part specifications and suppliers by the quantity of attached requests
+   * over sliding windows.
+   *
+   * @return my leaderboard
+   */
+  public RequisitionLeaderboard getLeaderboard() {
+    return leaderboard;
+  }
+
+  /**
+   * Return the estimates of the distinct engineers and suppliers of attached requests.
+   *
+   * @return my distinct counts per part specification and month
+   */
+  public DistinctCounts getDistinctCounts() {
+    return distinctCounts;
+  }
+
+  /**
+   * Return the dictionary coding the engineer names of my requests.
+   *
+   * @return my engineer dictionary
+   */
+  public EngineerDictionary getEngineerDictionary() {
+    return engineerNames;
+  }
+
+  private static long epochMillis(LocalDateTime date) {
+    return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
 }
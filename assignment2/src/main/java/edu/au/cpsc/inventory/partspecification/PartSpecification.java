@@ -1,7 +1,10 @@
 package edu.au.cpsc.inventory.partspecification;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * A part specification is a formal description of a component that can be purchased or
@@ -9,19 +12,48 @@ import java.util.List;
  * to supply them.
  *
  * <p>Part specifications that have been persisted are assigned an id.
+ *
+ * <p>Each supplier is recorded once, however often it is added.  Suppliers with ids are kept as a
+ * sorted array of their ids, with the suppliers themselves in a parallel array, so membership is a
+ * binary search; suppliers without ids are kept by identity after them.
  */
 public class PartSpecification extends Entity {
 
   private String name;
   private String description;
-  private List<Supplier> suppliers;
+  private long[] supplierIds;
+  private Supplier[] suppliersById;
+  private List<Supplier> unsavedSuppliers;
 
-  private List<PartRequisitionRequest> partRequisitionRequests;
+  private PartRequisitionRequest[] partRequisitionRequests;
+  private int partRequisitionRequestCount;
 
   public PartSpecification() {
 
-    suppliers = new ArrayList<>();
-    partRequisitionRequests = new ArrayList<>();
+    supplierIds = SortedLongArrays.EMPTY;
+    suppliersById = new Supplier[0];
+    unsavedSuppliers = List.of();
+    partRequisitionRequests = new PartRequisitionRequest[0];
+  }
+
+  /**
+   * Create a copy of the specified part specification that does not change when it does.  The
+   * copy shares the arrays the original only ever replaces or appends to, so it is cheap to make
+   * however many suppliers and requests there are.
+   *
+   * @param other the part specification to copy
+   */
+  public PartSpecification(PartSpecification other) {
+    setId(other.getId());
+    setVersion(other.getVersion());
+    name = other.name;
+    description = other.description;
+    supplierIds = other.supplierIds;
+    suppliersById = other.suppliersById;
+    unsavedSuppliers = other.unsavedSuppliers.isEmpty() ? List.of()
+        : new ArrayList<>(other.unsavedSuppliers);
+    partRequisitionRequests = other.partRequisitionRequests;
+    partRequisitionRequestCount = other.partRequisitionRequestCount;
   }
 
   public String getName() {
@@ -41,31 +73,125 @@ public class PartSpecification extends Entity {
   }
 
   /**
-   * Add a supplier to the list of suppliers that manufacture or supply this part.
+   * Add a supplier to the suppliers that manufacture or supply this part, unless it is already
+   * one of them.
    *
    * @param supplier the supplier to add
+   * @return true if the supplier was added, false if it was already present
    */
-  public void addSupplier(Supplier supplier) {
-    suppliers.add(supplier);
+  public boolean addSupplier(Supplier supplier) {
+    if (supplier == null || supplier.getId() == null) {
+      for (Supplier unsaved : unsavedSuppliers) {
+        if (unsaved == supplier) {
+          return false;
+        }
+      }
+      if (unsavedSuppliers.isEmpty()) {
+        unsavedSuppliers = new ArrayList<>(1);
+      }
+      unsavedSuppliers.add(supplier);
+      return true;
+    }
+    int index = Arrays.binarySearch(supplierIds, supplier.getId());
+    if (index >= 0) {
+      return false;
+    }
+    int insertion = -index - 1;
+    Supplier[] grown = new Supplier[suppliersById.length + 1];
+    System.arraycopy(suppliersById, 0, grown, 0, insertion);
+    grown[insertion] = supplier;
+    System.arraycopy(suppliersById, insertion, grown, insertion + 1,
+        suppliersById.length - insertion);
+    supplierIds = SortedLongArrays.add(supplierIds, supplier.getId());
+    suppliersById = grown;
+    return true;
+  }
+
+  /**
+   * Return whether the supplier with the specified id supplies this part.
+   *
+   * @param supplierId the id of the supplier
+   * @return true if the supplier has been added
+   */
+  public boolean hasSupplier(long supplierId) {
+    return SortedLongArrays.contains(supplierIds, supplierId);
+  }
+
+  /**
+   * Return the ids of the suppliers with ids, in ascending order.  The array is replaced rather
+   * than changed when suppliers are added, so it must not be modified.
+   *
+   * @return the sorted supplier ids
+   */
+  public long[] getSupplierIds() {
+    return supplierIds;
   }
 
   /**
    * Remove all suppliers in the list of suppliers that manufacture or supply this part.
    */
   public void removeSupplier() {
-    suppliers.clear();
+    supplierIds = SortedLongArrays.EMPTY;
+    suppliersById = new Supplier[0];
+    unsavedSuppliers = List.of();
   }
 
+  /**
+   * Add a requisition request for this part.  Requests are appended to an array that is replaced
+   * by a larger copy when full, so the requests already in it are never overwritten.
+   *
+   * @param partRequisitionRequest the request to add
+   */
   public void addPartRequisitionRequest(PartRequisitionRequest partRequisitionRequest) {
-    partRequisitionRequests.add(partRequisitionRequest);
+    if (partRequisitionRequestCount == partRequisitionRequests.length) {
+      partRequisitionRequests = Arrays.copyOf(partRequisitionRequests,
+          Math.max(4, partRequisitionRequestCount * 2));
+    }
+    partRequisitionRequests[partRequisitionRequestCount++] = partRequisitionRequest;
   }
 
+  /**
+   * Return the suppliers of this part: those with ids in ascending id order, then those without.
+   * The list is an unmodifiable view.
+   *
+   * @return my suppliers, each once
+   */
   public List<Supplier> getSuppliers() {
-    return suppliers;
+    return new AbstractList<>() {
+      @Override
+      public Supplier get(int index) {
+        Supplier[] saved = suppliersById;
+        return index < saved.length ? saved[index] : unsavedSuppliers.get(index - saved.length);
+      }
+
+      @Override
+      public int size() {
+        return suppliersById.length + unsavedSuppliers.size();
+      }
+    };
   }
 
+  /**
+   * Return the requisition requests for this part in the order they were added, as an
+   * unmodifiable list of those added so far.
+   *
+   * @return my requisition requests
+   */
   public List<PartRequisitionRequest> getPartRequisitionRequests() {
-    return partRequisitionRequests;
+    PartRequisitionRequest[] requests = partRequisitionRequests;
+    int count = partRequisitionRequestCount;
+    return new AbstractList<>() {
+      @Override
+      public PartRequisitionRequest get(int index) {
+        Objects.checkIndex(index, count);
+        return requests[index];
+      }
+
+      @Override
+      public int size() {
+        return count;
+      }
+    };
   }
 
 
@@ -1,10 +1,265 @@
 package edu.au.cpsc.inventory.partspecification;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
 /**
  * I provide access to a collection of part specifications.  New specifications can be added, and
  * they will be assigned unique ids.
+ *
+ * <p>I keep the ids of my part specifications in a sorted index by name, so part specifications
+ * can be found by exact name or by name prefix without looking at the others.  The index is kept
+ * up to date by {@link #save(PartSpecification)} and
+ * {@link #update(PartSpecification, String, String)}; a name changed by calling
+ * {@link PartSpecification#setName(String)} directly is not seen by the index.
+ *
+ * <p>Descriptions are kept in an {@link InvertedIndex} the same way, for ranked full-text search.
+ *
+ * <p>I also index part specifications by the ids of their suppliers, so the parts a supplier
+ * supplies can be listed without looking at any other part.  Suppliers a part specification has
+ * when it is saved are indexed, and so are those added or removed through
+ * {@link #addSupplier(PartSpecification, Supplier)} and
+ * {@link #removeSuppliers(PartSpecification)}; suppliers changed on the part specification
+ * directly are not seen by the index.
  */
 public class PartSpecificationRepository extends InMemoryEntityRepository<PartSpecification> {
 
+  private final ConcurrentSkipListMap<String, long[]> idsByName;
+  private final InvertedIndex descriptionIndex;
+  private final LongObjectHashMap<long[]> idsBySupplier;
+
+  public PartSpecificationRepository() {
+    idsByName = new ConcurrentSkipListMap<>();
+    descriptionIndex = new InvertedIndex();
+    idsBySupplier = new LongObjectHashMap<>();
+  }
+
+  public PartSpecificationRepository(EntityStore<PartSpecification> store) {
+    super(store);
+    idsByName = new ConcurrentSkipListMap<>();
+    descriptionIndex = new InvertedIndex();
+    idsBySupplier = new LongObjectHashMap<>();
+  }
+
+  @Override
+  public Long save(PartSpecification entity) {
+    return write(() -> {
+      boolean indexed = entity.getId() != null && findOne(entity.getId()) != null;
+      Long id = super.save(entity);
+      if (!indexed) {
+        indexName(entity.getName(), id);
+        descriptionIndex.add(id, entity.getDescription());
+        for (long supplierId : entity.getSupplierIds()) {
+          indexSupplier(supplierId, id);
+        }
+      }
+      return id;
+    });
+  }
+
+  /**
+   * Add a supplier to the specified part specification, keeping my supplier index up to date.
+   *
+   * @param partSpecification the part specification supplied
+   * @param supplier          the supplier to add
+   * @return true if the supplier was added, false if it was already present
+   */
+  public boolean addSupplier(PartSpecification partSpecification, Supplier supplier) {
+    return write(() -> {
+      if (!partSpecification.addSupplier(supplier)) {
+        return false;
+      }
+      update(partSpecification);
+      if (supplier != null && supplier.getId() != null) {
+        indexSupplier(supplier.getId(), partSpecification.getId());
+      }
+      return true;
+    });
+  }
+
+  /**
+   * Remove all suppliers from the specified part specification, keeping my supplier index up to
+   * date.
+   *
+   * @param partSpecification the part specification to change
+   */
+  public void removeSuppliers(PartSpecification partSpecification) {
+    write(() -> {
+      long[] supplierIds = partSpecification.getSupplierIds();
+      partSpecification.removeSupplier();
+      update(partSpecification);
+      for (long supplierId : supplierIds) {
+        unindexSupplier(supplierId, partSpecification.getId());
+      }
+    });
+  }
+
+  /**
+   * Add a requisition request to the specified part specification.
+   *
+   * @param partSpecification      the part specification requested
+   * @param partRequisitionRequest the request to add
+   */
+  public void addPartRequisitionRequest(PartSpecification partSpecification,
+      PartRequisitionRequest partRequisitionRequest) {
+    write(() -> {
+      partSpecification.addPartRequisitionRequest(partRequisitionRequest);
+      update(partSpecification);
+    });
+  }
+
+  /**
+   * Change the name and description of the specified part specification, keeping my indexes up to
+   * date.
+   *
+   * @param partSpecification the part specification to change
+   * @param name              the new name
+   * @param description       the new description
+   */
+  public void update(PartSpecification partSpecification, String name, String description) {
+    write(() -> {
+      String oldName = partSpecification.getName();
+      String oldDescription = partSpecification.getDescription();
+      partSpecification.setName(name);
+      partSpecification.setDescription(description);
+      update(partSpecification);
+      long id = partSpecification.getId();
+      if (!Objects.equals(oldName, name)) {
+        unindexName(oldName, id);
+        indexName(name, id);
+      }
+      if (!Objects.equals(oldDescription, description)) {
+        descriptionIndex.remove(id, oldDescription);
+        descriptionIndex.add(id, description);
+      }
+    });
+  }
+
+  /**
+   * Return the part specifications with exactly the specified name, ordered by id.
+   *
+   * @param name the name to look for
+   * @return the part specifications with that name
+   */
+  public List<PartSpecification> findByName(String name) {
+    if (name == null) {
+      return List.of();
+    }
+    var result = new ArrayList<PartSpecification>();
+    addAll(idsByName.getOrDefault(name, SortedLongArrays.EMPTY), result, Integer.MAX_VALUE);
+    return result;
+  }
+
+  /**
+   * Return the part specifications whose name starts with the specified prefix, ordered by name and
+   * then by id.
+   *
+   * @param prefix the prefix to look for
+   * @param limit  the largest number of part specifications to return
+   * @return at most limit part specifications whose name starts with the prefix
+   */
+  public List<PartSpecification> findByNamePrefix(String prefix, int limit) {
+    var result = new ArrayList<PartSpecification>();
+    if (prefix == null) {
+      return result;
+    }
+    for (Map.Entry<String, long[]> entry : idsByName.tailMap(prefix).entrySet()) {
+      if (result.size() >= limit || !entry.getKey().startsWith(prefix)) {
+        break;
+      }
+      addAll(entry.getValue(), result, limit);
+    }
+    return result;
+  }
+
+  /**
+   * Return the part specifications whose descriptions best match the specified words, best match
+   * first.
+   *
+   * @param query the words to search for
+   * @param limit the largest number of part specifications to return
+   * @return at most limit part specifications whose description contains a query word
+   */
+  public List<PartSpecification> searchDescriptions(String query, int limit) {
+    var result = new ArrayList<PartSpecification>();
+    for (long id : descriptionIndex.search(query, limit)) {
+      result.add(findOne(id));
+    }
+    return result;
+  }
+
+  /**
+   * Return the part specifications supplied by the supplier with the specified id, ordered by id.
+   *
+   * @param supplierId the id of the supplier
+   * @return the part specifications that supplier supplies
+   */
+  public List<PartSpecification> findBySupplier(Long supplierId) {
+    if (supplierId == null) {
+      return List.of();
+    }
+    long[] ids;
+    synchronized (idsBySupplier) {
+      ids = idsBySupplier.get(supplierId);
+    }
+    if (ids == null) {
+      return List.of();
+    }
+    var result = new ArrayList<PartSpecification>(ids.length);
+    addAll(ids, result, Integer.MAX_VALUE);
+    return result;
+  }
+
+  private void addAll(long[] ids, List<PartSpecification> result, int limit) {
+    for (long id : ids) {
+      if (result.size() >= limit) {
+        return;
+      }
+      result.add(findOne(id));
+    }
+  }
+
+  private void indexName(String name, long id) {
+    if (name == null) {
+      return;
+    }
+    idsByName.merge(name, new long[] {id}, (ids, added) -> SortedLongArrays.add(ids, id));
+  }
+
+  private void unindexName(String name, long id) {
+    if (name == null) {
+      return;
+    }
+    idsByName.computeIfPresent(name, (key, ids) -> {
+      long[] remaining = SortedLongArrays.remove(ids, id);
+      return remaining.length == 0 ? null : remaining;
+    });
+  }
+
+  private void indexSupplier(long supplierId, long id) {
+    synchronized (idsBySupplier) {
+      long[] ids = idsBySupplier.get(supplierId);
+      idsBySupplier.put(supplierId,
+          SortedLongArrays.add(ids == null ? SortedLongArrays.EMPTY : ids, id));
+    }
+  }
+
+  private void unindexSupplier(long supplierId, long id) {
+    synchronized (idsBySupplier) {
+      long[] ids = idsBySupplier.get(supplierId);
+      if (ids == null) {
+        return;
+      }
+      long[] remaining = SortedLongArrays.remove(ids, id);
+      if (remaining.length == 0) {
+        idsBySupplier.remove(supplierId);
+      } else {
+        idsBySupplier.put(supplierId, remaining);
+      }
+    }
+  }
 
 }
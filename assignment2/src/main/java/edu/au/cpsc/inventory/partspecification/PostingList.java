@@ -0,0 +1,163 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+
+/**
+ * I list the ids of the documents containing one term of an {@link InvertedIndex}, each with the
+ * number of times the term occurs in it.  Ids are kept in ascending order and stored as varint
+ * deltas followed by a varint count, so a posting usually takes two or three bytes.
+ *
+ * <p>Adding an id greater than every id I hold appends to my encoding; any other change re-encodes
+ * me.  Ids are mostly assigned in ascending order, so the common case is the cheap one.
+ *
+ * <p>I am not thread-safe.
+ */
+public class PostingList {
+
+  private byte[] bytes;
+  private int length;
+  private int size;
+  private long lastId;
+
+  public PostingList() {
+    bytes = new byte[8];
+    lastId = -1;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Record that the specified document contains my term the specified number of times, replacing
+   * any count recorded before.
+   *
+   * @param id        the id of the document
+   * @param frequency the number of times my term occurs in the document
+   */
+  public void put(long id, int frequency) {
+    if (id > lastId) {
+      append(id, frequency);
+      return;
+    }
+    long[] ids = new long[size + 1];
+    int[] frequencies = new int[size + 1];
+    int count = decode(ids, frequencies);
+    int index = Arrays.binarySearch(ids, 0, count, id);
+    if (index >= 0) {
+      frequencies[index] = frequency;
+    } else {
+      int insertion = -index - 1;
+      System.arraycopy(ids, insertion, ids, insertion + 1, count - insertion);
+      System.arraycopy(frequencies, insertion, frequencies, insertion + 1, count - insertion);
+      ids[insertion] = id;
+      frequencies[insertion] = frequency;
+      count++;
+    }
+    encode(ids, frequencies, count);
+  }
+
+  /**
+   * Remove the specified document.
+   *
+   * @param id the id of the document
+   */
+  public void remove(long id) {
+    if (id > lastId) {
+      return;
+    }
+    long[] ids = new long[size];
+    int[] frequencies = new int[size];
+    int count = decode(ids, frequencies);
+    int index = Arrays.binarySearch(ids, 0, count, id);
+    if (index < 0) {
+      return;
+    }
+    System.arraycopy(ids, index + 1, ids, index, count - index - 1);
+    System.arraycopy(frequencies, index + 1, frequencies, index, count - index - 1);
+    encode(ids, frequencies, count - 1);
+  }
+
+  /**
+   * Pass every posting, in ascending id order, to the specified visitor.
+   *
+   * @param visitor receives each id and its count
+   */
+  public void forEach(Visitor visitor) {
+    int position = 0;
+    long id = 0;
+    for (int i = 0; i < size; i++) {
+      long delta = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        delta |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      id += delta;
+      int frequency = 0;
+      shift = 0;
+      do {
+        b = bytes[position++];
+        frequency |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      visitor.visit(id, frequency);
+    }
+  }
+
+  /**
+   * Return the number of bytes my postings are encoded in.
+   *
+   * @return my encoded size
+   */
+  public int encodedLength() {
+    return length;
+  }
+
+  private int decode(long[] ids, int[] frequencies) {
+    int[] count = {0};
+    forEach((id, frequency) -> {
+      ids[count[0]] = id;
+      frequencies[count[0]++] = frequency;
+    });
+    return count[0];
+  }
+
+  private void encode(long[] ids, int[] frequencies, int count) {
+    length = 0;
+    size = 0;
+    lastId = -1;
+    for (int i = 0; i < count; i++) {
+      append(ids[i], frequencies[i]);
+    }
+  }
+
+  private void append(long id, int frequency) {
+    if (length + 15 > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + 15));
+    }
+    writeVarLong(lastId < 0 ? id : id - lastId);
+    writeVarLong(frequency);
+    lastId = id;
+    size++;
+  }
+
+  private void writeVarLong(long value) {
+    while ((value & ~0x7FL) != 0) {
+      bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[length++] = (byte) value;
+  }
+
+  /**
+   * I am given the postings of a {@link PostingList} one at a time.
+   */
+  @FunctionalInterface
+  public interface Visitor {
+
+    void visit(long id, int frequency);
+  }
+}
@@ -0,0 +1,108 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * I keep running totals of the quantity requested per part specification, per supplier and per
+ * engineer, so that a total is a single lookup instead of a pass over every request.
+ *
+ * <p>A request counts towards the part specification it was made for, towards its selected
+ * supplier (the last one added to it) and towards its engineer; a missing supplier or engineer is
+ * not counted.  Each total is a {@link LongAdder}, so threads recording requests for the same
+ * part, supplier or engineer add to separate cells instead of contending for one.  A total read
+ * while requests are being recorded may miss the ones in progress.
+ */
+public class QuantityTotals {
+
+  private final ConcurrentHashMap<Long, LongAdder> byPartSpecification;
+  private final ConcurrentHashMap<Long, LongAdder> bySupplier;
+  private final ConcurrentHashMap<String, LongAdder> byEngineer;
+
+  public QuantityTotals() {
+    byPartSpecification = new ConcurrentHashMap<>();
+    bySupplier = new ConcurrentHashMap<>();
+    byEngineer = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Count the quantity of a request that has been made for a part specification.
+   *
+   * @param request the request, whose part specification id is set
+   */
+  public void add(PartRequisitionRequest request) {
+    record(request, request.getQuantity());
+  }
+
+  /**
+   * Stop counting the quantity of a request, which must be unchanged since it was added.
+   *
+   * @param request the request, whose part specification id is still set
+   */
+  public void remove(PartRequisitionRequest request) {
+    record(request, -request.getQuantity());
+  }
+
+  private void record(PartRequisitionRequest request, long quantity) {
+    add(byPartSpecification, request.getPartSpecificationId(), quantity);
+    Supplier supplier = selectedSupplier(request);
+    if (supplier != null) {
+      add(bySupplier, supplier.getId(), quantity);
+    }
+    add(byEngineer, request.getEngineerName(), quantity);
+  }
+
+  private static <K> void add(ConcurrentHashMap<K, LongAdder> totals, K key, long quantity) {
+    if (key == null) {
+      return;
+    }
+    LongAdder total = totals.get(key);
+    if (total == null) {
+      total = totals.computeIfAbsent(key, k -> new LongAdder());
+    }
+    total.add(quantity);
+  }
+
+  private static Supplier selectedSupplier(PartRequisitionRequest request) {
+    var suppliers = request.getSuppliers();
+    return suppliers.isEmpty() ? null : suppliers.get(suppliers.size() - 1);
+  }
+
+  /**
+   * Return the total quantity requested for the specified part specification.
+   *
+   * @param partSpecificationId the id of the part specification
+   * @return the total quantity, zero if none was requested
+   */
+  public long forPartSpecification(Long partSpecificationId) {
+    return total(byPartSpecification, partSpecificationId);
+  }
+
+  /**
+   * Return the total quantity requested from the specified supplier.
+   *
+   * @param supplierId the id of the supplier
+   * @return the total quantity, zero if none was requested
+   */
+  public long forSupplier(Long supplierId) {
+    return total(bySupplier, supplierId);
+  }
+
+  /**
+   * Return the total quantity requested by the specified engineer.
+   *
+   * @param engineerName the name of the engineer
+   * @return the total quantity, zero if none was requested
+   */
+  public long forEngineer(String engineerName) {
+    return total(byEngineer, engineerName);
+  }
+
+  private static <K> long total(ConcurrentHashMap<K, LongAdder> totals, K key) {
+    if (key == null) {
+      return 0;
+    }
+    LongAdder total = totals.get(key);
+    return total == null ? 0 : total.sum();
+  }
+}
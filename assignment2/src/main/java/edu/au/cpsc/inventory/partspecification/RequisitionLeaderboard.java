@@ -0,0 +1,137 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * I rank part specifications and suppliers by the quantity requested from them over each of the
+ * sliding {@link Window}s, keeping one {@link TopKCounter} per window for each.
+ *
+ * <p>A request counts towards its part specification and its selected supplier (the last one added
+ * to it) at its request date, taken to be in UTC; requests without a date are not ranked.  Windows
+ * end at the current time of my {@link Clock} and are accurate to their resolution.
+ */
+public class RequisitionLeaderboard {
+
+  /**
+   * The periods I rank over, each ending now.
+   */
+  public enum Window {
+    LAST_HOUR(Duration.ofHours(1), Duration.ofMinutes(1)),
+    LAST_DAY(Duration.ofDays(1), Duration.ofMinutes(15)),
+    LAST_WEEK(Duration.ofDays(7), Duration.ofHours(1));
+
+    private final Duration length;
+    private final Duration resolution;
+
+    Window(Duration length, Duration resolution) {
+      this.length = length;
+      this.resolution = resolution;
+    }
+
+    public Duration getLength() {
+      return length;
+    }
+
+    public Duration getResolution() {
+      return resolution;
+    }
+
+    private TopKCounter newCounter() {
+      int buckets = (int) (length.toMillis() / resolution.toMillis()) + 1;
+      return new TopKCounter(resolution.toMillis(), buckets);
+    }
+  }
+
+  private final Clock clock;
+  private final Map<Window, TopKCounter> partSpecifications;
+  private final Map<Window, TopKCounter> suppliers;
+
+  public RequisitionLeaderboard() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Create a leaderboard whose windows end at the current time of the specified clock.
+   *
+   * @param clock tells the current time
+   */
+  public RequisitionLeaderboard(Clock clock) {
+    this.clock = clock;
+    partSpecifications = new EnumMap<>(Window.class);
+    suppliers = new EnumMap<>(Window.class);
+    for (Window window : Window.values()) {
+      partSpecifications.put(window, window.newCounter());
+      suppliers.put(window, window.newCounter());
+    }
+  }
+
+  /**
+   * Count the quantity of a request that has been made for a part specification.
+   *
+   * @param request the request, whose part specification id is set
+   */
+  public void add(PartRequisitionRequest request) {
+    record(request, request.getQuantity());
+  }
+
+  /**
+   * Stop counting the quantity of a request, which must be unchanged since it was added.
+   *
+   * @param request the request, whose part specification id is still set
+   */
+  public void remove(PartRequisitionRequest request) {
+    record(request, -request.getQuantity());
+  }
+
+  private void record(PartRequisitionRequest request, long quantity) {
+    LocalDateTime date = request.getRequestDate();
+    if (date == null) {
+      return;
+    }
+    long time = date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    long now = clock.millis();
+    Long partSpecificationId = request.getPartSpecificationId();
+    Supplier supplier = selectedSupplier(request);
+    for (Window window : Window.values()) {
+      if (partSpecificationId != null) {
+        partSpecifications.get(window).add(partSpecificationId, time, quantity, now);
+      }
+      if (supplier != null && supplier.getId() != null) {
+        suppliers.get(window).add(supplier.getId(), time, quantity, now);
+      }
+    }
+  }
+
+  private static Supplier selectedSupplier(PartRequisitionRequest request) {
+    var suppliers = request.getSuppliers();
+    return suppliers.isEmpty() ? null : suppliers.get(suppliers.size() - 1);
+  }
+
+  /**
+   * Return the part specifications with the largest quantity requested in the specified window.
+   *
+   * @param window the period to rank over
+   * @param k      the largest number of part specifications to return
+   * @return at most k part specification ids with their quantities, largest first
+   */
+  public List<TopKCounter.Entry> topPartSpecifications(Window window, int k) {
+    return partSpecifications.get(window).top(k, clock.millis());
+  }
+
+  /**
+   * Return the suppliers with the largest quantity requested in the specified window.
+   *
+   * @param window the period to rank over
+   * @param k      the largest number of suppliers to return
+   * @return at most k supplier ids with their quantities, largest first
+   */
+  public List<TopKCounter.Entry> topSuppliers(Window window, int k) {
+    return suppliers.get(window).top(k, clock.millis());
+  }
+}
@@ -0,0 +1,92 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+
+/**
+ * I map entity ids to the rows they were saved in, for stores that keep entities in rows numbered
+ * in save order rather than as objects.  An id saved more than once maps to its first row.
+ *
+ * <p>Ids are kept in an array by row.  While they are dense, as they are when a store assigns
+ * them, a row is found at its offset from the first id; while they are ascending, by binary
+ * search; once an id arrives out of order, through a hash index built from then on.
+ *
+ * <p>I am not thread-safe.
+ */
+class RowIndex {
+
+  private long[] ids;
+  private int size;
+  private LongObjectHashMap<Integer> rowsById;
+
+  RowIndex() {
+    ids = new long[16];
+  }
+
+  /**
+   * Append a row holding the specified id.
+   *
+   * @param id the id saved in the new row
+   * @return the new row
+   */
+  int add(long id) {
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, size * 2);
+    }
+    int row = size;
+    ids[row] = id;
+    if (rowsById == null && row > 0 && id < ids[row - 1]) {
+      rowsById = new LongObjectHashMap<>(size * 2);
+      for (int i = size - 1; i >= 0; i--) {
+        rowsById.put(ids[i], i);
+      }
+    }
+    if (rowsById != null) {
+      rowsById.putIfAbsent(id, row);
+    }
+    size++;
+    return row;
+  }
+
+  /**
+   * Return the first row holding the specified id.
+   *
+   * @param id the id to find
+   * @return the row, or -1 if no row holds the id
+   */
+  int rowOf(long id) {
+    if (rowsById != null) {
+      Integer row = rowsById.get(id);
+      return row == null ? -1 : row;
+    }
+    if (size == 0) {
+      return -1;
+    }
+    long guess = id - ids[0];
+    if (guess >= 0 && guess < size && ids[(int) guess] == id
+        && (guess == 0 || ids[(int) guess - 1] != id)) {
+      return (int) guess;
+    }
+    int row = Arrays.binarySearch(ids, 0, size, id);
+    if (row < 0) {
+      return -1;
+    }
+    while (row > 0 && ids[row - 1] == id) {
+      row--;
+    }
+    return row;
+  }
+
+  long idAt(int row) {
+    return ids[row];
+  }
+
+  int size() {
+    return size;
+  }
+
+  void ensureCapacity(int capacity) {
+    if (capacity > ids.length) {
+      ids = Arrays.copyOf(ids, capacity);
+    }
+  }
+}
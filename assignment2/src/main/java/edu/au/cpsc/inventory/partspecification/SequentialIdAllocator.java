@@ -0,0 +1,34 @@
+package edu.au.cpsc.inventory.partspecification;
+
+/**
+ * I hand out ids from a single counter, so each id is one greater than the last.  I am the
+ * allocator of stores used from one thread, such as an {@link IndexedEntityStore}.
+ *
+ * <p>I am not thread-safe; use a {@link LeasedIdAllocator} when ids are allocated from many
+ * threads.
+ */
+public class SequentialIdAllocator implements IdAllocator {
+
+  private long nextId;
+
+  public SequentialIdAllocator() {
+    nextId = 0;
+  }
+
+  @Override
+  public long next() {
+    return nextId++;
+  }
+
+  @Override
+  public long reserve(int count) {
+    long first = nextId;
+    nextId += count;
+    return first;
+  }
+
+  @Override
+  public void observe(long id) {
+    nextId = Math.max(nextId, id + 1);
+  }
+}
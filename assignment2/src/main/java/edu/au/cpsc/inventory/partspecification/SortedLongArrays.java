@@ -0,0 +1,68 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+
+/**
+ * I operate on sorted arrays of distinct longs used as compact, immutable sets of ids.  Arrays are
+ * never changed in place: adding or removing returns a new array, or the same array if nothing
+ * changed, so an array can be shared with readers while a writer replaces it.
+ */
+public final class SortedLongArrays {
+
+  public static final long[] EMPTY = new long[0];
+
+  private SortedLongArrays() {
+  }
+
+  /**
+   * Return whether the specified sorted array contains the specified value.
+   *
+   * @param sorted the sorted array to search
+   * @param value  the value to look for
+   * @return true if the value is present
+   */
+  public static boolean contains(long[] sorted, long value) {
+    return Arrays.binarySearch(sorted, value) >= 0;
+  }
+
+  /**
+   * Return a sorted array holding the values of the specified array and the specified value.
+   *
+   * @param sorted the sorted array to add to, which is not changed
+   * @param value  the value to add
+   * @return the same array if it already contains the value, otherwise a new sorted array
+   */
+  public static long[] add(long[] sorted, long value) {
+    int index = Arrays.binarySearch(sorted, value);
+    if (index >= 0) {
+      return sorted;
+    }
+    int insertion = -index - 1;
+    long[] grown = new long[sorted.length + 1];
+    System.arraycopy(sorted, 0, grown, 0, insertion);
+    grown[insertion] = value;
+    System.arraycopy(sorted, insertion, grown, insertion + 1, sorted.length - insertion);
+    return grown;
+  }
+
+  /**
+   * Return a sorted array holding the values of the specified array except the specified value.
+   *
+   * @param sorted the sorted array to remove from, which is not changed
+   * @param value  the value to remove
+   * @return the same array if it does not contain the value, otherwise a new sorted array
+   */
+  public static long[] remove(long[] sorted, long value) {
+    int index = Arrays.binarySearch(sorted, value);
+    if (index < 0) {
+      return sorted;
+    }
+    if (sorted.length == 1) {
+      return EMPTY;
+    }
+    long[] shrunk = new long[sorted.length - 1];
+    System.arraycopy(sorted, 0, shrunk, 0, index);
+    System.arraycopy(sorted, index + 1, shrunk, index, sorted.length - index - 1);
+    return shrunk;
+  }
+}
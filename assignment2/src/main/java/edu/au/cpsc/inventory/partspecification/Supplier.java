@@ -5,4 +5,16 @@ package edu.au.cpsc.inventory.partspecification;
  */
 public class Supplier extends Entity {
 
+  public Supplier() {
+  }
+
+  /**
+   * Create a copy of the specified supplier that does not change when it does.
+   *
+   * @param other the supplier to copy
+   */
+  public Supplier(Supplier other) {
+    setId(other.getId());
+    setVersion(other.getVersion());
+  }
 }
@@ -6,4 +6,11 @@ package edu.au.cpsc.inventory.partspecification;
  */
 public class SupplierRepository extends InMemoryEntityRepository<Supplier> {
 
+  public SupplierRepository() {
+  }
+
+  public SupplierRepository(EntityStore<Supplier> store) {
+    super(store);
+  }
+
 }
@@ -0,0 +1,243 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * I index ids by a timestamp in epoch milliseconds.  Timestamps are grouped into fixed-width
+ * buckets; each bucket keeps its timestamps and ids in parallel primitive arrays sorted by time,
+ * and the buckets are kept in a sorted map.  A range query visits only the buckets overlapping the
+ * range and binary-searches the two at its ends.
+ *
+ * <p>Entries usually arrive in time order, so adding one is normally an append to the newest
+ * bucket.
+ */
+public class TimeBucketIndex {
+
+  public static final long DEFAULT_BUCKET_MILLIS = 60 * 60 * 1000L;
+
+  private final long bucketMillis;
+  private final TreeMap<Long, Bucket> buckets;
+  private final ReadWriteLock lock;
+
+  public TimeBucketIndex() {
+    this(DEFAULT_BUCKET_MILLIS);
+  }
+
+  /**
+   * Create an index grouping timestamps into buckets of the specified width.
+   *
+   * @param bucketMillis the width of a bucket in milliseconds
+   */
+  public TimeBucketIndex(long bucketMillis) {
+    this.bucketMillis = bucketMillis;
+    buckets = new TreeMap<>();
+    lock = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Add an id at the specified time.
+   *
+   * @param epochMillis the time in epoch milliseconds
+   * @param id          the id to add
+   */
+  public void add(long epochMillis, long id) {
+    lock.writeLock().lock();
+    try {
+      buckets.computeIfAbsent(bucketOf(epochMillis), key -> new Bucket()).add(epochMillis, id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove an id added at the specified time.
+   *
+   * @param epochMillis the time the id was added at
+   * @param id          the id to remove
+   */
+  public void remove(long epochMillis, long id) {
+    lock.writeLock().lock();
+    try {
+      Long key = bucketOf(epochMillis);
+      Bucket bucket = buckets.get(key);
+      if (bucket != null && bucket.remove(epochMillis, id) && bucket.size == 0) {
+        buckets.remove(key);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Return the ids added at times in the specified range, ordered by time.
+   *
+   * @param fromMillis the start of the range, inclusive
+   * @param toMillis   the end of the range, exclusive
+   * @return the ids in the range
+   */
+  public long[] between(long fromMillis, long toMillis) {
+    return stream(fromMillis, toMillis).toArray();
+  }
+
+  /**
+   * Stream the ids added at times in the specified range, ordered by time.  The stream copies one
+   * bucket at a time, so it holds no lock between elements and its memory does not grow with the
+   * range.  Entries added or removed while the stream runs may or may not be seen.
+   *
+   * @param fromMillis the start of the range, inclusive
+   * @param toMillis   the end of the range, exclusive
+   * @return the ids in the range
+   */
+  public LongStream stream(long fromMillis, long toMillis) {
+    if (fromMillis >= toMillis) {
+      return LongStream.empty();
+    }
+    var iterator = new RangeIterator(fromMillis, toMillis);
+    return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Return the number of ids added at times in the specified range without copying them.
+   *
+   * @param fromMillis the start of the range, inclusive
+   * @param toMillis   the end of the range, exclusive
+   * @return the number of ids in the range
+   */
+  public long count(long fromMillis, long toMillis) {
+    if (fromMillis >= toMillis) {
+      return 0;
+    }
+    lock.readLock().lock();
+    try {
+      long count = 0;
+      var overlapping = buckets.subMap(bucketOf(fromMillis), true, bucketOf(toMillis - 1), true);
+      for (Bucket bucket : overlapping.values()) {
+        count += bucket.indexOf(toMillis) - bucket.indexOf(fromMillis);
+      }
+      return count;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private long bucketOf(long epochMillis) {
+    return Math.floorDiv(epochMillis, bucketMillis);
+  }
+
+  /**
+   * I walk the buckets overlapping a range, copying the part of each inside the range.
+   */
+  private class RangeIterator implements PrimitiveIterator.OfLong {
+
+    private final long fromMillis;
+    private final long toMillis;
+    private Long nextBucket;
+    private long[] current = SortedLongArrays.EMPTY;
+    private int position;
+
+    RangeIterator(long fromMillis, long toMillis) {
+      this.fromMillis = fromMillis;
+      this.toMillis = toMillis;
+      nextBucket = bucketOf(fromMillis);
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (position == current.length) {
+        if (nextBucket == null || nextBucket > bucketOf(toMillis - 1)) {
+          return false;
+        }
+        lock.readLock().lock();
+        try {
+          var entry = buckets.ceilingEntry(nextBucket);
+          if (entry == null || entry.getKey() > bucketOf(toMillis - 1)) {
+            nextBucket = null;
+            return false;
+          }
+          Bucket bucket = entry.getValue();
+          current = Arrays.copyOfRange(bucket.ids, bucket.indexOf(fromMillis),
+              bucket.indexOf(toMillis));
+          position = 0;
+          nextBucket = entry.getKey() + 1;
+        } finally {
+          lock.readLock().unlock();
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public long nextLong() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current[position++];
+    }
+  }
+
+  /**
+   * I hold the entries of one bucket sorted by time and then id.
+   */
+  private static class Bucket {
+
+    private long[] times = new long[8];
+    private long[] ids = new long[8];
+    private int size;
+
+    void add(long time, long id) {
+      if (size == times.length) {
+        times = Arrays.copyOf(times, size << 1);
+        ids = Arrays.copyOf(ids, size << 1);
+      }
+      int insertion = size;
+      while (insertion > 0 && (times[insertion - 1] > time
+          || times[insertion - 1] == time && ids[insertion - 1] > id)) {
+        insertion--;
+      }
+      System.arraycopy(times, insertion, times, insertion + 1, size - insertion);
+      System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+      times[insertion] = time;
+      ids[insertion] = id;
+      size++;
+    }
+
+    boolean remove(long time, long id) {
+      for (int i = indexOf(time); i < size && times[i] == time; i++) {
+        if (ids[i] == id) {
+          System.arraycopy(times, i + 1, times, i, size - i - 1);
+          System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+          size--;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Return the index of the first entry at or after the specified time.
+     */
+    int indexOf(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (times[middle] < time) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * I count amounts per long key over a sliding time window and rank the keys by their count, so
+ * that the k largest can be read without looking at the rest.
+ *
+ * <p>The window is divided into a ring of fixed-width buckets, each holding the counts of the
+ * amounts added at times within it.  The running total of every key in the window is kept in a
+ * sorted set ordered by total, largest first, so reading the top k visits k entries; adding an
+ * amount moves one entry.  As time passes, whole buckets fall out of the window and their counts
+ * are subtracted from the totals.  The window therefore covers between {@code bucketCount - 1} and
+ * {@code bucketCount} bucket widths before the current time.
+ *
+ * <p>Times are epoch milliseconds.  Amounts added for times before the window are ignored and
+ * amounts added for times after the current time are counted as current.  I am thread-safe.
+ */
+public class TopKCounter {
+
+  private static final Comparator<long[]> BY_TOTAL_DESCENDING =
+      Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]);
+
+  private final long bucketMillis;
+  private final long[] bucketNumbers;
+  private final LongObjectHashMap<long[]>[] buckets;
+  private final LongObjectHashMap<long[]> totals;
+  private final TreeSet<long[]> ranking;
+  private long currentBucket;
+
+  /**
+   * Create a counter over a window of the specified number of buckets of the specified width.
+   *
+   * @param bucketMillis the width of a bucket in milliseconds
+   * @param bucketCount  the number of buckets in the window
+   */
+  public TopKCounter(long bucketMillis, int bucketCount) {
+    this.bucketMillis = bucketMillis;
+    bucketNumbers = new long[bucketCount];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    LongObjectHashMap<long[]>[] created = new LongObjectHashMap[bucketCount];
+    buckets = created;
+    for (int i = 0; i < bucketCount; i++) {
+      bucketNumbers[i] = Long.MIN_VALUE;
+      buckets[i] = new LongObjectHashMap<>();
+    }
+    totals = new LongObjectHashMap<>();
+    ranking = new TreeSet<>(BY_TOTAL_DESCENDING);
+    currentBucket = Long.MIN_VALUE;
+  }
+
+  /**
+   * Add an amount to the count of a key at the specified time.  A negative amount takes back an
+   * amount added before.
+   *
+   * @param key         the key counted
+   * @param epochMillis the time of the amount
+   * @param amount      the amount to add
+   * @param nowMillis   the current time
+   */
+  public synchronized void add(long key, long epochMillis, long amount, long nowMillis) {
+    advance(nowMillis);
+    long bucket = Math.min(Math.floorDiv(epochMillis, bucketMillis), currentBucket);
+    if (bucket <= currentBucket - buckets.length || amount == 0) {
+      return;
+    }
+    int slot = (int) Math.floorMod(bucket, (long) buckets.length);
+    if (bucketNumbers[slot] != bucket) {
+      expire(slot);
+      bucketNumbers[slot] = bucket;
+    }
+    long[] count = buckets[slot].get(key);
+    if (count == null) {
+      count = new long[] {key, 0};
+      buckets[slot].put(key, count);
+    }
+    count[1] += amount;
+    if (count[1] == 0) {
+      buckets[slot].remove(key);
+    }
+    adjust(key, amount);
+  }
+
+  /**
+   * Return the keys with the largest totals in the window ending at the specified time, largest
+   * first, ties broken by key.
+   *
+   * @param k         the largest number of keys to return
+   * @param nowMillis the current time
+   * @return at most k entries holding a key and its total
+   */
+  public synchronized List<Entry> top(int k, long nowMillis) {
+    advance(nowMillis);
+    var result = new ArrayList<Entry>(Math.max(0, Math.min(k, ranking.size())));
+    for (long[] entry : ranking) {
+      if (result.size() >= k) {
+        break;
+      }
+      result.add(new Entry(entry[0], entry[1]));
+    }
+    return result;
+  }
+
+  /**
+   * Return the total of a key in the window ending at the specified time.
+   *
+   * @param key       the key
+   * @param nowMillis the current time
+   * @return the total of that key, zero if none
+   */
+  public synchronized long total(long key, long nowMillis) {
+    advance(nowMillis);
+    long[] entry = totals.get(key);
+    return entry == null ? 0 : entry[1];
+  }
+
+  /**
+   * Move the window forward to the specified time, expiring the buckets that fall out of it.
+   */
+  private void advance(long nowMillis) {
+    long now = Math.floorDiv(nowMillis, bucketMillis);
+    if (now <= currentBucket) {
+      return;
+    }
+    if (currentBucket == Long.MIN_VALUE || now - currentBucket >= buckets.length) {
+      for (int slot = 0; slot < buckets.length; slot++) {
+        expire(slot);
+      }
+    } else {
+      for (long bucket = currentBucket + 1; bucket <= now; bucket++) {
+        expire((int) Math.floorMod(bucket, (long) buckets.length));
+      }
+    }
+    currentBucket = now;
+  }
+
+  private void expire(int slot) {
+    buckets[slot].forEachValue(count -> adjust(count[0], -count[1]));
+    buckets[slot].clear();
+    bucketNumbers[slot] = Long.MIN_VALUE;
+  }
+
+  private void adjust(long key, long amount) {
+    long[] entry = totals.get(key);
+    if (entry == null) {
+      entry = new long[] {key, 0};
+      totals.put(key, entry);
+    } else {
+      ranking.remove(entry);
+    }
+    entry[1] += amount;
+    if (entry[1] == 0) {
+      totals.remove(key);
+    } else {
+      ranking.add(entry);
+    }
+  }
+
+  /**
+   * I am a key and its total in the window.
+   */
+  public static final class Entry {
+
+    private final long key;
+    private final long total;
+
+    Entry(long key, long total) {
+      this.key = key;
+      this.total = total;
+    }
+
+    public long getKey() {
+      return key;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Entry && ((Entry) other).key == key
+          && ((Entry) other).total == total;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(key) * 31 + Long.hashCode(total);
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + total;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * I number the versions of the {@link VersionedEntityStore}s that share me, so that a reader can
+ * see all of them as they were at one point in time.
+ *
+ * <p>Writers run one at a time in {@link #write(java.util.function.Supplier)}; everything a
+ * writer changes is published by the stores at the end of the outermost write, under the next
+ * version number, and only then does that version become the committed one.  Readers never lock:
+ * they {@link #openSnapshot()} the committed version and read the stores through it until they
+ * close it.  Versions older than every open snapshot are dropped as writers publish newer ones.
+ */
+public class VersionClock {
+
+  private final ReentrantLock writeLock;
+  private final ConcurrentSkipListMap<Long, Integer> openSnapshots;
+  private final List<Participant> participants;
+  private volatile long committed;
+
+  public VersionClock() {
+    writeLock = new ReentrantLock();
+    openSnapshots = new ConcurrentSkipListMap<>();
+    participants = new ArrayList<>();
+  }
+
+  /**
+   * I am told when a write ends to publish what changed in it.
+   */
+  interface Participant {
+
+    /**
+     * Publish what changed during the write that is ending.
+     *
+     * @param version the version being committed
+     * @param oldest  the oldest version an open snapshot may still read
+     */
+    void publish(long version, long oldest);
+  }
+
+  /**
+   * Return the latest committed version.
+   *
+   * @return the committed version
+   */
+  public long committed() {
+    return committed;
+  }
+
+  /**
+   * Run the specified change as one write, waiting for any other writer to finish first.  Writes
+   * nest: a write begun inside another becomes part of it.  What the change did is committed even
+   * if it throws.
+   *
+   * @param change the change to make
+   * @param <R>    the type of result of the change
+   * @return the result of the change
+   */
+  public <R> R write(java.util.function.Supplier<R> change) {
+    writeLock.lock();
+    try {
+      return change.get();
+    } finally {
+      try {
+        if (writeLock.getHoldCount() == 1 && !participants.isEmpty()) {
+          commit();
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Run the specified change as one write.
+   *
+   * @param change the change to make
+   * @see #write(java.util.function.Supplier)
+   */
+  public void write(Runnable change) {
+    write(() -> {
+      change.run();
+      return null;
+    });
+  }
+
+  /**
+   * Return the version being written, for the stores told about changes in it.  Must be called
+   * during a write.
+   */
+  long writing() {
+    return committed + 1;
+  }
+
+  /**
+   * Ask to be told to publish when the current write ends.  Must be called during a write.
+   */
+  void enlist(Participant participant) {
+    for (Participant enlisted : participants) {
+      if (enlisted == participant) {
+        return;
+      }
+    }
+    participants.add(participant);
+  }
+
+  private void commit() {
+    long version = committed + 1;
+    Long oldestOpen = openSnapshots.isEmpty() ? null : firstOpen();
+    long oldest = oldestOpen == null ? committed : Math.min(oldestOpen, committed);
+    for (Participant participant : participants) {
+      participant.publish(version, oldest);
+    }
+    participants.clear();
+    committed = version;
+  }
+
+  private Long firstOpen() {
+    var first = openSnapshots.firstEntry();
+    return first == null ? null : first.getKey();
+  }
+
+  /**
+   * Open a snapshot of the latest committed version.  The versions it needs are kept until it is
+   * closed, so it should be closed as soon as it has been read.
+   *
+   * @return an open snapshot
+   */
+  public Snapshot openSnapshot() {
+    long version = committed;
+    while (true) {
+      openSnapshots.merge(version, 1, Integer::sum);
+      long latest = committed;
+      // A writer that did not see my registration may have dropped what I need, unless nothing
+      // was committed in the meantime.
+      if (latest == version) {
+        return new Snapshot(this, version);
+      }
+      release(version);
+      version = latest;
+    }
+  }
+
+  private void release(long version) {
+    openSnapshots.computeIfPresent(version, (key, count) -> count == 1 ? null : count - 1);
+  }
+
+  /**
+   * I am a point in time at which the stores sharing a {@link VersionClock} can be read.  I am
+   * closed once, when my reader is done.
+   */
+  public static final class Snapshot implements AutoCloseable {
+
+    /**
+     * The snapshot read by stores that do not keep versions: whatever they hold now.
+     */
+    public static final Snapshot LATEST = new Snapshot(null, Long.MAX_VALUE);
+
+    private final VersionClock clock;
+    private final long version;
+    private boolean closed;
+
+    Snapshot(VersionClock clock, long version) {
+      this.clock = clock;
+      this.version = version;
+    }
+
+    /**
+     * Return the version I see.
+     *
+     * @return my version
+     */
+    public long version() {
+      return version;
+    }
+
+    /**
+     * Return whether stores sharing the specified clock can be read through me.
+     */
+    boolean isOf(VersionClock reader) {
+      return clock == null || clock == reader;
+    }
+
+    @Override
+    public void close() {
+      if (clock != null && !closed) {
+        closed = true;
+        clock.release(version);
+      }
+    }
+  }
+}
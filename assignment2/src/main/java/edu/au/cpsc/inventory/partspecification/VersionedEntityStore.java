@@ -0,0 +1,227 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * I keep the {@link Entity}s of a repository read by many threads while it is written, so that a
+ * reader sees every entity as it was at one point in time without locking and without making
+ * writers wait.
+ *
+ * <p>Writers work on the live entities, which {@link #findOne(long)} and {@link #findAll()}
+ * return as a {@link ConcurrentEntityStore} would, within writes of the {@link VersionClock} I
+ * share with the other stores of the inventory.  When the outermost write ends I publish a frozen
+ * copy of each entity saved or {@link #update(Entity) updated} in it, made by the copier I am
+ * given, on a chain of the entity's versions.  Readers open a snapshot of the clock and read
+ * through {@link #findOne(long, VersionClock.Snapshot)} and
+ * {@link #findAll(VersionClock.Snapshot)}, which return the newest copy no newer than the
+ * snapshot.  Copies must not be changed.
+ *
+ * <p>Versions no open snapshot can see are unlinked from their chains as newer ones are published,
+ * so an entity keeps one copy unless readers are looking at older ones.
+ *
+ * @param <T> the type of {@link Entity} stored.
+ */
+public class VersionedEntityStore<T extends Entity> implements EntityStore<T>,
+    VersionClock.Participant {
+
+  private final VersionClock clock;
+  private final UnaryOperator<T> copier;
+  private final ConcurrentEntityStore<T> live;
+  private final ConcurrentHashMap<Long, Slot<T>> slotsById;
+  private final AppendOnlyList<Entry<T>> entries;
+  private final Set<T> changed;
+
+  /**
+   * Create a store that publishes its versions on the specified clock.
+   *
+   * @param clock  the clock shared by the stores read together
+   * @param copier makes a frozen copy of an entity, such as a copy constructor
+   */
+  public VersionedEntityStore(VersionClock clock, UnaryOperator<T> copier) {
+    this(clock, copier, new LeasedIdAllocator());
+  }
+
+  /**
+   * Create a store that publishes its versions on the specified clock and assigns ids handed out
+   * by the specified allocator.
+   *
+   * @param clock       the clock shared by the stores read together
+   * @param copier      makes a frozen copy of an entity, such as a copy constructor
+   * @param idAllocator the allocator of my ids, which must be thread-safe
+   */
+  public VersionedEntityStore(VersionClock clock, UnaryOperator<T> copier,
+      IdAllocator idAllocator) {
+    this.clock = clock;
+    this.copier = copier;
+    live = new ConcurrentEntityStore<>(idAllocator);
+    slotsById = new ConcurrentHashMap<>();
+    entries = new AppendOnlyList<>();
+    changed = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * I hold the chain of published versions of one entity, newest first.
+   */
+  private static final class Slot<T> {
+
+    private volatile Version<T> newest;
+  }
+
+  private static final class Version<T> {
+
+    private final T value;
+    private final long version;
+    private volatile Version<T> older;
+
+    Version(T value, long version, Version<T> older) {
+      this.value = value;
+      this.version = version;
+      this.older = older;
+    }
+  }
+
+  /**
+   * I am one save, in the order saves were made, with the version it became visible in.
+   */
+  private static final class Entry<T> {
+
+    private final Slot<T> slot;
+    private final long version;
+
+    Entry(Slot<T> slot, long version) {
+      this.slot = slot;
+      this.version = version;
+    }
+  }
+
+  @Override
+  public Long save(T entity) {
+    return clock.write(() -> {
+      Long id = live.save(entity);
+      Slot<T> slot = slotsById.computeIfAbsent(id, key -> new Slot<>());
+      entries.add(new Entry<>(slot, clock.writing()));
+      changed(entity);
+      return id;
+    });
+  }
+
+  @Override
+  public void update(T entity) {
+    clock.write(() -> changed(entity));
+  }
+
+  private void changed(T entity) {
+    changed.add(entity);
+    clock.enlist(this);
+  }
+
+  @Override
+  public void publish(long version, long oldest) {
+    for (T entity : changed) {
+      Slot<T> slot = slotsById.get(entity.getId());
+      if (slot == null) {
+        continue;
+      }
+      slot.newest = new Version<>(copier.apply(entity), version, slot.newest);
+      // Keep the newest version the oldest open snapshot can see, and nothing older.
+      for (Version<T> kept = slot.newest; kept != null; kept = kept.older) {
+        if (kept.version <= oldest) {
+          kept.older = null;
+          break;
+        }
+      }
+    }
+    changed.clear();
+  }
+
+  @Override
+  public <R> R write(java.util.function.Supplier<R> change) {
+    return clock.write(change);
+  }
+
+  @Override
+  public VersionClock.Snapshot openSnapshot() {
+    return clock.openSnapshot();
+  }
+
+  @Override
+  public long reserveIds(int count) {
+    return live.reserveIds(count);
+  }
+
+  @Override
+  public List<T> findAll() {
+    return live.findAll();
+  }
+
+  @Override
+  public T findOne(long id) {
+    return live.findOne(id);
+  }
+
+  @Override
+  public List<T> findAll(VersionClock.Snapshot snapshot) {
+    checkClock(snapshot);
+    List<Entry<T>> all = entries.snapshot();
+    long version = snapshot.version();
+    // Saves are made one write at a time, so their versions ascend.
+    int low = 0;
+    int high = all.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (all.get(middle).version <= version) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    int size = low;
+    return new AbstractList<>() {
+      @Override
+      public T get(int index) {
+        if (index < 0 || index >= size) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return valueAt(all.get(index).slot, version);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public T findOne(long id, VersionClock.Snapshot snapshot) {
+    checkClock(snapshot);
+    Slot<T> slot = slotsById.get(id);
+    return slot == null ? null : valueAt(slot, snapshot.version());
+  }
+
+  private void checkClock(VersionClock.Snapshot snapshot) {
+    if (!snapshot.isOf(clock)) {
+      throw new IllegalArgumentException("snapshot of another clock");
+    }
+  }
+
+  private static <T> T valueAt(Slot<T> slot, long version) {
+    for (Version<T> candidate = slot.newest; candidate != null; candidate = candidate.older) {
+      if (candidate.version <= version) {
+        return candidate.value;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void ensureCapacity(int additional) {
+    live.ensureCapacity(additional);
+  }
+}
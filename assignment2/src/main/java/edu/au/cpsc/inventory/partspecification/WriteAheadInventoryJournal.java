@@ -0,0 +1,296 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * I make the changes of the create part specification use case durable by appending a compact
+ * binary record for each of them to a {@link WriteAheadLog}.  When I am opened, the latest
+ * {@link InventorySnapshot} is loaded and the records appended after it are replayed into the
+ * repositories, rebuilding the state they had when the log was last written.
+ *
+ * <p>Every so many records I take a checkpoint: the repositories are written to a new snapshot and
+ * the log is truncated, so start-up only replays the tail of the history.  A checkpoint reads the
+ * repositories while they are not being changed, so it runs on the thread that appended the record
+ * that triggered it; use cases shared by several writing threads should checkpoint explicitly.
+ *
+ * <p>Ids are recorded with each created {@link Entity}, so replay restores the same ids and the
+ * repositories continue allocating after the highest one.
+ */
+public class WriteAheadInventoryJournal implements InventoryJournal, Closeable {
+
+  public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 50;
+  public static final long DEFAULT_CHECKPOINT_INTERVAL_RECORDS = 100_000;
+
+  private static final int PART_SPECIFICATION_CREATED = 1;
+  private static final int PART_SPECIFICATION_EDITED = 2;
+  private static final int SUPPLIER_CREATED = 3;
+  private static final int SUPPLIER_ADDED = 4;
+  private static final int SUPPLIERS_REMOVED = 5;
+  private static final int REQUISITION_REQUEST_CREATED = 6;
+  private static final int REQUISITION_REQUEST_ADDED = 7;
+
+  private final Path snapshotPath;
+  private final long checkpointIntervalRecords;
+  private final Replay replay;
+  private WriteAheadLog log;
+  private long sequenceNumber;
+  private long recordsSinceCheckpoint;
+
+  private WriteAheadInventoryJournal(Path snapshotPath, long checkpointIntervalRecords,
+      Replay replay) {
+    this.snapshotPath = snapshotPath;
+    this.checkpointIntervalRecords = checkpointIntervalRecords;
+    this.replay = replay;
+  }
+
+  /**
+   * Open the journal stored at the specified path and replay it into the specified repositories,
+   * which are expected to be empty.
+   *
+   * @param path                             the file holding the journal
+   * @param partSpecificationRepository      receives the journaled part specifications
+   * @param supplierRepository               receives the journaled suppliers
+   * @param partRequisitionRequestRepository receives the journaled requisition requests
+   * @return the opened journal
+   * @throws IOException if the journal cannot be read or written
+   */
+  public static WriteAheadInventoryJournal open(Path path,
+      PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) throws IOException {
+    return open(path, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_CHECKPOINT_INTERVAL_RECORDS,
+        partSpecificationRepository, supplierRepository, partRequisitionRequestRepository);
+  }
+
+  /**
+   * Open the journal stored at the specified path and replay it into the specified repositories,
+   * which are expected to be empty.
+   *
+   * @param path                             the file holding the journal; its snapshot is kept
+   *                                         next to it with a {@code .snapshot} suffix
+   * @param syncIntervalMillis               the longest time a change waits to be fsynced
+   * @param checkpointIntervalRecords        the number of records appended between checkpoints
+   * @param partSpecificationRepository      receives the journaled part specifications
+   * @param supplierRepository               receives the journaled suppliers
+   * @param partRequisitionRequestRepository receives the journaled requisition requests
+   * @return the opened journal
+   * @throws IOException if the journal cannot be read or written
+   */
+  public static WriteAheadInventoryJournal open(Path path, long syncIntervalMillis,
+      long checkpointIntervalRecords,
+      PartSpecificationRepository partSpecificationRepository,
+      SupplierRepository supplierRepository,
+      PartRequisitionRequestRepository partRequisitionRequestRepository) throws IOException {
+    Path snapshotPath = path.resolveSibling(path.getFileName() + ".snapshot");
+    var replay = new Replay(partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository);
+    var journal = new WriteAheadInventoryJournal(snapshotPath, checkpointIntervalRecords,
+        replay);
+    if (Files.exists(snapshotPath)) {
+      journal.sequenceNumber = InventorySnapshot.read(snapshotPath, partSpecificationRepository,
+          supplierRepository, partRequisitionRequestRepository);
+    }
+    final long snapshotSequenceNumber = journal.sequenceNumber;
+    journal.log = WriteAheadLog.open(path, syncIntervalMillis, snapshotSequenceNumber + 1,
+        (payload, recordSequenceNumber) -> {
+          // Records older than the snapshot survive a crash between snapshot and truncation.
+          if (recordSequenceNumber > snapshotSequenceNumber) {
+            replay.apply(new BinaryReader(payload));
+            journal.sequenceNumber = recordSequenceNumber;
+            journal.recordsSinceCheckpoint++;
+          }
+        });
+    return journal;
+  }
+
+  @Override
+  public void partSpecificationCreated(PartSpecification partSpecification) {
+    append(record(PART_SPECIFICATION_CREATED)
+        .writeVarLong(partSpecification.getId())
+        .writeString(partSpecification.getName())
+        .writeString(partSpecification.getDescription()));
+  }
+
+  @Override
+  public void partSpecificationEdited(Long partSpecificationId, String name,
+      String description) {
+    append(record(PART_SPECIFICATION_EDITED)
+        .writeVarLong(partSpecificationId)
+        .writeString(name)
+        .writeString(description));
+  }
+
+  @Override
+  public void supplierCreated(Supplier supplier) {
+    append(record(SUPPLIER_CREATED).writeVarLong(supplier.getId()));
+  }
+
+  @Override
+  public void supplierAdded(Long partSpecificationId, Long supplierId) {
+    append(record(SUPPLIER_ADDED)
+        .writeVarLong(partSpecificationId)
+        .writeNullableVarLong(supplierId));
+  }
+
+  @Override
+  public void suppliersRemoved(Long partSpecificationId) {
+    append(record(SUPPLIERS_REMOVED).writeVarLong(partSpecificationId));
+  }
+
+  @Override
+  public void requisitionRequestCreated(PartRequisitionRequest request) {
+    append(record(REQUISITION_REQUEST_CREATED).writeVarLong(request.getId()));
+  }
+
+  @Override
+  public void requisitionRequestAdded(Long partSpecificationId, Long requisitionRequestId,
+      Long quantity, String engineerName, LocalDateTime date, Long supplierId) {
+    var record = record(REQUISITION_REQUEST_ADDED)
+        .writeVarLong(partSpecificationId)
+        .writeVarLong(requisitionRequestId)
+        .writeVarLong(quantity)
+        .writeString(engineerName)
+        .writeDateTime(date);
+    append(record.writeNullableVarLong(supplierId));
+  }
+
+  /**
+   * Make every change journaled so far durable without waiting for the next group commit.
+   */
+  public void sync() {
+    log.sync();
+  }
+
+  /**
+   * Write a snapshot of the repositories and truncate the log.  The repositories must not be
+   * changed while I run.
+   *
+   * @throws IOException if the snapshot cannot be written or the log cannot be truncated
+   */
+  public synchronized void checkpoint() throws IOException {
+    log.sync();
+    InventorySnapshot.write(snapshotPath, sequenceNumber, replay.partSpecificationRepository,
+        replay.supplierRepository, replay.partRequisitionRequestRepository);
+    log.truncate();
+    recordsSinceCheckpoint = 0;
+  }
+
+  /**
+   * Close the journal, taking a final checkpoint if anything was journaled since the last one so
+   * that the next start-up has no log to replay.
+   *
+   * @throws IOException if the checkpoint fails or the log cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      if (recordsSinceCheckpoint > 0) {
+        checkpoint();
+      }
+    } finally {
+      log.close();
+    }
+  }
+
+  private static BinaryWriter record(int type) {
+    return new BinaryWriter().writeByte(type);
+  }
+
+  private void append(BinaryWriter record) {
+    boolean checkpointDue;
+    synchronized (this) {
+      sequenceNumber = log.append(record);
+      checkpointDue = ++recordsSinceCheckpoint >= checkpointIntervalRecords;
+    }
+    if (checkpointDue) {
+      try {
+        checkpoint();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * I apply journaled records to repositories, mirroring what the use case did when the records
+   * were written.
+   */
+  private static class Replay {
+
+    private final PartSpecificationRepository partSpecificationRepository;
+    private final SupplierRepository supplierRepository;
+    private final PartRequisitionRequestRepository partRequisitionRequestRepository;
+
+    Replay(PartSpecificationRepository partSpecificationRepository,
+        SupplierRepository supplierRepository,
+        PartRequisitionRequestRepository partRequisitionRequestRepository) {
+      this.partSpecificationRepository = partSpecificationRepository;
+      this.supplierRepository = supplierRepository;
+      this.partRequisitionRequestRepository = partRequisitionRequestRepository;
+    }
+
+    void apply(BinaryReader in) {
+      int type = in.readByte();
+      switch (type) {
+        case PART_SPECIFICATION_CREATED: {
+          var ps = new PartSpecification();
+          ps.setId(in.readVarLong());
+          ps.setName(in.readString());
+          ps.setDescription(in.readString());
+          partSpecificationRepository.save(ps);
+          break;
+        }
+        case PART_SPECIFICATION_EDITED: {
+          var ps = partSpecificationRepository.findOne(in.readVarLong());
+          String name = in.readString();
+          partSpecificationRepository.update(ps, name, in.readString());
+          break;
+        }
+        case SUPPLIER_CREATED: {
+          var supplier = new Supplier();
+          supplier.setId(in.readVarLong());
+          supplierRepository.save(supplier);
+          break;
+        }
+        case SUPPLIER_ADDED: {
+          var ps = partSpecificationRepository.findOne(in.readVarLong());
+          partSpecificationRepository.addSupplier(ps,
+              supplierRepository.findOne(in.readNullableVarLong()));
+          break;
+        }
+        case SUPPLIERS_REMOVED:
+          partSpecificationRepository.removeSuppliers(
+              partSpecificationRepository.findOne(in.readVarLong()));
+          break;
+        case REQUISITION_REQUEST_CREATED: {
+          var request = new PartRequisitionRequest();
+          request.setId(in.readVarLong());
+          partRequisitionRequestRepository.save(request);
+          break;
+        }
+        case REQUISITION_REQUEST_ADDED: {
+          var ps = partSpecificationRepository.findOne(in.readVarLong());
+          var request = partRequisitionRequestRepository.findOne(in.readVarLong());
+          long quantity = in.readVarLong();
+          String engineerName = in.readString();
+          LocalDateTime date = in.readDateTime();
+          var supplier = supplierRepository.findOne(in.readNullableVarLong());
+          if (supplier != null) {
+            partSpecificationRepository.addSupplier(ps, supplier);
+          }
+          partRequisitionRequestRepository.attach(request, ps, quantity, engineerName, date,
+              supplier);
+          partSpecificationRepository.addPartRequisitionRequest(ps, request);
+          break;
+        }
+        default:
+          throw new IllegalStateException("unknown journal record type " + type);
+      }
+    }
+  }
+}
@@ -0,0 +1,283 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * I am an append-only file of binary records.  Each record is framed by its length and a CRC32C
+ * checksum so that a record torn by a crash is detected and discarded when I am reopened.
+ *
+ * <p>Records are numbered consecutively.  The file starts with the sequence number of its first
+ * record, so the numbers cost nothing per record and keep counting up when I am truncated.
+ *
+ * <p>Appends only copy the record into memory.  Pending records are written and fsynced together
+ * (group commit) by a background thread every sync interval, when enough bytes are pending, or
+ * when {@link #sync()} is called, so one fsync covers many records.  Records appended within the
+ * last sync interval may be lost if the process dies.
+ */
+public class WriteAheadLog implements Closeable {
+
+  private static final int FILE_MAGIC = 0x494E564C;
+  private static final int FILE_HEADER_BYTES = 12;
+  private static final int FRAME_HEADER_BYTES = 8;
+  private static final int MAX_PENDING_BYTES = 4 << 20;
+
+  private final FileChannel channel;
+  private final ScheduledExecutorService flusher;
+  private final Object appendLock = new Object();
+  private final Object writeLock = new Object();
+  private BinaryWriter pending;
+  private BinaryWriter spare;
+  private long nextSequenceNumber;
+  private volatile IOException failure;
+
+  private WriteAheadLog(FileChannel channel, long syncIntervalMillis, long nextSequenceNumber) {
+    this.channel = channel;
+    this.nextSequenceNumber = nextSequenceNumber;
+    pending = new BinaryWriter(64 << 10);
+    spare = new BinaryWriter(64 << 10);
+    flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "write-ahead-log-sync");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(this::backgroundSync, syncIntervalMillis, syncIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Open the log at the specified path, creating it if necessary.  Every intact record already in
+   * the log is passed, in order and with its sequence number, to the recovery consumer before I
+   * return.  A torn or corrupt tail left by a crash is truncated away.
+   *
+   * @param path                the file holding the log
+   * @param syncIntervalMillis  the longest time an appended record waits to be fsynced
+   * @param firstSequenceNumber the sequence number of the first record if the log is empty
+   * @param recovery            receives the payload and sequence number of each intact record
+   * @return the opened log, ready for appending
+   * @throws IOException if the file cannot be read or written
+   */
+  public static WriteAheadLog open(Path path, long syncIntervalMillis, long firstSequenceNumber,
+      ObjLongConsumer<ByteBuffer> recovery) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long sequenceNumber = firstSequenceNumber;
+      long end = 0;
+      if (channel.size() >= FILE_HEADER_BYTES) {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != FILE_MAGIC) {
+          throw new IOException(path + " is not a write-ahead log");
+        }
+        sequenceNumber = header.getLong();
+        end = FILE_HEADER_BYTES;
+      }
+      var log = new WriteAheadLog(channel, syncIntervalMillis, sequenceNumber);
+      if (end == 0) {
+        log.writeFileHeader(sequenceNumber);
+      } else {
+        end = log.recover(end, recovery);
+        if (end < channel.size()) {
+          channel.truncate(end);
+        }
+        channel.position(end);
+      }
+      return log;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private long recover(long start, ObjLongConsumer<ByteBuffer> recovery) throws IOException {
+    long size = channel.size();
+    long position = start;
+    ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+    CRC32C crc = new CRC32C();
+    while (position + FRAME_HEADER_BYTES <= size) {
+      header.clear();
+      readFully(channel, header, position);
+      header.flip();
+      int length = header.getInt();
+      int checksum = header.getInt();
+      if (length < 0 || position + FRAME_HEADER_BYTES + length > size) {
+        break;
+      }
+      ByteBuffer payload = ByteBuffer.allocate(length);
+      readFully(channel, payload, position + FRAME_HEADER_BYTES);
+      crc.reset();
+      crc.update(payload.array(), 0, length);
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      payload.flip();
+      recovery.accept(payload, nextSequenceNumber++);
+      position += FRAME_HEADER_BYTES + length;
+    }
+    return position;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("unexpected end of log");
+      }
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private void writeFileHeader(long firstSequenceNumber) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+    header.putInt(FILE_MAGIC).putLong(firstSequenceNumber).flip();
+    channel.position(0);
+    writeFully(channel, header);
+    channel.force(true);
+  }
+
+  /**
+   * Append a record.  The record becomes durable at the next group commit.
+   *
+   * @param record the array holding the record's payload
+   * @param offset the index of the payload's first byte
+   * @param length the number of payload bytes
+   * @return the sequence number of the appended record
+   */
+  public long append(byte[] record, int offset, int length) {
+    throwIfFailed();
+    CRC32C crc = new CRC32C();
+    crc.update(record, offset, length);
+    long sequenceNumber;
+    boolean full;
+    synchronized (appendLock) {
+      pending.writeInt(length).writeInt((int) crc.getValue()).writeBytes(record, offset, length);
+      sequenceNumber = nextSequenceNumber++;
+      full = pending.length() >= MAX_PENDING_BYTES;
+    }
+    if (full) {
+      sync();
+    }
+    return sequenceNumber;
+  }
+
+  /**
+   * Append a record.
+   *
+   * @param record the writer holding the record's payload
+   * @return the sequence number of the appended record
+   */
+  public long append(BinaryWriter record) {
+    return append(record.array(), 0, record.length());
+  }
+
+  /**
+   * Return the sequence number the next appended record will get.
+   *
+   * @return the next sequence number
+   */
+  public long nextSequenceNumber() {
+    synchronized (appendLock) {
+      return nextSequenceNumber;
+    }
+  }
+
+  /**
+   * Write and fsync every record appended so far.
+   */
+  public void sync() {
+    try {
+      flush();
+    } catch (IOException e) {
+      failure = e;
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void backgroundSync() {
+    try {
+      flush();
+    } catch (IOException e) {
+      failure = e;
+    }
+  }
+
+  private void flush() throws IOException {
+    synchronized (writeLock) {
+      BinaryWriter batch;
+      synchronized (appendLock) {
+        if (pending.length() == 0) {
+          return;
+        }
+        batch = pending;
+        pending = spare;
+        spare = null;
+      }
+      try {
+        writeFully(channel, ByteBuffer.wrap(batch.array(), 0, batch.length()));
+        channel.force(false);
+      } finally {
+        batch.reset();
+        synchronized (appendLock) {
+          spare = batch;
+        }
+      }
+    }
+  }
+
+  /**
+   * Discard every record in the log, including records appended but not yet written.  Sequence
+   * numbers carry on from where they were.
+   *
+   * @throws IOException if the file cannot be truncated
+   */
+  public void truncate() throws IOException {
+    synchronized (writeLock) {
+      long firstSequenceNumber;
+      synchronized (appendLock) {
+        pending.reset();
+        firstSequenceNumber = nextSequenceNumber;
+      }
+      channel.truncate(0);
+      writeFileHeader(firstSequenceNumber);
+    }
+  }
+
+  private void throwIfFailed() {
+    IOException e = failure;
+    if (e != null) {
+      throw new UncheckedIOException("write-ahead log is no longer writable", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BulkImporterTest {
+
+  @TempDir
+  Path directory;
+
+  private PartSpecificationRepository partSpecificationRepository;
+  private SupplierRepository supplierRepository;
+  private PartRequisitionRequestRepository partRequisitionRequestRepository;
+  private CreatePartSpecification useCase;
+
+  @BeforeEach
+  public void setUp() {
+    partSpecificationRepository = new PartSpecificationRepository();
+    supplierRepository = new SupplierRepository();
+    partRequisitionRequestRepository = new PartRequisitionRequestRepository();
+    useCase = new CreatePartSpecification(partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository);
+  }
+
+  private Path write(String name, String... lines) throws IOException {
+    return Files.write(directory.resolve(name), List.of(lines));
+  }
+
+  @Test
+  public void given_csv_inventory_when_imported_then_entities_created_and_linked()
+      throws IOException {
+    Path file = write("inventory.csv",
+        "type,key,name,description,suppliers,part,quantity,engineer,date,supplier",
+        "supplier,acme,,,,,,,,",
+        "supplier,globex,,,,,,,,",
+        "part,p1,M3 hex bolt,\"Stainless, \"\"marine\"\" grade\",acme;globex,,,,,",
+        "request,,,,,p1,25,Ada,2022-10-03T14:30,globex");
+
+    ImportReport report = new BulkImporter(useCase, 2).importFile(file);
+
+    assertEquals(4, report.getRowsRead());
+    assertEquals(0, report.getRowsRejected());
+    assertEquals(2, supplierRepository.findAll().size());
+    PartSpecification ps = partSpecificationRepository.findAll().get(0);
+    assertEquals("M3 hex bolt", ps.getName());
+    assertEquals("Stainless, \"marine\" grade", ps.getDescription());
+    assertEquals(List.of(0L, 1L), ps.getSuppliers().stream().map(Entity::getId).toList());
+    PartRequisitionRequest request = partRequisitionRequestRepository.findAll().get(0);
+    assertEquals(25L, request.getQuantity());
+    assertEquals("Ada", request.getEngineerName());
+    assertEquals(LocalDateTime.of(2022, 10, 3, 14, 30), request.getRequestDate());
+    assertEquals(List.of(request), useCase.getRequestsForPartSpecification(ps.getId()));
+  }
+
+  @Test
+  public void given_ndjson_inventory_when_imported_then_entities_created_and_linked()
+      throws IOException {
+    Path file = write("inventory.ndjson",
+        "{\"type\":\"supplier\",\"key\":7}",
+        "{\"type\":\"part\",\"key\":\"p1\",\"name\":\"Washer\",\"description\":\"Flat\\n M4\","
+            + "\"suppliers\":[7],\"extra\":true}",
+        "",
+        "{\"type\":\"request\",\"part\":\"p1\",\"quantity\":3,\"engineer\":null,"
+            + "\"date\":\"2022-01-02T03:04:05\",\"supplier\":\"7\"}");
+
+    ImportReport report = new BulkImporter(useCase, 2).importFile(file);
+
+    assertEquals(3, report.getRowsRead());
+    assertEquals(1, report.getSuppliersImported());
+    assertEquals(1, report.getPartSpecificationsImported());
+    assertEquals(1, report.getRequestsImported());
+    assertEquals("Flat\n M4", partSpecificationRepository.findAll().get(0).getDescription());
+    assertEquals(null, partRequisitionRequestRepository.findAll().get(0).getEngineerName());
+  }
+
+  @Test
+  public void given_invalid_rows_when_imported_then_rows_rejected_with_line_numbers()
+      throws IOException {
+    Path file = write("inventory.csv",
+        "type,key,name,part,quantity,date,supplier",
+        "supplier,s1,,,,,",
+        "supplier,s1,,,,,",
+        "part,p1,,,,,",
+        "part,p2,Nut,,,,",
+        "request,,,p2,-1,2022-01-01T00:00,s1",
+        "request,,,p2,1,yesterday,s1",
+        "request,,,p9,1,2022-01-01T00:00,s1",
+        "gadget,g1,,,,,");
+
+    ImportReport report = new BulkImporter(useCase, 2).importFile(file);
+
+    assertEquals(8, report.getRowsRead());
+    assertEquals(6, report.getRowsRejected());
+    assertEquals(List.of("line 3: duplicate supplier key s1", "line 4: missing name",
+        "line 6: quantity must be positive",
+        "line 7: date is not an ISO-8601 date and time", "line 8: unknown part key p9",
+        "line 9: unknown type gadget"), report.getErrors());
+    assertEquals(1, partSpecificationRepository.findAll().size());
+  }
+
+  @Test
+  public void given_many_chunks_when_imported_then_file_order_kept() throws IOException {
+    String[] lines = new String[10_001];
+    lines[0] = "type,key,name";
+    for (int i = 1; i < lines.length; i++) {
+      lines[i] = "part,p" + i + ",part " + i;
+    }
+    Path file = write("parts.csv", lines);
+
+    ImportReport report = useCase.importInventory(file);
+
+    assertEquals(10_000, report.getPartSpecificationsImported());
+    List<PartSpecification> parts = partSpecificationRepository.findAll();
+    for (int i = 0; i < parts.size(); i++) {
+      assertEquals("part " + (i + 1), parts.get(i).getName());
+    }
+    assertTrue(report.getRowsPerSecond() > 0);
+  }
+
+  /**
+   * I add up the capacity I am asked to prepare.
+   */
+  private static final class PresizedStore<T extends Entity> extends IndexedEntityStore<T> {
+
+    private int capacity;
+
+    @Override
+    public void ensureCapacity(int additional) {
+      capacity += additional;
+      super.ensureCapacity(additional);
+    }
+  }
+
+  @Test
+  public void given_suppliers_then_parts_then_requests_when_imported_then_presized_for_the_mix()
+      throws IOException {
+    int supplierRows = 5_000;
+    int partRows = 5_000;
+    int requestRows = 20_000;
+    var lines = new ArrayList<String>();
+    lines.add("type,key,name,description,suppliers,part,quantity,engineer,date,supplier");
+    for (int i = 0; i < supplierRows; i++) {
+      lines.add("supplier,s" + i + ",,,,,,,,");
+    }
+    for (int i = 0; i < partRows; i++) {
+      lines.add("part,p" + i + ",part " + i + ",,s" + i + ",,,,,");
+    }
+    for (int i = 0; i < requestRows; i++) {
+      lines.add("request,,,,,p" + i % partRows + ",3,Ada,2022-10-03T14:30,s" + i % supplierRows);
+    }
+    Path file = Files.write(directory.resolve("inventory.csv"), lines);
+    var parts = new PresizedStore<PartSpecification>();
+    var suppliers = new PresizedStore<Supplier>();
+    var requests = new PresizedStore<PartRequisitionRequest>();
+    var presizedUseCase = new CreatePartSpecification(new PartSpecificationRepository(parts),
+        new SupplierRepository(suppliers), new PartRequisitionRequestRepository(requests));
+
+    ImportReport report = new BulkImporter(presizedUseCase, 2).importFile(file);
+
+    assertEquals(0, report.getRowsRejected());
+    assertWithinTwofold(partRows, parts.capacity);
+    assertWithinTwofold(supplierRows, suppliers.capacity);
+    assertWithinTwofold(requestRows, requests.capacity);
+  }
+
+  private static void assertWithinTwofold(int expected, int actual) {
+    assertTrue(actual >= expected / 2 && actual <= expected * 2,
+        "presized for " + actual + " rather than about " + expected);
+  }
+}
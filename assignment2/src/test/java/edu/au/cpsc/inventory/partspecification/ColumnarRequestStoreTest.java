@@ -0,0 +1,101 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ColumnarRequestStoreTest {
+
+  @Test
+  public void given_requests_attached_through_use_case_then_read_back_from_columns() {
+    var supplierRepository = new SupplierRepository();
+    var engineers = new EngineerDictionary();
+    var store = new ColumnarRequestStore(supplierRepository::findOne, engineers);
+    var requests = new PartRequisitionRequestRepository(store, engineers, Clock.systemUTC());
+    var useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        supplierRepository, requests);
+    Long supplier = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long part = useCase.createPartSpecification(
+        new CreatePartSpecification.PartSpecificationModel());
+    LocalDateTime date = LocalDateTime.of(2022, 10, 3, 14, 30, 15, 250_000_000);
+    Long first = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    Long second = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(part, first, 12L, "Ada", date, supplier);
+    useCase.addRequisitionRequestToPartSpecification(part, second, 3L, null, null, null);
+
+    var attached = useCase.getRequestsForPartSpecification(part);
+
+    assertEquals(List.of(requests.findOne(first), requests.findOne(second)), attached);
+    var request = attached.get(0);
+    assertEquals(first, request.getId());
+    assertEquals(part, request.getPartSpecificationId());
+    assertEquals(12L, request.getQuantity());
+    assertEquals("Ada", request.getEngineerName());
+    assertEquals(requests.getEngineerDictionary().encode("Ada"), request.getEngineerCode());
+    assertEquals(date, request.getRequestDate());
+    assertSame(supplierRepository.findOne(supplier), request.getSuppliers().get(0));
+    assertNull(attached.get(1).getEngineerName());
+    assertEquals(EngineerDictionary.NONE, attached.get(1).getEngineerCode());
+    assertNull(attached.get(1).getRequestDate());
+    assertEquals(List.of(), attached.get(1).getSuppliers());
+    assertEquals(List.of(request), useCase.getRequestsBetween(date, date.plusSeconds(1)));
+    assertEquals(15L, useCase.getQuantityRequestedForPartSpecification(part));
+  }
+
+  @Test
+  public void given_store_with_other_dictionary_when_request_attached_then_rejected() {
+    var requests = new PartRequisitionRequestRepository(new ColumnarRequestStore());
+    var part = new PartSpecification();
+    new PartSpecificationRepository().save(part);
+    var request = requests.findOne(requests.save(new PartRequisitionRequest()));
+
+    assertThrows(IllegalArgumentException.class, () -> requests.attach(request, part));
+  }
+
+  @Test
+  public void given_ids_saved_out_of_order_then_each_found() {
+    var store = new ColumnarRequestStore();
+    for (long id : new long[] {5, 9, 2, 7}) {
+      var request = new PartRequisitionRequest();
+      request.setId(id);
+      request.setQuantity(id * 10);
+      store.save(request);
+    }
+
+    for (long id : new long[] {5, 9, 2, 7}) {
+      assertEquals(id * 10, store.findOne(id).getQuantity());
+    }
+    assertNull(store.findOne(3));
+    assertEquals(10L, store.save(new PartRequisitionRequest()));
+  }
+
+  @Test
+  public void column_scan_agrees_with_brute_force() {
+    var store = new ColumnarRequestStore();
+    Random random = new Random(20);
+    LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+    for (int i = 0; i < 10_000; i++) {
+      var request = new PartRequisitionRequest();
+      request.setQuantity((long) random.nextInt(100));
+      request.setRequestDate(random.nextInt(10) == 0 ? null
+          : start.plusMinutes(random.nextInt(365 * 24 * 60)));
+      store.save(request);
+    }
+    LocalDateTime from = start.plusMonths(3);
+    LocalDateTime to = start.plusMonths(5);
+
+    long expected = store.findAll().stream()
+        .filter(r -> r.getRequestDate() != null && !r.getRequestDate().isBefore(from)
+            && r.getRequestDate().isBefore(to))
+        .mapToLong(PartRequisitionRequest::getQuantity)
+        .sum();
+    assertEquals(expected, store.sumQuantityBetween(from, to));
+  }
+}
@@ -0,0 +1,75 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentEntityStoreTest {
+
+  private static final int THREADS = 8;
+  private static final int SAVES_PER_THREAD = 20_000;
+
+  @Test
+  public void concurrent_saves_neither_lose_nor_duplicate_ids() throws Exception {
+    var repository = new PartSpecificationRepository(new ConcurrentEntityStore<>());
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<PartSpecification>>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      results.add(executor.submit(() -> {
+        List<PartSpecification> saved = new ArrayList<>();
+        start.await();
+        for (int i = 0; i < SAVES_PER_THREAD; i++) {
+          PartSpecification ps = new PartSpecification();
+          repository.save(ps);
+          saved.add(ps);
+          // Readers interleaved with writers must always see a consistent prefix.
+          if (i % 1_000 == 0) {
+            var snapshot = repository.findAll();
+            for (var entity : snapshot) {
+              assertTrue(entity.getId() != null);
+            }
+          }
+        }
+        return saved;
+      }));
+    }
+    start.countDown();
+
+    Set<Long> ids = new HashSet<>();
+    for (var result : results) {
+      for (var ps : result.get()) {
+        assertTrue(ids.add(ps.getId()), "duplicate id " + ps.getId());
+        assertSame(ps, repository.findOne(ps.getId()));
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(THREADS * SAVES_PER_THREAD, ids.size());
+    assertEquals(THREADS * SAVES_PER_THREAD, repository.findAll().size());
+  }
+
+  @Test
+  public void given_snapshot_taken_then_later_saves_not_visible_in_it() {
+    var repository = new SupplierRepository(new ConcurrentEntityStore<>());
+    repository.save(new Supplier());
+    var snapshot = repository.findAll();
+
+    repository.save(new Supplier());
+
+    assertEquals(1, snapshot.size());
+    assertEquals(2, repository.findAll().size());
+  }
+}
@@ -4,8 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -224,4 +226,291 @@ public class CreatePartSpecificationTest {
     assertEquals(1, requests.get(0).getSuppliers().size());
   }
 
+  @Test
+  public void given_repeated_requisitions_from_supplier_then_supplier_listed_once() {
+    Long partId = createPart("bolt", null);
+    Long supplierId = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    for (int i = 0; i < 3; i++) {
+      Long requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(partId, requestId, 1L, "Ada",
+          LocalDateTime.now(), supplierId);
+    }
+
+    var suppliers = useCase.getSuppliersOfPartSpecification(partId);
+
+    assertEquals(1, suppliers.size());
+    assertEquals(supplierId, suppliers.get(0).getId());
+  }
+
+  @Test
+  public void given_requisition_without_supplier_then_no_supplier_listed() {
+    Long partId = createPart("bolt", null);
+    Long requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+
+    useCase.addRequisitionRequestToPartSpecification(partId, requestId, 2L, "Ada",
+        LocalDateTime.now(), null);
+
+    assertEquals(List.of(), useCase.getSuppliersOfPartSpecification(partId));
+    assertEquals(2L, useCase.getQuantityRequestedForPartSpecification(partId));
+  }
+
+  private Long createPart(String name, String description) {
+    var model = new CreatePartSpecification.PartSpecificationModel();
+    model.setName(name);
+    model.setDescription(description);
+    return useCase.createPartSpecification(model);
+  }
+
+  @Test
+  public void given_part_specifications_then_found_by_exact_name() {
+    Long bolt = createPart("bolt", "M3 bolt");
+    createPart("bolts", "box of bolts");
+    Long otherBolt = createPart("bolt", "M4 bolt");
+
+    var found = useCase.findPartSpecificationsByName("bolt");
+
+    assertEquals(2, found.size());
+    assertEquals(bolt, found.get(0).getId());
+    assertEquals(otherBolt, found.get(1).getId());
+    assertEquals(0, useCase.findPartSpecificationsByName("nut").size());
+  }
+
+  @Test
+  public void given_part_specifications_then_found_by_name_prefix_in_name_order() {
+    createPart("washer", "flat");
+    Long bolts = createPart("bolts", "box of bolts");
+    Long bolt = createPart("bolt", "M3 bolt");
+
+    var found = useCase.findPartSpecificationsByNamePrefix("bol", 10);
+
+    assertEquals(2, found.size());
+    assertEquals(bolt, found.get(0).getId());
+    assertEquals(bolts, found.get(1).getId());
+    assertEquals(1, useCase.findPartSpecificationsByNamePrefix("bol", 1).size());
+  }
+
+  @Test
+  public void given_part_specification_renamed_then_found_by_new_name_only() {
+    Long id = createPart("bolt", "M3 bolt");
+
+    useCase.editPartSpecification(id, "screw", "M3 screw");
+
+    assertEquals(0, useCase.findPartSpecificationsByName("bolt").size());
+    assertEquals(id, useCase.findPartSpecificationsByName("screw").get(0).getId());
+  }
+
+  @Test
+  public void given_part_descriptions_then_search_ranks_best_match_first() {
+    createPart("bolt", "M3 stainless hex bolt");
+    Long nut = createPart("nut", "M3 stainless hex nut");
+    Long washer = createPart("washer", "stainless washer");
+    createPart("rivet", "aluminium rivet");
+
+    var found = useCase.searchPartSpecifications("Hex NUT", 10);
+
+    assertEquals(2, found.size());
+    assertEquals(nut, found.get(0).getId());
+    assertEquals(1, useCase.searchPartSpecifications("hex nut", 1).size());
+    assertEquals(3, useCase.searchPartSpecifications("stainless", 10).size());
+    assertEquals(washer, useCase.searchPartSpecifications("washer", 10).get(0).getId());
+  }
+
+  @Test
+  public void given_description_edited_then_search_sees_new_description_only() {
+    Long id = createPart("bolt", "M3 stainless hex bolt");
+
+    useCase.editPartSpecification(id, "bolt", "M4 brass carriage bolt");
+
+    assertEquals(0, useCase.searchPartSpecifications("stainless", 10).size());
+    assertEquals(id, useCase.searchPartSpecifications("brass", 10).get(0).getId());
+  }
+
+  @Test
+  public void given_requests_for_two_parts_then_each_part_lists_only_its_own() {
+    Long bolt = createPart("bolt", "M3 bolt");
+    Long nut = createPart("nut", "M3 nut");
+    Long supplier = supplierRepository.save(new Supplier());
+    Long first = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    Long second = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    Long third = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    LocalDateTime date = LocalDateTime.now();
+
+    useCase.addRequisitionRequestToPartSpecification(bolt, first, 1L, "Ada", date, supplier);
+    useCase.addRequisitionRequestToPartSpecification(nut, second, 2L, "Ada", date, supplier);
+    useCase.addRequisitionRequestToPartSpecification(bolt, third, 3L, "Ada", date, supplier);
+
+    var boltRequests = useCase.getRequestsForPartSpecification(bolt);
+    assertEquals(2, boltRequests.size());
+    assertEquals(first, boltRequests.get(0).getId());
+    assertEquals(third, boltRequests.get(1).getId());
+    assertEquals(1, useCase.getRequestsForPartSpecification(nut).size());
+    assertEquals(0, useCase.getRequestsForPartSpecification(42L).size());
+  }
+
+  @Test
+  public void given_requests_on_different_days_then_listed_by_period() {
+    Long bolt = createPart("bolt", "M3 bolt");
+    Long supplier = supplierRepository.save(new Supplier());
+    LocalDateTime monday = LocalDateTime.of(2022, 10, 3, 9, 0);
+    Long early = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    Long late = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    Long moved = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(bolt, late, 1L, "Ada", monday.plusHours(8),
+        supplier);
+    useCase.addRequisitionRequestToPartSpecification(bolt, early, 1L, "Ada", monday, supplier);
+    useCase.addRequisitionRequestToPartSpecification(bolt, moved, 1L, "Ada", monday, supplier);
+    partRequisitionRequestRepository.attach(partRequisitionRequestRepository.findOne(moved),
+        partSpecificationRepository.findOne(bolt), 1L, "Ada", monday.plusDays(2),
+        supplierRepository.findOne(supplier));
+
+    var onMonday = useCase.getRequestsBetween(monday, monday.plusDays(1));
+
+    assertEquals(2, onMonday.size());
+    assertEquals(early, onMonday.get(0).getId());
+    assertEquals(late, onMonday.get(1).getId());
+    assertEquals(moved, useCase.streamRequestsBetween(monday.plusDays(1), monday.plusDays(7))
+        .findFirst().get().getId());
+    assertEquals(0, useCase.getRequestsBetween(monday.minusDays(1), monday).size());
+  }
+
+  @Test
+  public void given_many_part_specifications_then_paged_through_in_order() {
+    for (int i = 0; i < 5; i++) {
+      createPart("part " + i, "description " + i);
+    }
+
+    var first = useCase.getPartSpecifications(Page.FIRST, 2);
+    var second = useCase.getPartSpecifications(first.getNextCursor(), 2);
+    var last = useCase.getPartSpecifications(second.getNextCursor(), 2);
+
+    assertEquals("part 0", first.getItems().get(0).getName());
+    assertEquals("part 3", second.getItems().get(1).getName());
+    assertEquals(1, last.getItems().size());
+    assertFalse(last.hasNext());
+    assertEquals(5, useCase.streamPartSpecifications().count());
+    assertEquals("part 2", useCase.streamPartSpecifications().skip(2).findFirst().get().getName());
+  }
+
+  @Test
+  public void given_supplier_linked_to_parts_then_parts_listed_until_suppliers_removed() {
+    Long acme = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long globex = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long bolt = createPart("bolt", null);
+    Long nut = createPart("nut", null);
+    Long washer = createPart("washer", null);
+    useCase.addSupplierToPartSpecification(washer, acme);
+    useCase.addSupplierToPartSpecification(bolt, acme);
+    useCase.addSupplierToPartSpecification(bolt, globex);
+    Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(nut, request, 1L, "Ada",
+        LocalDateTime.of(2022, 10, 3, 9, 0), globex);
+
+    assertEquals(List.of(bolt, washer), useCase.getPartSpecificationsOfSupplier(acme).stream()
+        .map(CreatePartSpecification.PartSpecificationModel::getId).toList());
+    assertEquals(List.of(bolt, nut), useCase.getPartSpecificationsOfSupplier(globex).stream()
+        .map(CreatePartSpecification.PartSpecificationModel::getId).toList());
+
+    useCase.removeSupplierToPartSpecification(bolt);
+
+    assertEquals(List.of(washer), useCase.getPartSpecificationsOfSupplier(acme).stream()
+        .map(CreatePartSpecification.PartSpecificationModel::getId).toList());
+    assertEquals(List.of(), useCase.getPartSpecificationsOfSupplier(99L));
+  }
+
+  private static CreatePartSpecification.RequisitionModel requisition(Long part, long quantity,
+      Long supplier) {
+    var requisition = new CreatePartSpecification.RequisitionModel();
+    requisition.setPartSpecificationId(part);
+    requisition.setQuantity(quantity);
+    requisition.setEngineerName("Ada");
+    requisition.setRequestDate(LocalDateTime.of(2022, 10, 3, 9, 0));
+    requisition.setSupplierId(supplier);
+    return requisition;
+  }
+
+  @Test
+  public void given_batch_of_requisitions_then_requests_made_with_consecutive_ids() {
+    Long bolt = createPart("bolt", null);
+    Long nut = createPart("nut", null);
+    Long acme = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long earlier = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+
+    long first = useCase.createRequisitionRequests(List.of(requisition(bolt, 5, acme),
+        requisition(nut, 7, null), requisition(bolt, 11, acme)));
+
+    assertEquals(earlier + 1, first);
+    assertEquals(List.of(first, first + 2), useCase.getRequestsForPartSpecification(bolt).stream()
+        .map(PartRequisitionRequest::getId).toList());
+    assertEquals(16L, useCase.getQuantityRequestedForPartSpecification(bolt));
+    assertEquals(16L, useCase.getQuantityRequestedFromSupplier(acme));
+    assertEquals(nut, partRequisitionRequestRepository.findOne(first + 1)
+        .getPartSpecificationId());
+    assertEquals(List.of(), useCase.getSuppliersOfPartSpecification(nut));
+    assertEquals(2, partSpecificationRepository.findOne(bolt).getPartRequisitionRequests().size());
+    assertEquals(first + 3,
+        useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel()));
+  }
+
+  @Test
+  public void given_batch_naming_missing_part_then_no_request_made() {
+    Long bolt = createPart("bolt", null);
+
+    assertThrows(IllegalArgumentException.class, () -> useCase.createRequisitionRequests(
+        List.of(requisition(bolt, 5, null), requisition(99L, 7, null))));
+    assertEquals(0, useCase.getRequests().size());
+    assertEquals(0L, useCase.getQuantityRequestedForPartSpecification(bolt));
+  }
+
+  @Test
+  public void given_batch_naming_missing_supplier_then_no_request_made() {
+    Long bolt = createPart("bolt", null);
+    Long acme = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+
+    assertThrows(IllegalArgumentException.class, () -> useCase.createRequisitionRequests(
+        List.of(requisition(bolt, 5, acme), requisition(bolt, 7, 99L))));
+    assertEquals(0, useCase.getRequests().size());
+    assertEquals(0L, useCase.getQuantityRequestedForPartSpecification(bolt));
+    assertEquals(0L, useCase.getQuantityRequestedFromSupplier(acme));
+  }
+
+  @Test
+  public void given_empty_batch_then_no_request_made() {
+    Long earlier = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+
+    assertEquals(CreatePartSpecification.NO_REQUESTS,
+        useCase.createRequisitionRequests(List.of()));
+    assertEquals(1, useCase.getRequests().size());
+    assertEquals(earlier + 1,
+        useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel()));
+  }
+
+
+  @Test
+  public void given_invalid_requisition_then_nothing_changed() {
+    Long bolt = createPart("bolt", "M3 bolt");
+    Long supplier = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long attached = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(bolt, attached, 4L, "Ada",
+        LocalDateTime.of(2022, 10, 3, 9, 0), supplier);
+    Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    LocalDateTime date = LocalDateTime.of(2022, 10, 4, 9, 0);
+
+    assertThrows(NullPointerException.class, () ->
+        useCase.addRequisitionRequestToPartSpecification(bolt, request, null, "Ada", date,
+            supplier));
+    assertThrows(NullPointerException.class, () ->
+        useCase.addRequisitionRequestToPartSpecification(bolt, request, 5L, "Ada", date, 99L));
+    assertThrows(IllegalStateException.class, () ->
+        useCase.addRequisitionRequestToPartSpecification(bolt, attached, 5L, "Ada", date,
+            supplier));
+
+    var part = partSpecificationRepository.findOne(bolt);
+    assertEquals(1, part.getSuppliers().size());
+    assertEquals(1, part.getPartRequisitionRequests().size());
+    assertNull(partRequisitionRequestRepository.findOne(request).getPartSpecificationId());
+    assertEquals(4L, partRequisitionRequestRepository.findOne(attached).getQuantity());
+    assertEquals(4L, useCase.getQuantityRequestedForPartSpecification(bolt));
+    assertEquals(4L, useCase.getQuantityRequestedFromSupplier(supplier));
+    assertEquals(1, useCase.getRequestsForPartSpecification(bolt).size());
+  }
 }
@@ -0,0 +1,86 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class EngineerDictionaryTest {
+
+  @Test
+  public void given_names_then_codes_assigned_in_order_and_decoded() {
+    var dictionary = new EngineerDictionary();
+
+    assertEquals(0, dictionary.encode("Ada"));
+    assertEquals(1, dictionary.encode("Grace"));
+    assertEquals(0, dictionary.encode(new String("Ada")));
+    assertEquals(EngineerDictionary.NONE, dictionary.encode(null));
+    assertEquals("Grace", dictionary.decode(1));
+    assertNull(dictionary.decode(EngineerDictionary.NONE));
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void concurrent_encodes_give_each_name_one_code() throws Exception {
+    var dictionary = new EngineerDictionary();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<int[]>> results = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        int[] codes = new int[1_000];
+        for (int i = 0; i < codes.length; i++) {
+          codes[i] = dictionary.encode("engineer " + i);
+        }
+        return codes;
+      }));
+    }
+    start.countDown();
+    int[] first = results.get(0).get();
+    for (var result : results) {
+      int[] codes = result.get();
+      for (int i = 0; i < codes.length; i++) {
+        assertEquals(first[i], codes[i]);
+        assertEquals("engineer " + i, dictionary.decode(codes[i]));
+      }
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(1_000, dictionary.size());
+  }
+
+  @Test
+  public void given_requests_by_same_engineer_then_name_stored_as_one_code() {
+    var requests = new PartRequisitionRequestRepository();
+    var useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(), requests);
+    Long part = useCase.createPartSpecification(
+        new CreatePartSpecification.PartSpecificationModel());
+    LocalDateTime date = LocalDateTime.of(2022, 10, 3, 9, 0);
+    for (int i = 0; i < 3; i++) {
+      Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(part, request, 1L, new String("Ada"), date,
+          null);
+    }
+
+    var attached = useCase.getRequestsForPartSpecification(part);
+    assertEquals("Ada", attached.get(0).getEngineerName());
+    assertSame(attached.get(0).getEngineerName(), attached.get(2).getEngineerName());
+    assertEquals(1, requests.getEngineerDictionary().size());
+    int code = requests.getEngineerDictionary().encode("Ada");
+    for (Long id : List.of(0L, 1L, 2L)) {
+      assertEquals(code, requests.findOne(id).getEngineerCode());
+    }
+  }
+}
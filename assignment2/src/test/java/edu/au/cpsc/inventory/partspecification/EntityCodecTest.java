@@ -0,0 +1,107 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class EntityCodecTest {
+
+  private static Supplier supplier(long id) {
+    var supplier = new Supplier();
+    supplier.setId(id);
+    return supplier;
+  }
+
+  private static PartRequisitionRequest request(long id, String engineerName,
+      LocalDateTime date, Supplier... suppliers) {
+    var request = new PartRequisitionRequest();
+    request.setId(id);
+    request.setQuantity(id * 10);
+    request.setEngineerName(engineerName);
+    request.setRequestDate(date);
+    for (var supplier : suppliers) {
+      request.addSupplier(supplier);
+    }
+    return request;
+  }
+
+  @Test
+  public void given_requests_when_round_tripped_then_fields_and_links_restored() {
+    Supplier acme = supplier(3);
+    List<PartRequisitionRequest> requests = List.of(
+        request(1, "Ada", LocalDateTime.of(2022, 10, 3, 14, 30), acme),
+        request(2, "Grace", LocalDateTime.of(1969, 7, 20, 20, 17, 40, 123_456_789), acme, null),
+        request(3, "Ada", null),
+        request(4, null, LocalDateTime.of(2022, 10, 3, 14, 30, 1)));
+    var out = new BinaryWriter();
+    var encoder = new EntityCodec();
+    encoder.writeHeader(out);
+    for (var request : requests) {
+      encoder.writePartRequisitionRequest(out, request);
+    }
+
+    var in = new BinaryReader(ByteBuffer.wrap(out.toByteArray()));
+    var decoder = new EntityCodec();
+    decoder.readHeader(in);
+    for (var expected : requests) {
+      var actual = decoder.readPartRequisitionRequest(in, id -> id == 3 ? acme : null);
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getQuantity(), actual.getQuantity());
+      assertEquals(expected.getEngineerName(), actual.getEngineerName());
+      assertEquals(expected.getRequestDate(), actual.getRequestDate());
+      assertEquals(expected.getSuppliers(), actual.getSuppliers());
+    }
+    assertTrue(!in.hasRemaining());
+  }
+
+  @Test
+  public void given_repeated_engineer_when_encoded_then_name_written_once() {
+    LocalDateTime date = LocalDateTime.of(2022, 10, 3, 14, 30);
+    var first = new BinaryWriter();
+    var second = new BinaryWriter();
+    var codec = new EntityCodec();
+    codec.writePartRequisitionRequest(first, request(1, "Margaret Hamilton", date));
+    codec.writePartRequisitionRequest(second, request(2, "Margaret Hamilton", date));
+
+    assertTrue(first.length() > "Margaret Hamilton".length());
+    assertEquals(9, second.length());
+  }
+
+  @Test
+  public void given_part_specification_when_round_tripped_then_links_resolved() {
+    Supplier acme = supplier(0);
+    PartRequisitionRequest request = request(5, "Ada", null);
+    var ps = new PartSpecification();
+    ps.setId(7L);
+    ps.setName("Bolt");
+    ps.setDescription(null);
+    ps.addSupplier(acme);
+    ps.addPartRequisitionRequest(request);
+    var out = new BinaryWriter();
+    new EntityCodec().writePartSpecification(out, ps);
+
+    var actual = new EntityCodec().readPartSpecification(
+        new BinaryReader(ByteBuffer.wrap(out.toByteArray())), id -> acme, id -> request);
+
+    assertEquals(7L, actual.getId());
+    assertEquals("Bolt", actual.getName());
+    assertNull(actual.getDescription());
+    assertSame(acme, actual.getSuppliers().get(0));
+    assertSame(request, actual.getPartRequisitionRequests().get(0));
+  }
+
+  @Test
+  public void given_newer_version_when_header_read_then_rejected() {
+    var out = new BinaryWriter().writeVarLong(EntityCodec.VERSION + 1);
+
+    assertThrows(IllegalArgumentException.class, () -> new EntityCodec().readHeader(
+        new BinaryReader(ByteBuffer.wrap(out.toByteArray()))));
+  }
+}
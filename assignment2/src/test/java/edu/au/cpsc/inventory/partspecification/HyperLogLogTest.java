@@ -0,0 +1,105 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class HyperLogLogTest {
+
+  private static void assertWithinThreeStandardErrors(long exact, HyperLogLog sketch) {
+    double error = Math.abs(sketch.estimate() - exact) / (double) exact;
+    assertTrue(error <= 3 * sketch.getStandardError(),
+        "estimate " + sketch.estimate() + " of " + exact + " is off by " + error);
+  }
+
+  @Test
+  public void estimates_are_within_documented_error_of_exact_counts() {
+    Random random = new Random(18);
+    for (int precision : new int[] {10, 14}) {
+      for (int distinct : new int[] {10, 1_000, 50_000, 500_000}) {
+        var ids = new HyperLogLog(precision);
+        var names = new HyperLogLog(precision);
+        long offset = random.nextLong();
+        for (int i = 0; i < distinct; i++) {
+          // Each value is added twice; repeats must not be counted.
+          ids.add(offset + i);
+          ids.add(offset + i);
+          names.add("engineer " + (offset + i));
+        }
+        assertWithinThreeStandardErrors(distinct, ids);
+        assertWithinThreeStandardErrors(distinct, names);
+      }
+    }
+  }
+
+  @Test
+  public void merged_sketch_estimates_the_union() {
+    var first = new HyperLogLog(12);
+    var second = new HyperLogLog(12);
+    var union = new HyperLogLog(12);
+    for (long i = 0; i < 30_000; i++) {
+      first.add(i);
+      second.add(i + 20_000);
+      union.add(i);
+      union.add(i + 20_000);
+    }
+    var merged = first.copy();
+    merged.merge(second);
+
+    assertEquals(union.estimate(), merged.estimate());
+    assertWithinThreeStandardErrors(50_000, merged);
+    assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(10)));
+  }
+
+  @Test
+  public void given_requests_then_distinct_engineers_and_suppliers_estimated_per_month() {
+    var useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(), new PartRequisitionRequestRepository());
+    for (int i = 0; i < 500; i++) {
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    }
+    Long bolt = useCase.createPartSpecification(
+        new CreatePartSpecification.PartSpecificationModel());
+    Long nut = useCase.createPartSpecification(
+        new CreatePartSpecification.PartSpecificationModel());
+    Random random = new Random(18);
+    Set<String> boltEngineersInMarch = new HashSet<>();
+    Set<String> boltEngineers = new HashSet<>();
+    Set<Long> suppliers = new HashSet<>();
+    for (int i = 0; i < 20_000; i++) {
+      Long part = random.nextBoolean() ? bolt : nut;
+      String engineer = "engineer " + random.nextInt(3_000);
+      long supplier = random.nextInt(500);
+      LocalDateTime date = LocalDateTime.of(2022, 1 + random.nextInt(6), 1, 0, 0)
+          .plusMinutes(random.nextInt(27 * 24 * 60));
+      Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(part, request, 1L, engineer, date,
+          supplier);
+      if (part.equals(bolt)) {
+        boltEngineers.add(engineer);
+        if (date.getMonthValue() == 3) {
+          boltEngineersInMarch.add(engineer);
+        }
+      }
+      suppliers.add(supplier);
+    }
+
+    YearMonth march = YearMonth.of(2022, 3);
+    double partError = 3 * 1.04 / Math.sqrt(1 << DistinctCounts.PART_PRECISION);
+    assertEquals(boltEngineersInMarch.size(),
+        useCase.getDistinctEngineersForPartSpecification(bolt, march, march),
+        partError * boltEngineersInMarch.size());
+    assertEquals(boltEngineers.size(), useCase.getDistinctEngineersForPartSpecification(bolt,
+        YearMonth.of(2022, 1), YearMonth.of(2022, 6)), partError * boltEngineers.size());
+    assertEquals(suppliers.size(), useCase.getDistinctSuppliers(YearMonth.of(2022, 1),
+        YearMonth.of(2022, 12)), 0.03 * suppliers.size());
+    assertEquals(0, useCase.getDistinctEngineers(YearMonth.of(2023, 1), YearMonth.of(2023, 12)));
+  }
+}
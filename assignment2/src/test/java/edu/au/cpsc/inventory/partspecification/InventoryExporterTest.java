@@ -0,0 +1,136 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class InventoryExporterTest {
+
+  @TempDir
+  Path directory;
+
+  private CreatePartSpecification useCase;
+
+  @BeforeEach
+  public void setUp() {
+    useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(), new PartRequisitionRequestRepository());
+    Long supplierId = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    var model = new CreatePartSpecification.PartSpecificationModel();
+    model.setName("Bolt, \"hex\"");
+    model.setDescription("line one\nline two");
+    Long partId = useCase.createPartSpecification(model);
+    useCase.addSupplierToPartSpecification(partId, supplierId);
+    Long requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(partId, requestId, 12L, "Ada",
+        LocalDateTime.of(2022, 10, 3, 14, 30), supplierId);
+    useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+  }
+
+  private String export(InventoryFileFormat format) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    useCase.exportInventory(Channels.newChannel(bytes), format);
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void given_inventory_when_exported_as_csv_then_rows_quoted_and_keyed_by_id()
+      throws IOException {
+    assertEquals("type,key,name,description,suppliers,part,quantity,engineer,date,supplier\n"
+        + "supplier,0,,,,,,,,\n"
+        + "part,0,\"Bolt, \"\"hex\"\"\",\"line one\nline two\",0,,,,,\n"
+        + "request,0,,,,0,12,Ada,2022-10-03T14:30,0\n", export(InventoryFileFormat.CSV));
+  }
+
+  @Test
+  public void given_inventory_when_exported_as_ndjson_then_one_object_per_row()
+      throws IOException {
+    assertEquals("{\"type\":\"supplier\",\"key\":0}\n"
+        + "{\"type\":\"part\",\"key\":0,\"name\":\"Bolt, \\\"hex\\\"\","
+        + "\"description\":\"line one\\nline two\",\"suppliers\":[0]}\n"
+        + "{\"type\":\"request\",\"key\":0,\"part\":0,\"quantity\":12,\"engineer\":\"Ada\","
+        + "\"date\":\"2022-10-03T14:30\",\"supplier\":0}\n", export(InventoryFileFormat.NDJSON));
+  }
+
+  @Test
+  public void given_exported_file_when_imported_then_inventory_reproduced() throws IOException {
+    for (String name : List.of("inventory.csv", "inventory.ndjson")) {
+      Path file = directory.resolve(name);
+      assertEquals(3, useCase.exportInventory(file));
+
+      var copy = new CreatePartSpecification(new PartSpecificationRepository(),
+          new SupplierRepository(), new PartRequisitionRequestRepository());
+      ImportReport report = copy.importInventory(file);
+
+      assertEquals(0, report.getRowsRejected());
+      var part = copy.getPartSpecification(0L);
+      assertEquals("Bolt, \"hex\"", part.getName());
+      assertEquals("line one\nline two", part.getDescription());
+      assertEquals(List.of(0L), copy.getSuppliersOfPartSpecification(0L).stream()
+          .map(CreatePartSpecification.SupplierModel::getId).collect(Collectors.toList()));
+      var request = copy.getRequestsForPartSpecification(0L).get(0);
+      assertEquals(12L, request.getQuantity());
+      assertEquals("Ada", request.getEngineerName());
+      assertEquals(LocalDateTime.of(2022, 10, 3, 14, 30), request.getRequestDate());
+    }
+  }
+
+  @Test
+  public void given_requests_the_importer_rejects_when_reimported_then_only_they_are_left_out()
+      throws IOException {
+    Long requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(0L, requestId, 0L, "Ada",
+        LocalDateTime.of(2022, 10, 4, 9, 0), 0L);
+    requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(0L, requestId, 5L, "Grace", null, null);
+    Path file = directory.resolve("inventory.csv");
+    assertEquals(5, useCase.exportInventory(file));
+
+    var copy = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(), new PartRequisitionRequestRepository());
+    ImportReport report = copy.importInventory(file);
+
+    assertEquals(2, report.getRowsRejected());
+    assertEquals(List.of("line 6: quantity must be positive", "line 7: missing supplier"),
+        report.getErrors());
+    assertEquals(1, copy.getRequestsForPartSpecification(0L).size());
+    assertEquals(12L, copy.getQuantityRequestedForPartSpecification(0L));
+  }
+
+  @Test
+  public void given_versioned_repositories_when_exported_then_one_snapshot_read()
+      throws IOException {
+    var clock = new VersionClock();
+    var versioned = new CreatePartSpecification(
+        new PartSpecificationRepository(new VersionedEntityStore<>(clock, PartSpecification::new)),
+        new SupplierRepository(new VersionedEntityStore<>(clock, Supplier::new)),
+        new PartRequisitionRequestRepository(
+            new VersionedEntityStore<>(clock, PartRequisitionRequest::new)));
+    Long supplierId = versioned.createSupplier(new CreatePartSpecification.SupplierModel());
+    var model = new CreatePartSpecification.PartSpecificationModel();
+    model.setName("Bolt");
+    Long partId = versioned.createPartSpecification(model);
+    Long requestId = versioned.createRequisitionRequest(
+        new CreatePartSpecification.RequestModel());
+    versioned.addRequisitionRequestToPartSpecification(partId, requestId, 12L, "Ada",
+        LocalDateTime.of(2022, 10, 3, 14, 30), supplierId);
+
+    var bytes = new ByteArrayOutputStream();
+    versioned.exportInventory(Channels.newChannel(bytes), InventoryFileFormat.CSV);
+
+    assertEquals("type,key,name,description,suppliers,part,quantity,engineer,date,supplier\n"
+        + "supplier,0,,,,,,,,\n"
+        + "part,0,Bolt,,0,,,,,\n"
+        + "request,0,,,,0,12,Ada,2022-10-03T14:30,0\n", bytes.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,121 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class LeasedIdAllocatorTest {
+
+  @Test
+  public void concurrent_allocation_never_hands_out_an_id_twice() throws Exception {
+    var allocator = new LeasedIdAllocator(64);
+    int threads = 4;
+    int idsPerThread = 10_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    var ids = new HashSet<Long>();
+    try {
+      var futures = new ArrayList<Future<List<Long>>>();
+      for (int t = 0; t < threads; t++) {
+        final boolean reserving = t % 2 == 1;
+        futures.add(executor.submit(() -> {
+          var allocated = new ArrayList<Long>();
+          long previous = -1;
+          for (int i = 0; i < idsPerThread; i++) {
+            if (reserving && i % 100 == 0) {
+              long first = allocator.reserve(3);
+              allocated.addAll(List.of(first, first + 1, first + 2));
+            } else {
+              long id = allocator.next();
+              assertTrue(id > previous);
+              previous = id;
+              allocated.add(id);
+            }
+          }
+          return allocated;
+        }));
+      }
+      for (var future : futures) {
+        for (long id : future.get(60, TimeUnit.SECONDS)) {
+          assertTrue(ids.add(id), "duplicate id " + id);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(threads * idsPerThread + 2 * (threads / 2) * (idsPerThread / 100), ids.size());
+  }
+
+  @Test
+  public void reserved_block_is_contiguous_and_not_leased() {
+    var allocator = new LeasedIdAllocator(8);
+    long leased = allocator.next();
+
+    long first = allocator.reserve(100);
+    Set<Long> later = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      later.add(allocator.next());
+    }
+
+    assertEquals(leased + 8, first);
+    for (long id = first; id < first + 100; id++) {
+      assertFalse(later.contains(id), "reserved id " + id + " was leased");
+    }
+  }
+
+  @Test
+  public void given_id_observed_then_later_leases_start_above_it() {
+    var allocator = new LeasedIdAllocator(8);
+    allocator.next();
+
+    allocator.observe(500);
+
+    assertEquals(501, allocator.getHighWaterMark());
+    assertEquals(1, allocator.next());
+    assertEquals(501, allocator.reserve(10));
+  }
+
+  @Test
+  public void given_id_observed_inside_live_lease_then_it_is_never_handed_out() throws Exception {
+    var allocator = new LeasedIdAllocator(8);
+    ExecutorService other = Executors.newSingleThreadExecutor();
+    try {
+      assertEquals(0, allocator.next());
+      assertEquals(8, other.submit(allocator::next).get(60, TimeUnit.SECONDS));
+
+      allocator.observe(3);
+      allocator.observe(10);
+
+      assertTrue(allocator.next() > 10);
+      assertTrue(other.submit(allocator::next).get(60, TimeUnit.SECONDS) > 10);
+    } finally {
+      other.shutdownNow();
+    }
+  }
+
+  @Test
+  public void given_reserved_ids_saved_then_live_lease_is_kept() {
+    var allocator = new LeasedIdAllocator(8);
+    var store = new ConcurrentEntityStore<Supplier>(allocator);
+    assertEquals(0L, store.save(new Supplier()));
+
+    long first = store.reserveIds(3);
+    for (long id = first; id < first + 3; id++) {
+      var supplier = new Supplier();
+      supplier.setId(id);
+      store.save(supplier);
+    }
+
+    assertEquals(8, first);
+    assertEquals(1L, store.save(new Supplier()));
+  }
+}
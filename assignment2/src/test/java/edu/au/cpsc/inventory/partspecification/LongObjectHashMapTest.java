@@ -0,0 +1,47 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LongObjectHashMapTest {
+
+  @Test
+  public void given_empty_map_then_nothing_found() {
+    var map = new LongObjectHashMap<String>();
+    assertNull(map.get(0));
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void given_key_stored_twice_with_put_if_absent_then_first_value_kept() {
+    var map = new LongObjectHashMap<String>();
+    map.putIfAbsent(7, "first");
+    map.putIfAbsent(7, "second");
+    assertEquals("first", map.get(7));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void random_puts_and_removes_agree_with_hash_map() {
+    var map = new LongObjectHashMap<Long>();
+    Map<Long, Long> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(5_000) - 2_500;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    for (long key = -2_500; key < 2_500; key++) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+  }
+}
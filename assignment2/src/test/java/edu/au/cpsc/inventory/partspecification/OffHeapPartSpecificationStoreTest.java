@@ -0,0 +1,101 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapPartSpecificationStoreTest {
+
+  @Test
+  public void given_part_built_through_use_case_then_read_back_from_arena() {
+    var supplierRepository = new SupplierRepository();
+    var requests = new PartRequisitionRequestRepository();
+    var store = new OffHeapPartSpecificationStore(supplierRepository::findOne,
+        requests::findOne);
+    var parts = new PartSpecificationRepository(store);
+    var useCase = new CreatePartSpecification(parts, supplierRepository, requests);
+    Long first = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long second = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    var model = new CreatePartSpecification.PartSpecificationModel();
+    model.setName("Hex bolt");
+    model.setDescription("Zinc plated, M8 × 40");
+    Long part = useCase.createPartSpecification(model);
+    useCase.addSupplierToPartSpecification(part, second);
+    var requestIds = new ArrayList<Long>();
+    for (int i = 0; i < 10; i++) {
+      Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(part, request, 2L, "Ada",
+          LocalDateTime.of(2022, 10, 3, 14, 30), i % 2 == 0 ? first : second);
+      requestIds.add(request);
+    }
+    useCase.editPartSpecification(part, "Hex bolt, long", "Stainless, M8 × 60");
+
+    var ps = parts.findOne(part);
+
+    assertEquals("Hex bolt, long", ps.getName());
+    assertEquals("Stainless, M8 × 60", ps.getDescription());
+    assertArrayEquals(new long[] {first, second}, ps.getSupplierIds());
+    assertSame(supplierRepository.findOne(first), ps.getSuppliers().get(0));
+    assertTrue(ps.hasSupplier(second));
+    assertEquals(requestIds.stream().map(requests::findOne).toList(),
+        ps.getPartRequisitionRequests());
+    assertEquals(List.of(ps), parts.findByName("Hex bolt, long"));
+    assertEquals(List.of(ps), parts.findBySupplier(first));
+    assertEquals(20L, useCase.getQuantityRequestedForPartSpecification(part));
+  }
+
+  @Test
+  public void given_records_rewritten_then_compaction_keeps_them() {
+    var store = new OffHeapPartSpecificationStore();
+    for (int i = 0; i < 1000; i++) {
+      var ps = new PartSpecification();
+      ps.setName("part " + i);
+      store.save(ps);
+    }
+    for (var ps : store.findAll()) {
+      ps.setDescription("described " + ps.getId());
+      var supplier = new Supplier();
+      supplier.setId(ps.getId() % 7);
+      assertTrue(ps.addSupplier(supplier));
+      assertFalse(ps.addSupplier(supplier));
+    }
+    var kept = store.findOne(500);
+    assertTrue(store.garbageBytes() > 0);
+
+    store.compact();
+
+    assertEquals(0, store.garbageBytes());
+    assertEquals("part 500", kept.getName());
+    assertEquals("described 500", kept.getDescription());
+    assertArrayEquals(new long[] {500 % 7}, kept.getSupplierIds());
+    assertEquals(1000, store.findAll().size());
+  }
+
+  @Test
+  public void given_nulls_and_unsaved_entities_then_only_ids_kept() {
+    var store = new OffHeapPartSpecificationStore();
+    var ps = new PartSpecification();
+    ps.setId(9L);
+    ps.addSupplier(new Supplier());
+    store.save(ps);
+
+    var view = store.findOne(9);
+
+    assertNull(view.getName());
+    assertNull(view.getDescription());
+    assertEquals(List.of(), view.getSuppliers());
+    assertFalse(view.addSupplier(null));
+    view.addPartRequisitionRequest(new PartRequisitionRequest());
+    assertEquals(List.of(), view.getPartRequisitionRequests());
+    assertNull(store.findOne(3));
+    assertEquals(10L, store.save(new PartSpecification()));
+  }
+}
@@ -0,0 +1,111 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class OptimisticTransactionsTest {
+
+  @Test
+  public void given_entity_changed_after_read_then_transaction_run_again() {
+    var repository = new SupplierRepository();
+    Long id = repository.save(new Supplier());
+    var transactions = new OptimisticTransactions(repository, 3);
+    var applied = new ArrayList<Integer>();
+
+    int attempts = transactions.run(transaction -> {
+      var supplier = transaction.read(repository, id);
+      int attempt = applied.size() + (int) transactions.getConflicts();
+      if (attempt == 0) {
+        repository.update(supplier);
+      }
+      transaction.onCommit(() -> applied.add(attempt));
+      return attempt + 1;
+    });
+
+    assertEquals(2, attempts);
+    assertEquals(1, applied.size());
+    assertEquals(1, transactions.getConflicts());
+    assertEquals(1, transactions.getCommits());
+    assertEquals(1, repository.findOne(id).getVersion());
+  }
+
+  @Test
+  public void given_every_attempt_conflicts_then_nothing_changed() {
+    var repository = new SupplierRepository();
+    Long id = repository.save(new Supplier());
+    var transactions = new OptimisticTransactions(repository, 3);
+    var applied = new ArrayList<Integer>();
+
+    assertThrows(ConcurrentModificationException.class, () -> transactions.run(transaction -> {
+      repository.update(transaction.read(repository, id));
+      transaction.onCommit(() -> applied.add(1));
+      return null;
+    }));
+    assertEquals(0, applied.size());
+    assertEquals(3, transactions.getConflicts());
+  }
+
+  @Test
+  public void given_missing_part_then_request_left_unattached() {
+    var requests = new PartRequisitionRequestRepository();
+    var useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(), requests);
+    Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+
+    assertThrows(NullPointerException.class, () ->
+        useCase.addRequisitionRequestToPartSpecification(99L, request, 5L, "Ada", null, null));
+    assertNull(requests.findOne(request).getPartSpecificationId());
+    assertEquals(0, requests.findOne(request).getQuantity());
+  }
+
+  @Test
+  public void concurrent_requests_on_hot_parts_all_committed_once() throws Exception {
+    var parts = new PartSpecificationRepository(new ConcurrentEntityStore<>());
+    var requests = new PartRequisitionRequestRepository(new ConcurrentEntityStore<>());
+    var useCase = new CreatePartSpecification(parts,
+        new SupplierRepository(new ConcurrentEntityStore<>()), requests);
+    Long supplier = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long[] hot = {
+        useCase.createPartSpecification(new CreatePartSpecification.PartSpecificationModel()),
+        useCase.createPartSpecification(new CreatePartSpecification.PartSpecificationModel())};
+    int threads = 4;
+    int requestsPerThread = 2_000;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      var futures = new ArrayList<Future<?>>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < requestsPerThread; i++) {
+            Long request = useCase.createRequisitionRequest(
+                new CreatePartSpecification.RequestModel());
+            useCase.addRequisitionRequestToPartSpecification(hot[i % 2], request, 1L, "Ada",
+                null, supplier);
+          }
+        }));
+      }
+      for (var future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long expected = (long) threads * requestsPerThread / 2;
+    for (Long part : hot) {
+      assertEquals(expected, parts.findOne(part).getPartRequisitionRequests().size());
+      assertEquals(expected, useCase.getRequestsForPartSpecification(part).size());
+      assertEquals(expected, useCase.getQuantityRequestedForPartSpecification(part));
+    }
+    assertEquals(threads * requestsPerThread, useCase.getTransactions().getCommits());
+  }
+}
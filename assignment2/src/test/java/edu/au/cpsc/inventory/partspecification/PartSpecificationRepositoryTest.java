@@ -1,6 +1,8 @@
 package edu.au.cpsc.inventory.partspecification;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -34,6 +36,19 @@ public class PartSpecificationRepositoryTest {
     assertEquals(oldId, ps.getId());
   }
 
+  @Test
+  public void given_saved_part_specifications_then_each_found_by_id() {
+    PartSpecification first = new PartSpecification();
+    PartSpecification second = new PartSpecification();
+    partSpecificationRepository.save(first);
+    partSpecificationRepository.save(second);
+
+    assertSame(first, partSpecificationRepository.findOne(first.getId()));
+    assertSame(second, partSpecificationRepository.findOne(second.getId()));
+    assertNull(partSpecificationRepository.findOne(42L));
+    assertNull(partSpecificationRepository.findOne(null));
+  }
+
   @Test
   public void same_object_stored_in_repositories_more_than_once() {
 
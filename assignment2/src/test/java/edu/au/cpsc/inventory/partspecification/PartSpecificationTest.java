@@ -1,6 +1,10 @@
 package edu.au.cpsc.inventory.partspecification;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -29,4 +33,36 @@ public class PartSpecificationTest {
     assertEquals(0, ps.getSuppliers().size());
   }
 
+  private static Supplier supplier(long id) {
+    Supplier supplier = new Supplier();
+    supplier.setId(id);
+    return supplier;
+  }
+
+  @Test
+  public void given_supplier_added_twice_then_recorded_once() {
+    PartSpecification ps = new PartSpecification();
+    Supplier supplier = supplier(4);
+    assertTrue(ps.addSupplier(supplier));
+    assertFalse(ps.addSupplier(supplier));
+    assertFalse(ps.addSupplier(supplier(4)));
+    assertEquals(1, ps.getSuppliers().size());
+    assertSame(supplier, ps.getSuppliers().get(0));
+  }
+
+  @Test
+  public void given_suppliers_added_out_of_order_then_listed_by_id_and_found() {
+    PartSpecification ps = new PartSpecification();
+    Supplier unsaved = new Supplier();
+    ps.addSupplier(supplier(9));
+    ps.addSupplier(unsaved);
+    ps.addSupplier(supplier(2));
+    ps.addSupplier(supplier(5));
+    assertArrayEquals(new long[] {2, 5, 9}, ps.getSupplierIds());
+    assertEquals(5L, ps.getSuppliers().get(1).getId());
+    assertSame(unsaved, ps.getSuppliers().get(3));
+    assertTrue(ps.hasSupplier(5));
+    assertFalse(ps.hasSupplier(6));
+  }
+
 }
@@ -0,0 +1,55 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+public class PostingListTest {
+
+  private static List<long[]> contents(PostingList list) {
+    List<long[]> result = new ArrayList<>();
+    list.forEach((id, frequency) -> result.add(new long[] {id, frequency}));
+    return result;
+  }
+
+  @Test
+  public void random_puts_and_removes_agree_with_sorted_map() {
+    PostingList list = new PostingList();
+    TreeMap<Long, Integer> expected = new TreeMap<>();
+    Random random = new Random(7);
+    for (int i = 0; i < 5_000; i++) {
+      long id = random.nextInt(1_000) * 1_000L;
+      if (random.nextInt(4) == 0) {
+        list.remove(id);
+        expected.remove(id);
+      } else {
+        int frequency = 1 + random.nextInt(300);
+        list.put(id, frequency);
+        expected.put(id, frequency);
+      }
+    }
+
+    List<long[]> actual = contents(list);
+    assertEquals(expected.size(), list.size());
+    assertEquals(expected.size(), actual.size());
+    int i = 0;
+    for (var entry : expected.entrySet()) {
+      assertEquals(entry.getKey(), actual.get(i)[0]);
+      assertEquals((long) entry.getValue(), actual.get(i)[1]);
+      i++;
+    }
+  }
+
+  @Test
+  public void ascending_ids_take_two_bytes_per_posting() {
+    PostingList list = new PostingList();
+    for (long id = 0; id < 1_000; id++) {
+      list.put(id * 3, 1);
+    }
+    assertEquals(2_000, list.encodedLength());
+  }
+}
@@ -0,0 +1,120 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+public class QuantityTotalsTest {
+
+  private static final String[] ENGINEERS = {"Ada", "Grace", "Alan", null};
+
+  private static long bruteForce(PartRequisitionRequestRepository repository,
+      Predicate<PartRequisitionRequest> filter) {
+    return repository.findAll().stream()
+        .filter(request -> request.getPartSpecificationId() != null)
+        .filter(filter)
+        .mapToLong(PartRequisitionRequest::getQuantity)
+        .sum();
+  }
+
+  private static Long selectedSupplierId(PartRequisitionRequest request) {
+    var suppliers = request.getSuppliers();
+    Supplier supplier = suppliers.isEmpty() ? null : suppliers.get(suppliers.size() - 1);
+    return supplier == null ? null : supplier.getId();
+  }
+
+  @Test
+  public void totals_agree_with_brute_force_after_requests_added_and_moved() {
+    var requests = new PartRequisitionRequestRepository();
+    var parts = new PartSpecificationRepository();
+    var suppliers = new SupplierRepository();
+    var useCase = new CreatePartSpecification(parts, suppliers, requests);
+    for (int i = 0; i < 5; i++) {
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+      useCase.createPartSpecification(new CreatePartSpecification.PartSpecificationModel());
+    }
+    Random random = new Random(16);
+    LocalDateTime date = LocalDateTime.of(2022, 10, 3, 9, 0);
+    for (int i = 0; i < 2_000; i++) {
+      boolean moved = i >= 500 && random.nextInt(4) == 0;
+      long requestId = moved ? random.nextInt(500)
+          : useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      long part = random.nextInt(5);
+      long quantity = 1L + random.nextInt(100);
+      String engineer = ENGINEERS[random.nextInt(ENGINEERS.length)];
+      int supplierIndex = random.nextInt(6);
+      Long supplier = supplierIndex == 5 ? null : (long) supplierIndex;
+      if (moved) {
+        requests.attach(requests.findOne(requestId), parts.findOne(part), quantity, engineer,
+            date.plusMinutes(i), suppliers.findOne(supplier));
+      } else {
+        useCase.addRequisitionRequestToPartSpecification(part, requestId, quantity, engineer,
+            date.plusMinutes(i), supplier);
+      }
+    }
+
+    for (long id = 0; id < 6; id++) {
+      long part = id;
+      long supplier = id;
+      assertEquals(bruteForce(requests, r -> r.getPartSpecificationId() == part),
+          useCase.getQuantityRequestedForPartSpecification(part));
+      assertEquals(bruteForce(requests, r -> Objects.equals(selectedSupplierId(r), supplier)),
+          useCase.getQuantityRequestedFromSupplier(supplier));
+    }
+    for (String engineer : ENGINEERS) {
+      if (engineer != null) {
+        assertEquals(bruteForce(requests, r -> engineer.equals(r.getEngineerName())),
+            useCase.getQuantityRequestedByEngineer(engineer));
+      }
+    }
+    assertEquals(0, useCase.getQuantityRequestedByEngineer(null));
+  }
+
+  @Test
+  public void concurrent_attaches_to_one_part_are_all_counted() throws Exception {
+    int threads = 8;
+    int requestsPerThread = 10_000;
+    var repository = new PartRequisitionRequestRepository(new ConcurrentEntityStore<>());
+    var part = new PartSpecification();
+    part.setId(0L);
+    var supplier = new Supplier();
+    supplier.setId(0L);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < requestsPerThread; i++) {
+          var request = new PartRequisitionRequest();
+          repository.save(request);
+          repository.attach(request, part, 3L, "Ada", null, supplier);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (var result : results) {
+      result.get();
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    long expected = 3L * threads * requestsPerThread;
+    assertEquals(expected, repository.getQuantityTotals().forPartSpecification(0L));
+    assertEquals(expected, repository.getQuantityTotals().forSupplier(0L));
+    assertEquals(expected, repository.getQuantityTotals().forEngineer("Ada"));
+  }
+}
@@ -0,0 +1,40 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TimeBucketIndexTest {
+
+  @Test
+  public void range_queries_agree_with_brute_force() {
+    var index = new TimeBucketIndex(1_000);
+    List<long[]> entries = new ArrayList<>();
+    Random random = new Random(3);
+    for (long id = 0; id < 20_000; id++) {
+      long time = random.nextInt(1_000_000) - 500_000;
+      index.add(time, id);
+      entries.add(new long[] {time, id});
+    }
+    for (int i = 0; i < 2_000; i++) {
+      long[] removed = entries.remove(random.nextInt(entries.size()));
+      index.remove(removed[0], removed[1]);
+    }
+    entries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+    for (int i = 0; i < 200; i++) {
+      long from = random.nextInt(1_200_000) - 600_000;
+      long to = from + random.nextInt(100_000);
+      long[] expected = entries.stream()
+          .filter(entry -> entry[0] >= from && entry[0] < to)
+          .mapToLong(entry -> entry[1])
+          .toArray();
+      assertArrayEquals(expected, index.between(from, to));
+      assertEquals(expected.length, index.count(from, to));
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TopKCounterTest {
+
+  @Test
+  public void top_keys_agree_with_brute_force_as_window_slides() {
+    long width = 1_000;
+    int bucketCount = 10;
+    var counter = new TopKCounter(width, bucketCount);
+    List<long[]> events = new ArrayList<>();
+    Random random = new Random(17);
+    long now = 0;
+    for (int i = 0; i < 20_000; i++) {
+      now += random.nextInt(50);
+      long time = now - random.nextInt(12_000);
+      long key = (long) Math.abs(random.nextGaussian() * 20);
+      long amount = 1 + random.nextInt(10);
+      counter.add(key, time, amount, now);
+      events.add(new long[] {key, time, amount});
+
+      if (i % 500 == 0) {
+        long oldest = (Math.floorDiv(now, width) - bucketCount + 1) * width;
+        Map<Long, Long> totals = new HashMap<>();
+        for (long[] event : events) {
+          if (event[1] >= oldest) {
+            totals.merge(event[0], event[2], Long::sum);
+          }
+        }
+        List<TopKCounter.Entry> expected = totals.entrySet().stream()
+            .sorted(Comparator.<Map.Entry<Long, Long>>comparingLong(e -> -e.getValue())
+                .thenComparingLong(Map.Entry::getKey))
+            .limit(5)
+            .map(e -> new TopKCounter.Entry(e.getKey(), e.getValue()))
+            .toList();
+        assertEquals(expected, counter.top(5, now));
+      }
+    }
+  }
+
+  @Test
+  public void given_amount_taken_back_then_key_leaves_ranking() {
+    var counter = new TopKCounter(1_000, 4);
+    counter.add(1, 500, 10, 500);
+    counter.add(2, 500, 5, 500);
+    counter.add(1, 500, -10, 500);
+
+    assertEquals(List.of(new TopKCounter.Entry(2, 5)), counter.top(3, 500));
+    assertEquals(0, counter.total(1, 500));
+    assertEquals(List.of(), counter.top(3, 10_000));
+  }
+
+  @Test
+  public void given_requisitions_then_leaderboard_ranks_each_window() {
+    LocalDateTime now = LocalDateTime.of(2022, 10, 3, 12, 0);
+    var clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    var useCase = new CreatePartSpecification(new PartSpecificationRepository(),
+        new SupplierRepository(),
+        new PartRequisitionRequestRepository(new IndexedEntityStore<>(), clock));
+    for (int i = 0; i < 3; i++) {
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+      useCase.createPartSpecification(new CreatePartSpecification.PartSpecificationModel());
+    }
+    request(useCase, 0L, 5L, now.minusMinutes(10), 0L);
+    request(useCase, 1L, 8L, now.minusHours(3), 1L);
+    request(useCase, 2L, 20L, now.minusDays(3), 1L);
+    request(useCase, 2L, 99L, now.minusDays(30), 2L);
+
+    var hour = RequisitionLeaderboard.Window.LAST_HOUR;
+    var day = RequisitionLeaderboard.Window.LAST_DAY;
+    var week = RequisitionLeaderboard.Window.LAST_WEEK;
+    assertEquals(List.of(new TopKCounter.Entry(0, 5)), useCase.getTopPartSpecifications(hour, 3));
+    assertEquals(List.of(new TopKCounter.Entry(1, 8), new TopKCounter.Entry(0, 5)),
+        useCase.getTopPartSpecifications(day, 3));
+    assertEquals(List.of(new TopKCounter.Entry(2, 20)), useCase.getTopPartSpecifications(week, 1));
+    assertEquals(List.of(new TopKCounter.Entry(1, 28), new TopKCounter.Entry(0, 5)),
+        useCase.getTopSuppliers(week, 3));
+  }
+
+  private static void request(CreatePartSpecification useCase, Long partId, Long quantity,
+      LocalDateTime date, Long supplierId) {
+    Long requestId = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+    useCase.addRequisitionRequestToPartSpecification(partId, requestId, quantity, "Ada", date,
+        supplierId);
+  }
+}
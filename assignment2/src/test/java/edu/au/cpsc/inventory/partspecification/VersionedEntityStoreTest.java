@@ -0,0 +1,121 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class VersionedEntityStoreTest {
+
+  private final VersionClock clock = new VersionClock();
+  private final PartSpecificationRepository parts = new PartSpecificationRepository(
+      new VersionedEntityStore<>(clock, PartSpecification::new));
+  private final SupplierRepository suppliers = new SupplierRepository(
+      new VersionedEntityStore<>(clock, Supplier::new));
+  private final PartRequisitionRequestRepository requests = new PartRequisitionRequestRepository(
+      new VersionedEntityStore<>(clock, PartRequisitionRequest::new));
+  private final CreatePartSpecification useCase = new CreatePartSpecification(parts, suppliers,
+      requests);
+
+  private Long createPartSpecification(String name) {
+    var model = new CreatePartSpecification.PartSpecificationModel();
+    model.setName(name);
+    model.setDescription(name);
+    return useCase.createPartSpecification(model);
+  }
+
+  @Test
+  public void given_snapshot_open_then_later_writes_not_seen() {
+    Long part = createPartSpecification("bolt");
+    Long supplier = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+
+    try (var snapshot = parts.openSnapshot()) {
+      useCase.editPartSpecification(part, "nut", "nut");
+      useCase.addRequisitionRequestToPartSpecification(part, request, 5L, "Ada", null, supplier);
+      Long later = createPartSpecification("washer");
+
+      var before = parts.findOne(part, snapshot);
+      assertEquals("bolt", before.getName());
+      assertEquals(List.of(), before.getSuppliers());
+      assertEquals(List.of(), before.getPartRequisitionRequests());
+      assertNull(requests.findOne(request, snapshot).getPartSpecificationId());
+      assertNull(parts.findOne(later, snapshot));
+      assertEquals(1, parts.findAll(snapshot).size());
+    }
+
+    var after = useCase.getPartSpecification(part);
+    assertEquals("nut", after.getName());
+    assertEquals(List.of(supplier), useCase.getSuppliersOfPartSpecification(part).stream()
+        .map(CreatePartSpecification.SupplierModel::getId).toList());
+    assertEquals(2, useCase.getPartSpecifications().size());
+    assertEquals(part, useCase.getRequests().get(0).getPartSpecificationId());
+  }
+
+  @Test
+  public void given_old_snapshot_open_then_its_versions_outlive_many_writes() {
+    Long part = createPartSpecification("v0");
+    var snapshot = parts.openSnapshot();
+    for (int i = 1; i <= 100; i++) {
+      useCase.editPartSpecification(part, "v" + i, "v" + i);
+    }
+    try (var latest = parts.openSnapshot()) {
+      assertEquals("v0", parts.findOne(part, snapshot).getName());
+      assertEquals("v100", parts.findOne(part, latest).getName());
+    }
+    snapshot.close();
+    useCase.editPartSpecification(part, "v101", "v101");
+    assertEquals("v101", useCase.getPartSpecification(part).getName());
+  }
+
+  @Test
+  public void listings_see_whole_writes_while_writers_run() throws Exception {
+    var ids = new ArrayList<Long>();
+    for (int i = 0; i < 50; i++) {
+      ids.add(createPartSpecification("round 0"));
+    }
+    var done = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> writer = executor.submit(() -> {
+        for (int round = 1; round <= 500; round++) {
+          String name = "round " + round;
+          parts.write(() -> {
+            for (Long id : ids) {
+              useCase.editPartSpecification(id, name, name);
+            }
+          });
+        }
+        done.set(true);
+      });
+      var readers = new ArrayList<Future<?>>();
+      for (int r = 0; r < 2; r++) {
+        readers.add(executor.submit(() -> {
+          while (!done.get()) {
+            var listed = useCase.getPartSpecifications();
+            assertEquals(ids.size(), listed.size());
+            for (var model : listed) {
+              assertEquals(listed.get(0).getName(), model.getName());
+              assertEquals(model.getName(), model.getDescription());
+            }
+          }
+          return null;
+        }));
+      }
+      writer.get(60, TimeUnit.SECONDS);
+      for (var reader : readers) {
+        reader.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals("round 500", useCase.getPartSpecification(ids.get(0)).getName());
+  }
+}
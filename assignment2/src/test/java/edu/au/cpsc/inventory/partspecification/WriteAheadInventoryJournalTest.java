@@ -0,0 +1,206 @@
+package edu.au.cpsc.inventory.partspecification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WriteAheadInventoryJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private Path journalPath;
+  private PartSpecificationRepository partSpecificationRepository;
+  private SupplierRepository supplierRepository;
+  private PartRequisitionRequestRepository partRequisitionRequestRepository;
+
+  @BeforeEach
+  public void setUp() {
+    journalPath = directory.resolve("inventory.journal");
+  }
+
+  private WriteAheadInventoryJournal openJournal() throws IOException {
+    return openJournal(WriteAheadInventoryJournal.DEFAULT_CHECKPOINT_INTERVAL_RECORDS);
+  }
+
+  private WriteAheadInventoryJournal openJournal(long checkpointIntervalRecords)
+      throws IOException {
+    partSpecificationRepository = new PartSpecificationRepository();
+    supplierRepository = new SupplierRepository();
+    partRequisitionRequestRepository = new PartRequisitionRequestRepository();
+    return WriteAheadInventoryJournal.open(journalPath,
+        WriteAheadInventoryJournal.DEFAULT_SYNC_INTERVAL_MILLIS, checkpointIntervalRecords,
+        partSpecificationRepository, supplierRepository, partRequisitionRequestRepository);
+  }
+
+  private CreatePartSpecification useCase(InventoryJournal journal) {
+    return new CreatePartSpecification(partSpecificationRepository, supplierRepository,
+        partRequisitionRequestRepository, journal);
+  }
+
+  @Test
+  public void given_journaled_changes_when_reopened_then_repositories_restored()
+      throws IOException {
+    LocalDateTime date = LocalDateTime.of(2022, 3, 4, 5, 6, 7, 8);
+    Long partId;
+    try (var journal = openJournal()) {
+      var useCase = useCase(journal);
+      var model = new CreatePartSpecification.PartSpecificationModel();
+      model.setName("bolt");
+      model.setDescription("M3 hex bolt");
+      partId = useCase.createPartSpecification(model);
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+      useCase.addSupplierToPartSpecification(partId, 0L);
+      useCase.removeSupplierToPartSpecification(partId);
+      useCase.editPartSpecification(partId, "nut", null);
+      useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(partId, 0L, 12L, "Ada", date, 1L);
+    }
+
+    try (var journal = openJournal()) {
+      var ps = partSpecificationRepository.findOne(partId);
+      assertEquals("nut", ps.getName());
+      assertEquals(null, ps.getDescription());
+      assertEquals(1, ps.getSuppliers().size());
+      assertSame(supplierRepository.findOne(1L), ps.getSuppliers().get(0));
+      assertEquals(2, supplierRepository.findAll().size());
+      assertEquals(List.of(), partSpecificationRepository.findBySupplier(0L));
+      assertEquals(List.of(ps), partSpecificationRepository.findBySupplier(1L));
+
+      var request = partRequisitionRequestRepository.findOne(0L);
+      assertSame(request, ps.getPartRequisitionRequests().get(0));
+      assertEquals(12, request.getQuantity());
+      assertEquals("Ada", request.getEngineerName());
+      assertEquals(date, request.getRequestDate());
+
+      Long nextId = useCase(journal)
+          .createPartSpecification(new CreatePartSpecification.PartSpecificationModel());
+      assertNotEquals(partId, nextId);
+    }
+  }
+
+  @Test
+  public void given_torn_record_at_end_of_journal_then_it_is_discarded() throws IOException {
+    try (var journal = openJournal()) {
+      useCase(journal).createSupplier(new CreatePartSpecification.SupplierModel());
+    }
+    try (var channel = FileChannel.open(journalPath, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 9, 1, 2}));
+    }
+
+    try (var journal = openJournal()) {
+      assertEquals(1, supplierRepository.findAll().size());
+      useCase(journal).createSupplier(new CreatePartSpecification.SupplierModel());
+    }
+
+    openJournal().close();
+
+    assertEquals(2, supplierRepository.findAll().size());
+  }
+
+  @Test
+  public void given_checkpoint_interval_reached_then_log_truncated_and_snapshot_restored()
+      throws IOException {
+    try (var journal = openJournal(3)) {
+      var useCase = useCase(journal);
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+      Long partId = useCase
+          .createPartSpecification(new CreatePartSpecification.PartSpecificationModel());
+      useCase.addSupplierToPartSpecification(partId, 0L);
+      assertEquals(12, Files.size(journalPath));
+      useCase.editPartSpecification(partId, "washer", "flat");
+    }
+
+    openJournal(3).close();
+
+    var ps = partSpecificationRepository.findAll().get(0);
+    assertEquals("washer", ps.getName());
+    assertSame(supplierRepository.findOne(0L), ps.getSuppliers().get(0));
+    assertEquals(List.of(ps), partSpecificationRepository.findBySupplier(0L));
+  }
+
+  @Test
+  public void given_crash_after_snapshot_before_truncation_then_records_not_applied_twice()
+      throws IOException {
+    Path staleLog = directory.resolve("stale.journal");
+    try (var journal = openJournal()) {
+      var useCase = useCase(journal);
+      useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+      Long partId = useCase
+          .createPartSpecification(new CreatePartSpecification.PartSpecificationModel());
+      useCase.addSupplierToPartSpecification(partId, 0L);
+      journal.sync();
+      Files.copy(journalPath, staleLog);
+      journal.checkpoint();
+    }
+    Files.move(staleLog, journalPath, StandardCopyOption.REPLACE_EXISTING);
+
+    openJournal().close();
+
+    assertEquals(1, supplierRepository.findAll().size());
+    assertEquals(1, partSpecificationRepository.findAll().size());
+    assertEquals(1, partSpecificationRepository.findAll().get(0).getSuppliers().size());
+  }
+
+  @Test
+  public void given_snapshot_spanning_many_windows_then_read_back_whole() throws IOException {
+    var parts = new PartSpecificationRepository();
+    var suppliers = new SupplierRepository();
+    var requests = new PartRequisitionRequestRepository();
+    var useCase = new CreatePartSpecification(parts, suppliers, requests);
+    Long supplier = useCase.createSupplier(new CreatePartSpecification.SupplierModel());
+    String description = "a description longer than one window ".repeat(10);
+    LocalDateTime date = LocalDateTime.of(2022, 3, 4, 5, 6, 7, 8);
+    for (int i = 0; i < 50; i++) {
+      var model = new CreatePartSpecification.PartSpecificationModel();
+      model.setName("part " + i);
+      model.setDescription(description);
+      Long part = useCase.createPartSpecification(model);
+      useCase.addSupplierToPartSpecification(part, supplier);
+      Long request = useCase.createRequisitionRequest(new CreatePartSpecification.RequestModel());
+      useCase.addRequisitionRequestToPartSpecification(part, request, 10L + i, "Ada",
+          date.plusDays(i), supplier);
+    }
+    Path snapshotPath = directory.resolve("inventory.snapshot");
+    int windowBytes = 61;
+
+    InventorySnapshot.write(snapshotPath, 7, parts, suppliers, requests, windowBytes);
+    partSpecificationRepository = new PartSpecificationRepository();
+    supplierRepository = new SupplierRepository();
+    partRequisitionRequestRepository = new PartRequisitionRequestRepository();
+    long sequenceNumber = InventorySnapshot.read(snapshotPath, partSpecificationRepository,
+        supplierRepository, partRequisitionRequestRepository, windowBytes);
+
+    assertEquals(7, sequenceNumber);
+    assertTrue(Files.size(snapshotPath) > 100L * windowBytes);
+    assertEquals(50, partSpecificationRepository.findAll().size());
+    for (int i = 0; i < 50; i++) {
+      var ps = partSpecificationRepository.findAll().get(i);
+      assertEquals("part " + i, ps.getName());
+      assertEquals(description, ps.getDescription());
+      assertSame(supplierRepository.findOne(supplier), ps.getSuppliers().get(0));
+      var request = ps.getPartRequisitionRequests().get(0);
+      assertEquals(10L + i, request.getQuantity());
+      assertEquals(date.plusDays(i), request.getRequestDate());
+      assertEquals("Ada", request.getEngineerName());
+    }
+    assertEquals(useCase.getQuantityRequestedForPartSpecification(0L),
+        new CreatePartSpecification(partSpecificationRepository, supplierRepository,
+            partRequisitionRequestRepository).getQuantityRequestedForPartSpecification(0L));
+  }
+}